@@ -0,0 +1,161 @@
+package com.plms.springframework.benchmark;
+
+import com.plms.springframework.benchmark.synthetic.SyntheticContextGenerator;
+import com.plms.springframework.benchmark.synthetic.SyntheticMarker;
+import com.plms.springframework.context.support.ClassPathXmlApplicationContext;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 容器刷新随上下文规模的变化，上下文由SyntheticContextGenerator生成。
+ * refresh测量刷新耗时；retainedHeap在关闭容器前后分别进行GC，通过辅助计数器报告容器占用的堆内存，它的耗时包含GC，没有参考意义；
+ * getBeanNamesForType和getBeansOfType在刷新后的容器上测量按类型查找
+ * @Author bigboss
+ * @Date 2021/11/26 19:40
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ContextScalingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int beanCount;
+
+    @Param({"2"})
+    private int fanOut;
+
+    @Param({"4"})
+    private int depth;
+
+    @Param({"0.1"})
+    private double prototypeRatio;
+
+    @Param({"0.2"})
+    private double initMethodRatio;
+
+    private Path contextFile;
+
+    private String[] configLocations;
+
+    private ClassPathXmlApplicationContext applicationContext;
+
+    private ClassPathXmlApplicationContext refreshedContext;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SyntheticContextGenerator generator = new SyntheticContextGenerator();
+        generator.setBeanCount(beanCount);
+        generator.setFanOut(fanOut);
+        generator.setDepth(depth);
+        generator.setPrototypeRatio(prototypeRatio);
+        generator.setInitMethodRatio(initMethodRatio);
+        contextFile = Files.createTempFile("synthetic-context-" + beanCount + "-", ".xml");
+        generator.generate(contextFile);
+        configLocations = new String[]{contextFile.toAbsolutePath().toString()};
+        refreshedContext = new ClassPathXmlApplicationContext(configLocations);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        refreshedContext.close();
+        Files.deleteIfExists(contextFile);
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeContext() {
+        if (applicationContext != null) {
+            applicationContext.close();
+            applicationContext = null;
+        }
+    }
+
+    @Benchmark
+    public ClassPathXmlApplicationContext refresh() {
+        applicationContext = new ClassPathXmlApplicationContext(configLocations);
+        return applicationContext;
+    }
+
+    /**
+     * 辅助计数器按迭代求和，因此只进行一次测量迭代
+     */
+    @Benchmark
+    @Measurement(iterations = 1)
+    public void retainedHeap(HeapUsage heapUsage) {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext(configLocations);
+        long withContext = usedHeapAfterGc();
+        // 关闭前容器一直可达，两次测量的差值就是容器占用的堆内存
+        applicationContext.close();
+        applicationContext = null;
+        long retained = withContext - usedHeapAfterGc();
+        heapUsage.retainedHeapBytes = retained;
+        heapUsage.retainedBytesPerBean = retained / beanCount;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public String[] getBeanNamesForType() {
+        return refreshedContext.getBeanNamesForType(SyntheticMarker.class);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public Map<String, SyntheticMarker> getBeansOfType() {
+        return refreshedContext.getBeansOfType(SyntheticMarker.class);
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        // 多次GC直到已用内存不再下降
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            long current = memoryMXBean.getHeapMemoryUsage().getUsed();
+            if (current >= used) {
+                break;
+            }
+            used = current;
+        }
+        return used;
+    }
+
+    /**
+     * 刷新后容器占用的堆内存
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapUsage {
+
+        public long retainedHeapBytes;
+
+        public long retainedBytesPerBean;
+    }
+}
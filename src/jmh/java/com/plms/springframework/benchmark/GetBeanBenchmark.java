@@ -0,0 +1,100 @@
+package com.plms.springframework.benchmark;
+
+import com.plms.springframework.bean.factory.BeanHandle;
+import com.plms.springframework.benchmark.bean.Car;
+import com.plms.springframework.benchmark.bean.Driver;
+import com.plms.springframework.benchmark.bean.Engine;
+import com.plms.springframework.context.support.ClassPathXmlApplicationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 容器刷新后获取Bean的热点路径，metricsEnabled参数对比开启和关闭运行时统计的开销
+ * @Author bigboss
+ * @Date 2021/11/25 19:30
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class GetBeanBenchmark {
+
+    @Param({"true", "false"})
+    private boolean metricsEnabled;
+
+    private ClassPathXmlApplicationContext applicationContext;
+
+    private BeanHandle<Driver> singletonHandle;
+
+    private BeanHandle<Car> prototypeHandle;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        applicationContext = new ClassPathXmlApplicationContext(new String[]{"classpath:benchmark-beans.xml"}, false);
+        applicationContext.setMetricsEnabled(metricsEnabled);
+        applicationContext.refresh();
+        singletonHandle = applicationContext.getBeanHandle("driver", Driver.class);
+        prototypeHandle = applicationContext.getBeanHandle("prototypeCar", Car.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public Object singletonByName() {
+        return applicationContext.getBean("driver");
+    }
+
+    @Benchmark
+    public Driver singletonByType() {
+        return applicationContext.getBean(Driver.class);
+    }
+
+    @Benchmark
+    public Driver singletonHandle() {
+        return singletonHandle.get();
+    }
+
+    @Benchmark
+    public Object prototypeNoArgs() {
+        return applicationContext.getBean("prototypeEngine");
+    }
+
+    @Benchmark
+    public Object prototypeWithArgs() {
+        return applicationContext.getBean("prototypeEngine", "v8", 8);
+    }
+
+    @Benchmark
+    public Object prototypeWithProperties() {
+        return applicationContext.getBean("prototypeCar");
+    }
+
+    @Benchmark
+    public Car prototypeHandle() {
+        return prototypeHandle.get();
+    }
+
+    @Benchmark
+    public Map<String, Engine> getBeansOfType() {
+        return applicationContext.getBeansOfType(Engine.class);
+    }
+}
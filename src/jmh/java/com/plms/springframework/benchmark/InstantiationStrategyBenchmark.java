@@ -0,0 +1,96 @@
+package com.plms.springframework.benchmark;
+
+import com.plms.springframework.bean.PropertyValue;
+import com.plms.springframework.bean.PropertyValues;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.config.BeanReference;
+import com.plms.springframework.bean.factory.support.CglibSubClassingInstantiationStrategy;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.bean.factory.support.GeneratedInstantiationStrategy;
+import com.plms.springframework.bean.factory.support.SimpleInstantiationStrategy;
+import com.plms.springframework.benchmark.bean.Car;
+import com.plms.springframework.benchmark.bean.Engine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各个InstantiationStrategy创建原型Bean的开销：
+ * cglib总是生成子类，cglib-auto只对需要子类的Bean生成子类，simple使用反射，generated使用ASM生成的访问器
+ * @Author bigboss
+ * @Date 2021/11/25 20:00
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class InstantiationStrategyBenchmark {
+
+    @Param({"cglib", "cglib-auto", "simple", "generated"})
+    private String strategy;
+
+    private DefaultListableBeanFactory beanFactory;
+
+    @Setup
+    public void setUp() {
+        beanFactory = new DefaultListableBeanFactory();
+        switch (strategy) {
+            case "cglib":
+                beanFactory.setInstantiationStrategy(new CglibSubClassingInstantiationStrategy());
+                break;
+            case "cglib-auto":
+                beanFactory.setInstantiationStrategy(new CglibSubClassingInstantiationStrategy(true));
+                break;
+            case "simple":
+                beanFactory.setInstantiationStrategy(new SimpleInstantiationStrategy());
+                break;
+            case "generated":
+                GeneratedInstantiationStrategy instantiationStrategy = new GeneratedInstantiationStrategy();
+                beanFactory.setInstantiationStrategy(instantiationStrategy);
+                beanFactory.setPropertyInjectorResolver(instantiationStrategy.getPropertyInjectorResolver());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown instantiation strategy: " + strategy);
+        }
+        beanFactory.registerBeanDefinition("engine", new BeanDefinition(Engine.class));
+        BeanDefinition prototypeEngine = new BeanDefinition(Engine.class);
+        prototypeEngine.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("prototypeEngine", prototypeEngine);
+        PropertyValues propertyValues = new PropertyValues();
+        propertyValues.addPropertyValue(new PropertyValue("brand", "porsche"));
+        propertyValues.addPropertyValue(new PropertyValue("seats", "4"));
+        propertyValues.addPropertyValue(new PropertyValue("engine", new BeanReference("engine")));
+        BeanDefinition prototypeCar = new BeanDefinition(Car.class, propertyValues);
+        prototypeCar.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("prototypeCar", prototypeCar);
+        beanFactory.freezeConfiguration();
+        beanFactory.preInstantiateSingletons();
+    }
+
+    @Benchmark
+    public Object noArgs() {
+        return beanFactory.getBean("prototypeEngine");
+    }
+
+    @Benchmark
+    public Object withArgs() {
+        return beanFactory.getBean("prototypeEngine", "v8", 8);
+    }
+
+    @Benchmark
+    public Object withProperties() {
+        return beanFactory.getBean("prototypeCar");
+    }
+}
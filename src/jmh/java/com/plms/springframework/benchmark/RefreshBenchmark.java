@@ -0,0 +1,32 @@
+package com.plms.springframework.benchmark;
+
+import com.plms.springframework.context.support.ClassPathXmlApplicationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 完整的ClassPathXmlApplicationContext刷新，包括读取配置文件、执行后置处理器和提前实例化单例Bean
+ * @Author bigboss
+ * @Date 2021/11/25 19:50
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class RefreshBenchmark {
+
+    @Benchmark
+    public ClassPathXmlApplicationContext refresh() {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:benchmark-beans.xml");
+        applicationContext.close();
+        return applicationContext;
+    }
+}
@@ -0,0 +1,62 @@
+package com.plms.springframework.benchmark;
+
+import cn.hutool.core.io.IoUtil;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.bean.factory.xml.StaxXmlBeanDefinitionReader;
+import com.plms.springframework.bean.factory.xml.XmlBeanDefinitionReader;
+import com.plms.springframework.core.io.DefaultResourceLoader;
+import com.plms.springframework.core.io.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 解析XML配置文件并注册BeanDefinition的耗时，配置文件预先读入内存，不包含类路径上的I/O。
+ * reader参数对比构建DOM的XmlBeanDefinitionReader和流式解析的StaxXmlBeanDefinitionReader
+ * @Author bigboss
+ * @Date 2021/11/25 19:45
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class XmlBeanDefinitionReaderBenchmark {
+
+    @Param({"dom", "stax"})
+    private String reader;
+
+    private Resource resource;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] content;
+        try (InputStream inputStream = new DefaultResourceLoader().getResource("classpath:benchmark-beans.xml").getInputStream()) {
+            content = IoUtil.readBytes(inputStream);
+        }
+        resource = () -> new ByteArrayInputStream(content);
+    }
+
+    @Benchmark
+    public DefaultListableBeanFactory loadBeanDefinitions() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader beanDefinitionReader = "stax".equals(reader)
+                ? new StaxXmlBeanDefinitionReader(beanFactory) : new XmlBeanDefinitionReader(beanFactory);
+        beanDefinitionReader.loadBeanDefinitions(resource);
+        return beanFactory;
+    }
+}
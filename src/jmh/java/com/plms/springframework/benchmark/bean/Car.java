@@ -0,0 +1,38 @@
+package com.plms.springframework.benchmark.bean;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/25 19:12
+ */
+public class Car {
+
+    private String brand;
+
+    private int seats;
+
+    private Engine engine;
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    public void setSeats(int seats) {
+        this.seats = seats;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+}
@@ -0,0 +1,31 @@
+package com.plms.springframework.benchmark.bean;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/25 19:13
+ */
+public class Driver {
+
+    private String name;
+
+    private Car car;
+
+    public void init() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Car getCar() {
+        return car;
+    }
+
+    public void setCar(Car car) {
+        this.car = car;
+    }
+}
@@ -0,0 +1,40 @@
+package com.plms.springframework.benchmark.bean;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/25 19:10
+ */
+public class Engine {
+
+    private String model;
+
+    private int cylinders;
+
+    public Engine() {
+    }
+
+    public Engine(String model) {
+        this.model = model;
+    }
+
+    public Engine(String model, int cylinders) {
+        this.model = model;
+        this.cylinders = cylinders;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public int getCylinders() {
+        return cylinders;
+    }
+
+    public void setCylinders(int cylinders) {
+        this.cylinders = cylinders;
+    }
+}
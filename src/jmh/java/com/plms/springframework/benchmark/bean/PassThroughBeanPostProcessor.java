@@ -0,0 +1,22 @@
+package com.plms.springframework.benchmark.bean;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.factory.config.BeanPostProcessor;
+
+/**
+ * 不修改Bean的BeanPostProcessor，让基准测试中的Bean创建经过一条非空的处理器链
+ * @Author bigboss
+ * @Date 2021/11/25 19:15
+ */
+public class PassThroughBeanPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+}
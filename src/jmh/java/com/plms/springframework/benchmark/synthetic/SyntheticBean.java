@@ -0,0 +1,79 @@
+package com.plms.springframework.benchmark.synthetic;
+
+/**
+ * 生成的上下文中的Bean，最多引用4个下一层的Bean
+ * @Author bigboss
+ * @Date 2021/11/26 19:00
+ */
+public class SyntheticBean {
+
+    private String name;
+
+    private int index;
+
+    private SyntheticBean ref0;
+
+    private SyntheticBean ref1;
+
+    private SyntheticBean ref2;
+
+    private SyntheticBean ref3;
+
+    private boolean initialized;
+
+    public void init() {
+        initialized = true;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public SyntheticBean getRef0() {
+        return ref0;
+    }
+
+    public void setRef0(SyntheticBean ref0) {
+        this.ref0 = ref0;
+    }
+
+    public SyntheticBean getRef1() {
+        return ref1;
+    }
+
+    public void setRef1(SyntheticBean ref1) {
+        this.ref1 = ref1;
+    }
+
+    public SyntheticBean getRef2() {
+        return ref2;
+    }
+
+    public void setRef2(SyntheticBean ref2) {
+        this.ref2 = ref2;
+    }
+
+    public SyntheticBean getRef3() {
+        return ref3;
+    }
+
+    public void setRef3(SyntheticBean ref3) {
+        this.ref3 = ref3;
+    }
+
+    public boolean isInitialized() {
+        return initialized;
+    }
+}
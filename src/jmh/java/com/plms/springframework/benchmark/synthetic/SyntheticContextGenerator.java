@@ -0,0 +1,199 @@
+package com.plms.springframework.benchmark.synthetic;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * 生成包含大量Bean的XML配置文件，用于测量容器刷新随上下文规模的变化。
+ * Bean按下标分成depth层，第d层的Bean引用fanOut个第d+1层的Bean，最后一层没有引用，因此不会产生循环依赖。
+ * 相同的参数和种子总是生成相同的文件
+ * @Author bigboss
+ * @Date 2021/11/26 19:10
+ */
+public class SyntheticContextGenerator {
+
+    /**
+     * SyntheticBean最多支持的引用数
+     */
+    public static final int MAX_FAN_OUT = 4;
+
+    private int beanCount = 1000;
+
+    private int fanOut = 2;
+
+    private int depth = 4;
+
+    private double prototypeRatio = 0.1;
+
+    private double initMethodRatio = 0.2;
+
+    private long seed = 42L;
+
+    /**
+     * 生成的Bean名称
+     * @param index 下标
+     * @return
+     */
+    public static String beanName(int index) {
+        return "bean" + index;
+    }
+
+    /**
+     * 生成XML配置文件的内容
+     * @return
+     */
+    public String generate() {
+        StringWriter writer = new StringWriter(beanCount * 200);
+        try {
+            generate(writer);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * 生成XML配置文件并写入指定文件
+     * @param file 目标文件
+     * @throws IOException
+     */
+    public void generate(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            generate(writer);
+        }
+    }
+
+    public void generate(Writer writer) throws IOException {
+        if (beanCount < 1 || depth < 1 || fanOut < 0 || fanOut > MAX_FAN_OUT) {
+            throw new IllegalArgumentException("Invalid synthetic context: beanCount=" + beanCount + ", depth=" + depth + ", fanOut=" + fanOut);
+        }
+        Random random = new Random(seed);
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<beans>\n");
+        for (int i = 0; i < beanCount; i++) {
+            int layer = i % depth;
+            writer.write("    <bean id=\"");
+            writer.write(beanName(i));
+            writer.write("\" class=\"");
+            writer.write((i & 1) == 0 ? SyntheticBean.class.getName() : SyntheticMarkedBean.class.getName());
+            writer.write('"');
+            if (random.nextDouble() < prototypeRatio) {
+                writer.write(" scope=\"prototype\"");
+            }
+            if (random.nextDouble() < initMethodRatio) {
+                writer.write(" init-method=\"init\"");
+            }
+            writer.write(">\n");
+            writeProperty(writer, "name", "value", beanName(i));
+            writeProperty(writer, "index", "value", Integer.toString(i));
+            // 引用下一层中的Bean，下一层的下标与当前Bean模depth相差1
+            int nextLayerCount = countInLayer(layer + 1);
+            if (layer + 1 < depth && nextLayerCount > 0) {
+                for (int ref = 0; ref < fanOut; ref++) {
+                    int target = random.nextInt(nextLayerCount) * depth + layer + 1;
+                    writeProperty(writer, "ref" + ref, "ref", beanName(target));
+                }
+            }
+            writer.write("    </bean>\n");
+        }
+        writer.write("</beans>\n");
+    }
+
+    private int countInLayer(int layer) {
+        return layer >= beanCount ? 0 : (beanCount - layer + depth - 1) / depth;
+    }
+
+    private static void writeProperty(Writer writer, String name, String attribute, String value) throws IOException {
+        writer.write("        <property name=\"");
+        writer.write(name);
+        writer.write("\" ");
+        writer.write(attribute);
+        writer.write("=\"");
+        writer.write(value);
+        writer.write("\"/>\n");
+    }
+
+    public int getBeanCount() {
+        return beanCount;
+    }
+
+    public void setBeanCount(int beanCount) {
+        this.beanCount = beanCount;
+    }
+
+    public int getFanOut() {
+        return fanOut;
+    }
+
+    /**
+     * @param fanOut 每个Bean引用的下一层Bean数量，不超过{@link #MAX_FAN_OUT}
+     */
+    public void setFanOut(int fanOut) {
+        this.fanOut = fanOut;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @param depth 依赖链的层数，为1时Bean之间没有引用
+     */
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public double getPrototypeRatio() {
+        return prototypeRatio;
+    }
+
+    public void setPrototypeRatio(double prototypeRatio) {
+        this.prototypeRatio = prototypeRatio;
+    }
+
+    public double getInitMethodRatio() {
+        return initMethodRatio;
+    }
+
+    public void setInitMethodRatio(double initMethodRatio) {
+        this.initMethodRatio = initMethodRatio;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * 生成配置文件，参数依次为：输出文件 Bean数量 [fanOut] [depth] [prototypeRatio] [initMethodRatio]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SyntheticContextGenerator <output> <beanCount> [fanOut] [depth] [prototypeRatio] [initMethodRatio]");
+            System.exit(1);
+        }
+        SyntheticContextGenerator generator = new SyntheticContextGenerator();
+        generator.setBeanCount(Integer.parseInt(args[1]));
+        if (args.length > 2) {
+            generator.setFanOut(Integer.parseInt(args[2]));
+        }
+        if (args.length > 3) {
+            generator.setDepth(Integer.parseInt(args[3]));
+        }
+        if (args.length > 4) {
+            generator.setPrototypeRatio(Double.parseDouble(args[4]));
+        }
+        if (args.length > 5) {
+            generator.setInitMethodRatio(Double.parseDouble(args[5]));
+        }
+        generator.generate(Paths.get(args[0]));
+    }
+}
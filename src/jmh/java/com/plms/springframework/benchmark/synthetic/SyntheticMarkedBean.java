@@ -0,0 +1,8 @@
+package com.plms.springframework.benchmark.synthetic;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/26 19:06
+ */
+public class SyntheticMarkedBean extends SyntheticBean implements SyntheticMarker {
+}
@@ -0,0 +1,9 @@
+package com.plms.springframework.benchmark.synthetic;
+
+/**
+ * 生成的上下文中一半的Bean实现该接口，用于测量按类型查找
+ * @Author bigboss
+ * @Date 2021/11/26 19:05
+ */
+public interface SyntheticMarker {
+}
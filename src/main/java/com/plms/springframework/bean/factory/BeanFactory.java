@@ -1,7 +1,6 @@
 package com.plms.springframework.bean.factory;
 
-import java.util.HashMap;
-import java.util.Map;
+import com.plms.springframework.bean.BeansException;
 
 /**
  * @Author bigboss
@@ -31,4 +30,23 @@ public interface BeanFactory {
      * @return bean实例
      */
     <T> T getBean(String beanName, Class<T> requiredType);
+
+    /**
+     * 根据类型获取唯一的bean实例
+     * @param requiredType 要求的类型
+     * @param <T> 要求的类型
+     * @return bean实例
+     * @throws BeansException 没有或有多个该类型的bean时抛出
+     */
+    <T> T getBean(Class<T> requiredType) throws BeansException;
+
+    /**
+     * 将bean名称解析为句柄，之后通过句柄获取bean不再需要根据名称查找
+     * @param beanName bean名称
+     * @param requiredType 要求的类型
+     * @param <T> 要求的类型
+     * @return bean句柄
+     * @throws BeansException 没有该名称的bean，或bean的类型与要求的类型不一致时抛出
+     */
+    <T> BeanHandle<T> getBeanHandle(String beanName, Class<T> requiredType) throws BeansException;
 }
@@ -0,0 +1,25 @@
+package com.plms.springframework.bean.factory;
+
+import com.plms.springframework.bean.BeansException;
+
+/**
+ * 已解析的Bean句柄，通过BeanFactory.getBeanHandle获取。句柄对应容器中的一个固定槽位，
+ * 重复获取同一个Bean时不再根据名称查找，适合在热点路径上反复获取少数几个Bean
+ * @Author bigboss
+ * @Date 2021/11/19 20:10
+ */
+public interface BeanHandle<T> {
+
+    /**
+     * 获取bean实例，单例Bean返回同一个实例，原型Bean每次创建新的实例
+     * @return bean实例
+     * @throws BeansException
+     */
+    T get() throws BeansException;
+
+    /**
+     * 获取句柄对应的bean名称
+     * @return bean名称
+     */
+    String getBeanName();
+}
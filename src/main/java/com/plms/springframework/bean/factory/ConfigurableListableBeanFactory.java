@@ -23,6 +23,17 @@ public interface ConfigurableListableBeanFactory extends ListableBeanFactory, Co
     @Override
     void addBeanPostProcessor(BeanPostProcessor beanPostProcessor);
 
+    /**
+     * 冻结所有的BeanDefinition，之后BeanDefinition不应再被修改，容器可以缓存基于BeanDefinition的计算结果
+     */
+    void freezeConfiguration();
+
+    /**
+     * BeanDefinition是否已经被冻结
+     * @return
+     */
+    boolean isConfigurationFrozen();
+
     /**
      * 提前实例化所有单例实例
      * @throws BeansException
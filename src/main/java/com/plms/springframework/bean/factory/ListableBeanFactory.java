@@ -2,7 +2,6 @@ package com.plms.springframework.bean.factory;
 
 import com.plms.springframework.bean.BeansException;
 
-import java.beans.Beans;
 import java.util.Map;
 
 /**
@@ -21,6 +20,20 @@ public interface ListableBeanFactory extends BeanFactory {
      */
     <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException;
 
+    /**
+     * 返回指定类型（包括子类和实现类）的所有bean的名称
+     * @param type
+     * @return
+     */
+    String[] getBeanNamesForType(Class<?> type);
+
+    /**
+     * 是否包含该名称的BeanDefinition
+     * @param beanName
+     * @return
+     */
+    boolean containsBeanDefinition(String beanName);
+
     /**
      * 返回定义的所有bean的名称
      * @return
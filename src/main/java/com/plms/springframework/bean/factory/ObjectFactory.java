@@ -0,0 +1,19 @@
+package com.plms.springframework.bean.factory;
+
+import com.plms.springframework.bean.BeansException;
+
+/**
+ * 对象工厂，用于延迟创建对象，例如在持有单例创建锁之后再真正创建Bean
+ * @Author bigboss
+ * @Date 2021/11/10 20:13
+ */
+@FunctionalInterface
+public interface ObjectFactory<T> {
+
+    /**
+     * 获取对象实例
+     * @return 对象实例
+     * @throws BeansException
+     */
+    T getObject() throws BeansException;
+}
@@ -0,0 +1,15 @@
+package com.plms.springframework.bean.factory;
+
+/**
+ * pooled作用域的Bean归还到对象池之前调用，用于清理上一次使用留下的状态
+ * @Author bigboss
+ * @Date 2021/11/16 20:05
+ */
+public interface PoolableBean {
+
+    /**
+     * 重置Bean的状态，抛出异常时该实例会被销毁而不是放回对象池
+     * @throws Exception
+     */
+    void reset() throws Exception;
+}
@@ -1,14 +1,27 @@
 package com.plms.springframework.bean.factory.config;
 
+import com.plms.springframework.bean.BeansException;
 import com.plms.springframework.bean.PropertyValues;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Constructor;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * @Author bigboss
  * @Date 2021/11/1 21:49
  */
 public class BeanDefinition {
 
-    private Class<?> beanClass;
+    /**
+     * 已解析的Bean类型，从配置文件加载时只记录类名，在第一次需要时才加载类
+     */
+    private volatile Class<?> beanClass;
+
+    private String beanClassName;
 
     private PropertyValues propertyValues;
 
@@ -16,9 +29,11 @@ public class BeanDefinition {
 
     private String destroyMethodName;
 
-    private String SCOPE_SINGLETON = "singleton";
+    public static final String SCOPE_SINGLETON = "singleton";
 
-    private String SCOPE_PROTOTYPE = "prototype";
+    public static final String SCOPE_PROTOTYPE = "prototype";
+
+    public static final String SCOPE_POOLED = "pooled";
 
     private String scope = SCOPE_SINGLETON;
 
@@ -26,15 +41,59 @@ public class BeanDefinition {
 
     private boolean prototype = false;
 
+    private boolean pooled = false;
+
+    /**
+     * pooled作用域下对象池预热的实例数和最多保留的空闲实例数
+     */
+    private int poolMinIdle = 0;
+
+    private int poolMaxIdle = 8;
+
+    private String[] dependsOn;
+
+    private boolean lazyInit = false;
+
+    private boolean asyncInit = false;
+
+    /**
+     * 按构造参数类型签名缓存已解析的构造函数
+     */
+    private final Map<List<Class<?>>, Optional<Constructor<?>>> resolvedConstructors = new ConcurrentHashMap<>();
+
+    /**
+     * 已解析的初始化方法和销毁方法，修改方法名称或Bean类型时失效
+     */
+    private volatile MethodHandle resolvedInitMethod;
+
+    private volatile MethodHandle resolvedDestroyMethod;
+
     public BeanDefinition(Class<?> beanClass) {
-        this.beanClass = beanClass;
-        this.propertyValues = new PropertyValues();
+        this(beanClass, null);
+    }
+
+    /**
+     * 只记录类名，类在创建Bean时才通过容器的类加载器加载，之前不会执行类的静态初始化
+     * @param beanClassName Bean的全限定类名
+     */
+    public BeanDefinition(String beanClassName) {
+        this(beanClassName, null);
+    }
+
+    public BeanDefinition(String beanClassName, PropertyValues propertyValues) {
+        this.beanClassName = beanClassName;
+        this.propertyValues = propertyValues != null ? propertyValues : new PropertyValues();
     }
 
     public void setScope(String scope) {
         this.scope = scope;
         this.singleton = SCOPE_SINGLETON.equals(scope);
         this.prototype = SCOPE_PROTOTYPE.equals(scope);
+        this.pooled = SCOPE_POOLED.equals(scope);
+    }
+
+    public String getScope() {
+        return scope;
     }
 
     public boolean isSingleton() {
@@ -45,17 +104,112 @@ public class BeanDefinition {
         return this.prototype;
     }
 
+    /**
+     * pooled作用域的Bean从对象池中借出，使用完后通过returnBean归还
+     * @return
+     */
+    public boolean isPooled() {
+        return this.pooled;
+    }
+
+    /**
+     * 创建对象池时预热的空闲实例数，只用于预热，借出后不会补充
+     * @return
+     */
+    public int getPoolMinIdle() {
+        return poolMinIdle;
+    }
+
+    public void setPoolMinIdle(int poolMinIdle) {
+        this.poolMinIdle = poolMinIdle;
+    }
+
+    public int getPoolMaxIdle() {
+        return poolMaxIdle;
+    }
+
+    public void setPoolMaxIdle(int poolMaxIdle) {
+        this.poolMaxIdle = poolMaxIdle;
+    }
+
     public BeanDefinition(Class<?> beanClass, PropertyValues propertyValues) {
         this.beanClass = beanClass;
+        this.beanClassName = beanClass != null ? beanClass.getName() : null;
         this.propertyValues = propertyValues != null ? propertyValues : new PropertyValues();
     }
 
-    public Class<?> getBeanClass() {
-        return beanClass;
+    /**
+     * 获取已加载的Bean类型，不会加载类。只记录了类名的BeanDefinition需要先通过Bean工厂的类加载器加载，
+     * 见{@link #resolveBeanClass(ClassLoader)}
+     * @return
+     * @throws BeansException 类还未加载时抛出
+     */
+    public Class<?> getBeanClass() throws BeansException {
+        Class<?> resolvedClass = beanClass;
+        if (resolvedClass == null) {
+            throw new BeansException("Bean class [" + beanClassName + "] has not been resolved yet");
+        }
+        return resolvedClass;
     }
 
     public void setBeanClass(Class<?> beanClass) {
         this.beanClass = beanClass;
+        this.beanClassName = beanClass != null ? beanClass.getName() : null;
+        resetResolvedMembers();
+    }
+
+    /**
+     * 获取Bean的类名，不会加载类
+     */
+    public String getBeanClassName() {
+        return beanClassName;
+    }
+
+    /**
+     * 修改Bean的类名，已加载的类型和按类型解析的构造函数、初始化方法和销毁方法随之失效
+     * @param beanClassName
+     */
+    public void setBeanClassName(String beanClassName) {
+        this.beanClassName = beanClassName;
+        this.beanClass = null;
+        resetResolvedMembers();
+    }
+
+    /**
+     * Bean的类是否已经加载
+     */
+    public boolean hasBeanClass() {
+        return beanClass != null;
+    }
+
+    /**
+     * 通过指定的类加载器加载Bean的类并缓存，已加载时直接返回。只加载不初始化，静态初始化在第一次创建实例时执行
+     * @param classLoader 类加载器
+     * @return
+     * @throws BeansException 找不到类时抛出
+     */
+    public Class<?> resolveBeanClass(ClassLoader classLoader) throws BeansException {
+        Class<?> resolvedClass = beanClass;
+        if (resolvedClass != null) {
+            return resolvedClass;
+        }
+        String className = beanClassName;
+        if (className == null) {
+            throw new BeansException("No bean class specified on bean definition");
+        }
+        try {
+            resolvedClass = Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new BeansException("can not find class named [" + className + "]", e);
+        }
+        beanClass = resolvedClass;
+        return resolvedClass;
+    }
+
+    private void resetResolvedMembers() {
+        this.resolvedConstructors.clear();
+        this.resolvedInitMethod = null;
+        this.resolvedDestroyMethod = null;
     }
 
     public PropertyValues getPropertyValues() {
@@ -72,6 +226,7 @@ public class BeanDefinition {
 
     public void setInitMethodName(String initMethodName) {
         this.initMethodName = initMethodName;
+        this.resolvedInitMethod = null;
     }
 
     public String getDestroyMethodName() {
@@ -80,5 +235,72 @@ public class BeanDefinition {
 
     public void setDestroyMethodName(String destroyMethodName) {
         this.destroyMethodName = destroyMethodName;
+        this.resolvedDestroyMethod = null;
+    }
+
+    public String[] getDependsOn() {
+        return dependsOn;
+    }
+
+    /**
+     * 设置当前Bean依赖的Bean名称，这些Bean会先于当前Bean被创建
+     * @param dependsOn 依赖的Bean名称
+     */
+    public void setDependsOn(String... dependsOn) {
+        this.dependsOn = dependsOn;
+    }
+
+    public boolean isLazyInit() {
+        return lazyInit;
+    }
+
+    /**
+     * 设置是否延迟初始化，延迟初始化的单例Bean不会在容器刷新时提前实例化，而是在第一次getBean时创建
+     * @param lazyInit
+     */
+    public void setLazyInit(boolean lazyInit) {
+        this.lazyInit = lazyInit;
+    }
+
+    public boolean isAsyncInit() {
+        return asyncInit;
+    }
+
+    /**
+     * 设置是否异步初始化，只对单例Bean生效。异步初始化的Bean在当前线程实例化和注入属性后，
+     * 在启动线程池中执行初始化方法，其他Bean只有在真正获取它时才等待初始化完成
+     * @param asyncInit
+     */
+    public void setAsyncInit(boolean asyncInit) {
+        this.asyncInit = asyncInit;
+    }
+
+    /**
+     * 获取缓存的构造函数解析结果
+     * @param argumentTypes 构造参数类型签名
+     * @return 未解析过时返回null，解析过但没有匹配的构造函数时返回空的Optional
+     */
+    public Optional<Constructor<?>> getResolvedConstructor(List<Class<?>> argumentTypes) {
+        return resolvedConstructors.get(argumentTypes);
+    }
+
+    public void cacheResolvedConstructor(List<Class<?>> argumentTypes, Optional<Constructor<?>> constructor) {
+        resolvedConstructors.put(argumentTypes, constructor);
+    }
+
+    public MethodHandle getResolvedInitMethod() {
+        return resolvedInitMethod;
+    }
+
+    public void setResolvedInitMethod(MethodHandle resolvedInitMethod) {
+        this.resolvedInitMethod = resolvedInitMethod;
+    }
+
+    public MethodHandle getResolvedDestroyMethod() {
+        return resolvedDestroyMethod;
+    }
+
+    public void setResolvedDestroyMethod(MethodHandle resolvedDestroyMethod) {
+        this.resolvedDestroyMethod = resolvedDestroyMethod;
     }
 }
@@ -0,0 +1,85 @@
+package com.plms.springframework.bean.factory.config;
+
+/**
+ * 某个pooled作用域Bean的对象池在某一时刻的统计快照
+ * @Author bigboss
+ * @Date 2021/11/16 20:12
+ */
+public class BeanPoolMetrics {
+
+    private final int idle;
+
+    private final int maxIdle;
+
+    private final long created;
+
+    private final long borrowHits;
+
+    private final long borrowMisses;
+
+    private final long returned;
+
+    private final long discarded;
+
+    public BeanPoolMetrics(int idle, int maxIdle, long created, long borrowHits, long borrowMisses, long returned, long discarded) {
+        this.idle = idle;
+        this.maxIdle = maxIdle;
+        this.created = created;
+        this.borrowHits = borrowHits;
+        this.borrowMisses = borrowMisses;
+        this.returned = returned;
+        this.discarded = discarded;
+    }
+
+    /**
+     * 当前池中空闲的实例数
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getMaxIdle() {
+        return maxIdle;
+    }
+
+    /**
+     * 为对象池创建的实例总数，包括预热时创建的实例
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * 从池中直接取到空闲实例的次数
+     */
+    public long getBorrowHits() {
+        return borrowHits;
+    }
+
+    /**
+     * 池中没有空闲实例，需要新建实例的次数
+     */
+    public long getBorrowMisses() {
+        return borrowMisses;
+    }
+
+    /**
+     * 成功放回池中的次数
+     */
+    public long getReturned() {
+        return returned;
+    }
+
+    /**
+     * 因池已满或重置失败而被销毁的实例数
+     */
+    public long getDiscarded() {
+        return discarded;
+    }
+
+    @Override
+    public String toString() {
+        return "BeanPoolMetrics{idle=" + idle + ", maxIdle=" + maxIdle + ", created=" + created + ", borrowHits=" + borrowHits
+                + ", borrowMisses=" + borrowMisses + ", returned=" + returned + ", discarded=" + discarded + "}";
+    }
+}
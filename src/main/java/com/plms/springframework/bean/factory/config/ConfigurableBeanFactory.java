@@ -1,6 +1,10 @@
 package com.plms.springframework.bean.factory.config;
 
+import com.plms.springframework.bean.BeansException;
 import com.plms.springframework.bean.factory.HierarchicalBeanFactory;
+import com.plms.springframework.core.convert.ConversionService;
+import com.plms.springframework.core.metrics.ApplicationStartup;
+import com.plms.springframework.core.metrics.ContainerMetrics;
 
 /**
  * ConfigurableBeanFactory 可获取 BeanPostProcessor、BeanClassLoader等的一个配置化接口
@@ -15,8 +19,81 @@ public interface ConfigurableBeanFactory extends HierarchicalBeanFactory, Single
      */
     void addBeanPostProcessor(BeanPostProcessor beanPostProcessor);
 
+    /**
+     * 设置注入属性值时使用的类型转换服务
+     * @param conversionService
+     */
+    void setConversionService(ConversionService conversionService);
+
+    ConversionService getConversionService();
+
+    /**
+     * 设置记录Bean创建各阶段耗时的ApplicationStartup，默认不做任何记录
+     * @param applicationStartup
+     */
+    void setApplicationStartup(ApplicationStartup applicationStartup);
+
+    ApplicationStartup getApplicationStartup();
+
+    /**
+     * 设置加载Bean类型的类加载器，默认为创建Bean工厂时当前线程的上下文类加载器
+     * @param beanClassLoader
+     */
+    void setBeanClassLoader(ClassLoader beanClassLoader);
+
+    ClassLoader getBeanClassLoader();
+
+    /**
+     * 获取容器运行时的统计，包括单例命中次数、每个原型Bean的创建次数、创建失败次数和BeanPostProcessor的耗时
+     * @return
+     */
+    ContainerMetrics getContainerMetrics();
+
+    /**
+     * 开启或关闭运行时统计，默认开启
+     * @param metricsEnabled
+     */
+    void setMetricsEnabled(boolean metricsEnabled);
+
+    /**
+     * 设置耗时统计的采样间隔，平均每N次创建Bean或执行BeanPostProcessor链记录一次耗时，计数器不受影响。默认为16
+     * @param latencySampleInterval 采样间隔，必须是2的幂，为1时每次都记录
+     * @throws BeansException 不是2的幂时抛出
+     */
+    void setLatencySampleInterval(int latencySampleInterval) throws BeansException;
+
+    /**
+     * 注册自定义作用域，singleton、prototype和pooled作用域由容器内置，不能被替换
+     * @param scopeName 作用域名称
+     * @param scope 作用域实现
+     */
+    void registerScope(String scopeName, Scope scope);
+
+    /**
+     * 获取注册的自定义作用域
+     * @param scopeName 作用域名称
+     * @return 没有注册时返回null
+     */
+    Scope getRegisteredScope(String scopeName);
+
     /**
      * 销毁单例Bean
      */
     void destroySingletons();
+
+    /**
+     * 将通过getBean借出的pooled作用域Bean归还到对象池，池已满或容器已关闭时销毁该实例
+     * @param beanName bean名称
+     * @param bean 借出的实例
+     * @throws BeansException bean不是pooled作用域，或实例不是从对象池借出的、已经归还过时抛出
+     */
+    void returnBean(String beanName, Object bean) throws BeansException;
+
+    /**
+     * 获取pooled作用域Bean的对象池统计
+     * @param beanName bean名称
+     * @return
+     * @throws BeansException bean不是pooled作用域时抛出
+     */
+    BeanPoolMetrics getBeanPoolMetrics(String beanName) throws BeansException;
 }
@@ -0,0 +1,33 @@
+package com.plms.springframework.bean.factory.config;
+
+import com.plms.springframework.bean.factory.ObjectFactory;
+
+/**
+ * 自定义作用域，通过ConfigurableBeanFactory注册后，scope属性为该作用域名称的Bean由它管理实例的存取
+ * @Author bigboss
+ * @Date 2021/11/17 20:10
+ */
+public interface Scope {
+
+    /**
+     * 获取当前作用域中的Bean实例，不存在时通过objectFactory创建并保存
+     * @param name bean名称
+     * @param objectFactory 创建Bean的工厂
+     * @return bean实例
+     */
+    Object get(String name, ObjectFactory<?> objectFactory);
+
+    /**
+     * 从当前作用域中移除Bean实例，同时移除它的销毁回调，移除的实例不会执行销毁回调
+     * @param name bean名称
+     * @return 被移除的bean实例，不存在时返回null
+     */
+    Object remove(String name);
+
+    /**
+     * 注册Bean在当前作用域结束时需要执行的销毁回调
+     * @param name bean名称
+     * @param callback 销毁回调
+     */
+    void registerDestructionCallback(String name, Runnable callback);
+}
@@ -0,0 +1,17 @@
+package com.plms.springframework.bean.factory.config;
+
+/**
+ * 只作用于特定类型Bean的BeanPostProcessor，容器会按Bean的类型预先筛选出需要执行的BeanPostProcessor，
+ * 不支持的类型的Bean不会调用它的任何方法
+ * @Author bigboss
+ * @Date 2021/11/15 21:40
+ */
+public interface TargetedBeanPostProcessor extends BeanPostProcessor {
+
+    /**
+     * 是否需要处理该类型的Bean，对同一个类型的返回值必须始终相同
+     * @param beanType Bean的实际类型
+     * @return
+     */
+    boolean supportsBeanType(Class<?> beanType);
+}
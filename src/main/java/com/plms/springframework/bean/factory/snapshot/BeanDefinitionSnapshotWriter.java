@@ -0,0 +1,188 @@
+package com.plms.springframework.bean.factory.snapshot;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.PropertyValue;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.config.BeanReference;
+import com.plms.springframework.bean.factory.support.BeanDefinitionRegistry;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.bean.factory.xml.StaxXmlBeanDefinitionReader;
+import com.plms.springframework.core.io.DefaultResourceLoader;
+import com.plms.springframework.core.io.ResourceLoader;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 将注册表中的BeanDefinition写成二进制快照，快照中记录源配置文件的校验和，配置文件修改后快照自动失效。
+ * 只支持从XML加载的BeanDefinition，即属性值为字符串或BeanReference
+ * @Author bigboss
+ * @Date 2021/11/29 19:20
+ */
+public class BeanDefinitionSnapshotWriter {
+
+    private final ResourceLoader resourceLoader;
+
+    public BeanDefinitionSnapshotWriter() {
+        this(new DefaultResourceLoader());
+    }
+
+    public BeanDefinitionSnapshotWriter(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    /**
+     * 计算源配置文件的校验和，需要在解析配置文件之前计算，解析期间配置文件被修改时快照会在下次启动时失效，
+     * 而不会把旧的BeanDefinition和新的校验和写在一起
+     * @param locations 源配置文件地址
+     * @return
+     * @throws BeansException
+     */
+    public long checksum(String[] locations) throws BeansException {
+        return SnapshotFormat.checksum(resourceLoader, locations);
+    }
+
+    /**
+     * 将注册表写成快照文件，先写入临时文件再替换，读取方不会看到写了一半的快照
+     * @param registry 已加载配置文件的注册表
+     * @param sourceChecksum 解析之前通过{@link #checksum(String[])}计算的源配置文件校验和
+     * @param snapshot 快照文件
+     * @throws BeansException
+     */
+    public void write(BeanDefinitionRegistry registry, long sourceChecksum, Path snapshot) throws BeansException {
+        try {
+            Path parent = snapshot.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, snapshot.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                    write(registry, sourceChecksum, outputStream);
+                }
+                Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new BeansException("IOException writing bean definition snapshot " + snapshot, e);
+        }
+    }
+
+    void write(BeanDefinitionRegistry registry, long checksum, OutputStream outputStream) throws IOException {
+        StringTable strings = new StringTable();
+        ByteArrayOutputStream beans = new ByteArrayOutputStream();
+        DataOutputStream beansOutput = new DataOutputStream(beans);
+        String[] beanNames = registry.getBeanDefinitionNames();
+        beansOutput.writeInt(beanNames.length);
+        for (String beanName : beanNames) {
+            writeBeanDefinition(beanName, registry.getBeanDefinition(beanName), strings, beansOutput);
+        }
+        beansOutput.flush();
+
+        DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeInt(SnapshotFormat.MAGIC);
+        output.writeShort(SnapshotFormat.VERSION);
+        output.writeLong(checksum);
+        output.writeInt(strings.values.size());
+        for (String value : strings.values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+        beans.writeTo(output);
+        output.flush();
+    }
+
+    private static void writeBeanDefinition(String beanName, BeanDefinition beanDefinition, StringTable strings, DataOutputStream output)
+            throws IOException {
+        output.writeInt(strings.indexOf(beanName));
+        output.writeInt(strings.indexOf(beanDefinition.getBeanClassName()));
+        output.writeInt(strings.indexOf(beanDefinition.getScope()));
+        byte flags = 0;
+        if (beanDefinition.isLazyInit()) {
+            flags |= SnapshotFormat.FLAG_LAZY_INIT;
+        }
+        if (beanDefinition.isAsyncInit()) {
+            flags |= SnapshotFormat.FLAG_ASYNC_INIT;
+        }
+        output.writeByte(flags);
+        output.writeInt(strings.indexOf(beanDefinition.getInitMethodName()));
+        output.writeInt(strings.indexOf(beanDefinition.getDestroyMethodName()));
+        output.writeInt(beanDefinition.getPoolMinIdle());
+        output.writeInt(beanDefinition.getPoolMaxIdle());
+        String[] dependsOn = beanDefinition.getDependsOn();
+        output.writeInt(dependsOn != null ? dependsOn.length : SnapshotFormat.NULL_INDEX);
+        if (dependsOn != null) {
+            for (String dependency : dependsOn) {
+                output.writeInt(strings.indexOf(dependency));
+            }
+        }
+        PropertyValue[] propertyValues = beanDefinition.getPropertyValues().getPropertyValues();
+        output.writeInt(propertyValues.length);
+        for (PropertyValue propertyValue : propertyValues) {
+            output.writeInt(strings.indexOf(propertyValue.getName()));
+            Object value = propertyValue.getValue();
+            if (value instanceof BeanReference) {
+                output.writeByte(SnapshotFormat.PROPERTY_REFERENCE);
+                output.writeInt(strings.indexOf(((BeanReference) value).getBeanName()));
+            } else if (value == null || value instanceof String) {
+                output.writeByte(SnapshotFormat.PROPERTY_VALUE);
+                output.writeInt(strings.indexOf((String) value));
+            } else {
+                throw new BeansException("Property '" + propertyValue.getName() + "' of bean [" + beanName
+                        + "] has a value of type " + value.getClass().getName() + " that can not be written to a snapshot");
+            }
+        }
+    }
+
+    /**
+     * 字符串表，相同的字符串只写一次
+     */
+    private static final class StringTable {
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        private final List<String> values = new ArrayList<>();
+
+        int indexOf(String value) {
+            if (value == null) {
+                return SnapshotFormat.NULL_INDEX;
+            }
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = values.size();
+                indexes.put(value, index);
+                values.add(value);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * 从XML配置文件生成快照，参数依次为：快照文件 配置文件地址...
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: BeanDefinitionSnapshotWriter <snapshot> <location>...");
+            System.exit(1);
+        }
+        String[] locations = new String[args.length - 1];
+        System.arraycopy(args, 1, locations, 0, locations.length);
+        BeanDefinitionSnapshotWriter writer = new BeanDefinitionSnapshotWriter();
+        long checksum = writer.checksum(locations);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new StaxXmlBeanDefinitionReader(beanFactory).loadBeanDefinitions(locations);
+        writer.write(beanFactory, checksum, Paths.get(args[0]));
+    }
+}
@@ -0,0 +1,205 @@
+package com.plms.springframework.bean.factory.snapshot;
+
+import cn.hutool.core.io.IoUtil;
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.PropertyValue;
+import com.plms.springframework.bean.PropertyValues;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.config.BeanReference;
+import com.plms.springframework.bean.factory.support.AbstractBeanDefinitionReader;
+import com.plms.springframework.bean.factory.support.BeanDefinitionRegistry;
+import com.plms.springframework.core.io.FileSystemResource;
+import com.plms.springframework.core.io.Resource;
+import com.plms.springframework.core.io.ResourceLoader;
+import com.plms.springframework.core.metrics.StartupStep;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 从BeanDefinitionSnapshotWriter生成的二进制快照中加载BeanDefinition，不解析XML。
+ * 文件系统中的快照通过内存映射读取，其他资源读入内存后读取
+ * @Author bigboss
+ * @Date 2021/11/29 19:50
+ */
+public class SnapshotBeanDefinitionReader extends AbstractBeanDefinitionReader {
+
+    public SnapshotBeanDefinitionReader(BeanDefinitionRegistry registry) {
+        super(registry);
+    }
+
+    public SnapshotBeanDefinitionReader(BeanDefinitionRegistry registry, ResourceLoader resourceLoader) {
+        super(registry, resourceLoader);
+    }
+
+    /**
+     * 快照是否存在并且与源配置文件一致，源配置文件修改后快照失效，需要重新生成
+     * @param snapshot 快照文件
+     * @param locations 源配置文件地址，顺序需要与生成快照时相同
+     * @return
+     */
+    public boolean isUpToDate(Path snapshot, String[] locations) {
+        return isUpToDate(snapshot, SnapshotFormat.checksum(getResourceLoader(), locations));
+    }
+
+    /**
+     * 快照是否存在并且记录的校验和与给定的校验和一致
+     * @param snapshot 快照文件
+     * @param checksum 源配置文件当前的校验和，见{@link BeanDefinitionSnapshotWriter#checksum(String[])}
+     * @return
+     */
+    public boolean isUpToDate(Path snapshot, long checksum) {
+        if (!Files.isRegularFile(snapshot)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(14);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // 读满文件头
+            }
+            header.flip();
+            if (header.remaining() < 14 || header.getInt() != SnapshotFormat.MAGIC || header.getShort() != SnapshotFormat.VERSION) {
+                return false;
+            }
+            return header.getLong() == checksum;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 通过内存映射加载快照文件
+     * @param snapshot 快照文件
+     * @throws BeansException
+     */
+    public void loadBeanDefinitions(Path snapshot) throws BeansException {
+        StartupStep step = getApplicationStartup().start("plms.snapshot.load").tag("snapshot", snapshot::toString);
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            doLoadBeanDefinitions(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), snapshot.toString());
+        } catch (IOException e) {
+            throw new BeansException("IOException reading bean definition snapshot " + snapshot, e);
+        } finally {
+            step.end();
+        }
+    }
+
+    @Override
+    public void loadBeanDefinitions(Resource resource) throws BeansException {
+        if (resource instanceof FileSystemResource) {
+            loadBeanDefinitions(Paths.get(((FileSystemResource) resource).getPath()));
+            return;
+        }
+        byte[] content;
+        try (InputStream inputStream = resource.getInputStream()) {
+            content = IoUtil.readBytes(inputStream, false);
+        } catch (IOException e) {
+            throw new BeansException("IOException reading bean definition snapshot " + resource, e);
+        }
+        doLoadBeanDefinitions(ByteBuffer.wrap(content), resource.toString());
+    }
+
+    @Override
+    public void loadBeanDefinitions(String location) throws BeansException {
+        loadBeanDefinitions(getResourceLoader().getResource(location));
+    }
+
+    private void doLoadBeanDefinitions(ByteBuffer buffer, String description) {
+        try {
+            if (buffer.getInt() != SnapshotFormat.MAGIC) {
+                throw new BeansException("[" + description + "] is not a bean definition snapshot");
+            }
+            short version = buffer.getShort();
+            if (version != SnapshotFormat.VERSION) {
+                throw new BeansException("Unsupported bean definition snapshot version " + version + " of [" + description + "]");
+            }
+            // 校验和由isUpToDate检查
+            buffer.getLong();
+            // 每个字符串至少占用4个字节的长度
+            String[] strings = new String[readLength(buffer, 4)];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = decode(buffer, readLength(buffer, 1));
+            }
+            int beanCount = buffer.getInt();
+            for (int i = 0; i < beanCount; i++) {
+                readBeanDefinition(buffer, strings);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new BeansException("Corrupted bean definition snapshot [" + description + "]", e);
+        }
+    }
+
+    /**
+     * 读取数组或字符串的长度，在分配内存之前检查长度，损坏的快照不会导致超大的内存分配
+     * @param bytesPerElement 每个元素至少占用的字节数
+     * @throws BufferUnderflowException 长度为负数或超出剩余的字节数时抛出
+     */
+    private static int readLength(ByteBuffer buffer, int bytesPerElement) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining() / bytesPerElement) {
+            throw new BufferUnderflowException();
+        }
+        return length;
+    }
+
+    private static String decode(ByteBuffer buffer, int length) {
+        if (buffer.hasArray()) {
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void readBeanDefinition(ByteBuffer buffer, String[] strings) {
+        String beanName = string(strings, buffer.getInt());
+        String beanClassName = string(strings, buffer.getInt());
+        String scope = string(strings, buffer.getInt());
+        byte flags = buffer.get();
+        String initMethodName = string(strings, buffer.getInt());
+        String destroyMethodName = string(strings, buffer.getInt());
+        int poolMinIdle = buffer.getInt();
+        int poolMaxIdle = buffer.getInt();
+        String[] dependsOn = null;
+        if (buffer.getInt(buffer.position()) == SnapshotFormat.NULL_INDEX) {
+            buffer.getInt();
+        } else {
+            dependsOn = new String[readLength(buffer, 4)];
+            for (int i = 0; i < dependsOn.length; i++) {
+                dependsOn[i] = string(strings, buffer.getInt());
+            }
+        }
+        PropertyValues propertyValues = new PropertyValues();
+        // 每个属性占用9个字节
+        int propertyCount = readLength(buffer, 9);
+        for (int i = 0; i < propertyCount; i++) {
+            String name = string(strings, buffer.getInt());
+            byte type = buffer.get();
+            String value = string(strings, buffer.getInt());
+            propertyValues.addPropertyValue(new PropertyValue(name, type == SnapshotFormat.PROPERTY_REFERENCE ? new BeanReference(value) : value));
+        }
+        BeanDefinition beanDefinition = new BeanDefinition(beanClassName, propertyValues);
+        beanDefinition.setScope(scope);
+        beanDefinition.setLazyInit((flags & SnapshotFormat.FLAG_LAZY_INIT) != 0);
+        beanDefinition.setAsyncInit((flags & SnapshotFormat.FLAG_ASYNC_INIT) != 0);
+        beanDefinition.setInitMethodName(initMethodName);
+        beanDefinition.setDestroyMethodName(destroyMethodName);
+        beanDefinition.setPoolMinIdle(poolMinIdle);
+        beanDefinition.setPoolMaxIdle(poolMaxIdle);
+        beanDefinition.setDependsOn(dependsOn);
+        registerBeanDefinition(beanName, beanDefinition);
+    }
+
+    private static String string(String[] strings, int index) {
+        return index == SnapshotFormat.NULL_INDEX ? null : strings[index];
+    }
+}
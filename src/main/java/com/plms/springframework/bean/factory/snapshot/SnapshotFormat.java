@@ -0,0 +1,64 @@
+package com.plms.springframework.bean.factory.snapshot;
+
+import cn.hutool.core.io.IoUtil;
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.core.io.Resource;
+import com.plms.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * BeanDefinition快照的二进制格式，所有整数均为大端序：
+ * <pre>
+ * 文件头    int magic, short version, long 源配置文件的CRC32
+ * 字符串表  int 数量, 每个字符串为 int 字节数 + UTF-8字节
+ * Bean     int 数量, 每个Bean为
+ *          int 名称, int 类名, int 作用域, byte 标志位, int 初始化方法, int 销毁方法, int poolMinIdle, int poolMaxIdle,
+ *          int depends-on数量(-1表示未设置) + 每个名称, int 属性数量 + 每个属性的 int 名称, byte 类型, int 值
+ * </pre>
+ * 名称、类名和属性值都是字符串表中的下标，-1表示null
+ * @Author bigboss
+ * @Date 2021/11/29 19:05
+ */
+final class SnapshotFormat {
+
+    static final int MAGIC = 0x504C4D53;
+
+    static final short VERSION = 1;
+
+    static final int NULL_INDEX = -1;
+
+    static final byte FLAG_LAZY_INIT = 1;
+
+    static final byte FLAG_ASYNC_INIT = 1 << 1;
+
+    static final byte PROPERTY_VALUE = 0;
+
+    static final byte PROPERTY_REFERENCE = 1;
+
+    private SnapshotFormat() {
+    }
+
+    /**
+     * 计算源配置文件的校验和，包括每个配置文件的地址和内容，配置文件的顺序不同时校验和也不同
+     * @param resourceLoader 资源加载器
+     * @param locations 配置文件地址
+     * @return
+     */
+    static long checksum(ResourceLoader resourceLoader, String[] locations) {
+        CRC32 crc32 = new CRC32();
+        for (String location : locations) {
+            crc32.update(location.getBytes(StandardCharsets.UTF_8));
+            Resource resource = resourceLoader.getResource(location);
+            try (InputStream inputStream = resource.getInputStream()) {
+                crc32.update(IoUtil.readBytes(inputStream, false));
+            } catch (IOException e) {
+                throw new BeansException("IOException reading " + location + " for snapshot checksum", e);
+            }
+        }
+        return crc32.getValue();
+    }
+}
@@ -1,6 +1,6 @@
 package com.plms.springframework.bean.factory.support;
 
-import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.convert.BasicType;
 import cn.hutool.core.util.StrUtil;
 import com.plms.springframework.bean.BeansException;
 import com.plms.springframework.bean.PropertyValue;
@@ -13,10 +13,23 @@ import com.plms.springframework.bean.factory.config.AutowireCapableBeanFactory;
 import com.plms.springframework.bean.factory.config.BeanDefinition;
 import com.plms.springframework.bean.factory.config.BeanPostProcessor;
 import com.plms.springframework.bean.factory.config.BeanReference;
+import com.plms.springframework.bean.factory.config.Scope;
+import com.plms.springframework.core.convert.ConversionFailedException;
+import com.plms.springframework.core.convert.ConversionService;
+import com.plms.springframework.core.convert.DataSize;
+import com.plms.springframework.core.metrics.StartupStep;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @Author bigboss
@@ -24,73 +37,419 @@ import java.lang.reflect.Method;
  */
 public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFactory implements AutowireCapableBeanFactory {
 
-    InstantiationStrategy instantiationStrategy = new CglibSubClassingInstantiationStrategy();
+    /**
+     * 默认为每个Bean生成CGLIB子类，自动模式需要通过setInstantiationStrategy开启
+     */
+    private InstantiationStrategy instantiationStrategy = new CglibSubClassingInstantiationStrategy();
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final ConstructorResolver constructorResolver = new ConstructorResolver();
+
+    private PropertyInjectorResolver propertyInjectorResolver = new PropertyInjectorResolver();
+
+    private final LifecycleMethodResolver lifecycleMethodResolver = new LifecycleMethodResolver();
+
+    /**
+     * 冻结配置后编译的Bean创建配方
+     */
+    private final Map<String, BeanRecipe> beanRecipes = new ConcurrentHashMap<>(256);
+
+    private volatile boolean beanRecipesEnabled = false;
+
+    /**
+     * 执行异步初始化的线程池，未设置时在第一次使用时创建
+     */
+    private volatile Executor bootstrapExecutor;
 
     @Override
     protected Object createBean(String beanName, BeanDefinition beanDefinition, Object[] args) {
-        Object bean = null;
+        DefaultContainerMetrics metrics = getMetricsIfEnabled();
+        long start = metrics != null ? metrics.startTimer() : DefaultContainerMetrics.NOT_SAMPLED;
+        StartupStep step = getApplicationStartup().start("plms.beans.create").tag("beanName", beanName);
         try {
-            bean = createBeanInstance(beanDefinition, beanName, args);
-            applyPropertyValues(beanName, bean, beanDefinition);
-            initializeBean(beanName, bean, beanDefinition);
+            // 从配置文件加载的BeanDefinition只记录了类名，第一次创建时才加载类
+            resolveBeanClass(beanName, beanDefinition);
+            BeanRecipe recipe = getBeanRecipe(beanName, beanDefinition);
+            if (recipe == null) {
+                resolveLifecycleMethods(beanName, beanDefinition);
+            }
+            Object bean = instantiateAndPopulate(beanName, beanDefinition, recipe, args);
+            bean = initializeAndRegister(beanName, beanDefinition, recipe, bean);
+            if (metrics != null) {
+                metrics.recordCreation(beanName, beanDefinition.isPrototype(), start);
+            }
+            return bean;
+        } catch (RuntimeException e) {
+            if (metrics != null) {
+                metrics.recordCreationFailure();
+            }
+            throw e;
+        } finally {
+            step.end();
+        }
+    }
+
+    @Override
+    protected CompletableFuture<Object> createBeanAsync(String beanName, BeanDefinition beanDefinition, Object[] args) {
+        DefaultContainerMetrics metrics = getMetricsIfEnabled();
+        long start = metrics != null ? metrics.startTimer() : DefaultContainerMetrics.NOT_SAMPLED;
+        Object bean;
+        BeanRecipe recipe;
+        StartupStep step = getApplicationStartup().start("plms.beans.create").tag("beanName", beanName).tag("async", "true");
+        try {
+            resolveBeanClass(beanName, beanDefinition);
+            recipe = getBeanRecipe(beanName, beanDefinition);
+            if (recipe == null) {
+                resolveLifecycleMethods(beanName, beanDefinition);
+            }
+            // 实例化和属性注入仍在当前线程进行，只有初始化交给启动线程池
+            bean = instantiateAndPopulate(beanName, beanDefinition, recipe, args);
+        } catch (RuntimeException e) {
+            if (metrics != null) {
+                metrics.recordCreationFailure();
+            }
+            throw e;
+        } finally {
+            step.end();
+        }
+        CompletableFuture<Object> future = CompletableFuture.supplyAsync(
+                () -> initializeAsyncSingleton(beanName, () -> initializeAndRegister(beanName, beanDefinition, recipe, bean)), getBootstrapExecutor());
+        if (metrics == null) {
+            return future;
+        }
+        return future.whenComplete((result, ex) -> {
+            if (ex != null) {
+                metrics.recordCreationFailure();
+            } else {
+                metrics.recordCreation(beanName, false, start);
+            }
+        });
+    }
+
+    /**
+     * 实例化Bean并注入属性，有配方时按配方注入
+     */
+    private Object instantiateAndPopulate(String beanName, BeanDefinition beanDefinition, BeanRecipe recipe, Object[] args) {
+        try {
+            Object bean;
+            StartupStep step = getApplicationStartup().start("plms.beans.instantiate").tag("beanName", beanName);
+            try {
+                bean = recipe != null && args == null && recipe.getDefaultConstructor() != null
+                        ? getInstantiationStrategy().instantiate(beanDefinition, beanName, recipe.getDefaultConstructor(), NO_ARGS)
+                        : createBeanInstance(beanDefinition, beanName, args);
+            } finally {
+                step.end();
+            }
+            step = getApplicationStartup().start("plms.beans.populate").tag("beanName", beanName);
+            try {
+                if (recipe != null) {
+                    applyPropertyValues(beanName, bean, recipe);
+                } else {
+                    applyPropertyValues(beanName, bean, beanDefinition);
+                }
+            } finally {
+                step.end();
+            }
+            return bean;
         } catch (Exception e) {
-            throw new BeansException("Instantiation of bean failed");
+            throw new BeansException("Instantiation of bean failed", e);
         }
-        // 注册有销毁方法的bean
-        registerDisposableBeanIfNecessary(beanName, bean, beanDefinition);
-        if (beanDefinition.isSingleton()) {
-            addSingleton(beanName, bean);
+    }
+
+    /**
+     * 初始化Bean并注册有销毁方法的Bean
+     */
+    private Object initializeAndRegister(String beanName, BeanDefinition beanDefinition, BeanRecipe recipe, Object bean) {
+        Object wrappedBean;
+        StartupStep step = getApplicationStartup().start("plms.beans.initialize").tag("beanName", beanName);
+        try {
+            wrappedBean = recipe != null ? initializeBean(beanName, bean, recipe) : initializeBean(beanName, bean, beanDefinition);
+        } catch (Exception e) {
+            throw new BeansException("Instantiation of bean failed", e);
+        } finally {
+            step.end();
         }
-        return bean;
+        registerDisposableBeanIfNecessary(beanName, wrappedBean, beanDefinition, recipe);
+        return wrappedBean;
     }
 
-    protected Object createBeanInstance(BeanDefinition beanDefinition, String beanName, Object[] args) {
-        Constructor constructor = null;
-        Class<?> beanClass = beanDefinition.getBeanClass();
-        // 获取Bean类的所有构造函数
-        Constructor<?>[] constructors = beanClass.getDeclaredConstructors();
-        for (Constructor<?> ctor : constructors) {
-            // 为了简略代码只根据参数列表的长度来选择构造函数，实际上还应该比较类型
-            if (args != null && ctor.getParameterTypes().length == args.length) {
-                constructor = ctor;
-                break;
+    /**
+     * 按配方注入属性，属性注入器和转换后的属性值都已提前解析
+     */
+    private void applyPropertyValues(String beanName, Object bean, BeanRecipe recipe) {
+        for (int i = 0; i < recipe.getPropertyCount(); i++) {
+            PropertyInjector injector = recipe.getInjector(i);
+            String reference = recipe.getReference(i);
+            Object value = recipe.getValue(i);
+            if (reference != null) {
+                registerDependentBean(reference, beanName);
+                value = getBean(reference);
             }
+            if (reference != null || recipe.isConvertOnInject(i)) {
+                value = convertIfNecessary(value, injector.getPropertyType());
+            }
+            try {
+                injector.inject(bean, value);
+            } catch (Throwable e) {
+                throw new BeansException("Failed to set property '" + recipe.getPropertyName(i) + "' in " + beanName, e);
+            }
+        }
+    }
+
+    private Object initializeBean(String beanName, Object bean, BeanRecipe recipe) throws Exception {
+        if (bean instanceof BeanFactoryAware) {
+            ((BeanFactoryAware) bean).setBeanFactory(this);
+        }
+        Object wrappedBean = applyBeanPostProcessorsBeforeInitialization(getBeanPostProcessors(bean, recipe), beanName, bean);
+        StartupStep step = getApplicationStartup().start("plms.beans.init-method").tag("beanName", beanName);
+        try {
+            if (wrappedBean instanceof InitializingBean) {
+                ((InitializingBean) wrappedBean).afterPropertiesSet();
+            }
+            if (recipe.getInitMethod() != null) {
+                LifecycleMethodResolver.invoke(recipe.getInitMethod(), wrappedBean);
+            }
+        } catch (Exception e) {
+            throw new BeansException("Invocation of init method of bean[" + beanName + "] failed", e);
+        } finally {
+            step.end();
+        }
+        return applyBeanPostProcessorsAfterInitialization(getBeanPostProcessors(wrappedBean, recipe), beanName, wrappedBean);
+    }
+
+    /**
+     * 配方中只保存了BeanDefinition中类型的BeanPostProcessor，实例化策略生成了子类或Bean被替换时按实际类型查找
+     */
+    private BeanPostProcessor[] getBeanPostProcessors(Object bean, BeanRecipe recipe) {
+        return bean.getClass() == recipe.getBeanClass() ? recipe.getBeanPostProcessors() : getBeanPostProcessors(bean.getClass());
+    }
+
+    /**
+     * 获取Bean的创建配方，配置冻结之前总是返回null。配方缺失或BeanDefinition已被替换时重新编译
+     */
+    private BeanRecipe getBeanRecipe(String beanName, BeanDefinition beanDefinition) {
+        if (!beanRecipesEnabled) {
+            return null;
         }
+        BeanRecipe recipe = beanRecipes.get(beanName);
+        if (recipe == null || recipe.getBeanDefinition() != beanDefinition) {
+            int version = getBeanPostProcessorVersion();
+            recipe = compileBeanRecipe(beanName, beanDefinition);
+            // 无法编译的BeanDefinition也缓存一个标记，不会在每次创建时重新编译
+            BeanRecipe cached = recipe != null ? recipe : BeanRecipe.notCompilable(beanDefinition);
+            beanRecipes.put(beanName, cached);
+            // 编译期间注册了新的BeanPostProcessor时，配方中的处理器链可能已过期，不保留在缓存中
+            if (version != getBeanPostProcessorVersion()) {
+                beanRecipes.remove(beanName, cached);
+            }
+        }
+        return recipe != null && recipe.isCompilable() ? recipe : null;
+    }
+
+    /**
+     * 将BeanDefinition编译为创建配方
+     * @return 属性或方法无法解析、属性值无法转换时返回null，该Bean仍按BeanDefinition创建，错误在创建时抛出
+     */
+    protected BeanRecipe compileBeanRecipe(String beanName, BeanDefinition beanDefinition) {
+        try {
+            Class<?> beanClass = beanDefinition.getBeanClass();
+            PropertyValue[] propertyValues = beanDefinition.getPropertyValues().getPropertyValues();
+            int count = propertyValues.length;
+            String[] propertyNames = new String[count];
+            PropertyInjector[] injectors = new PropertyInjector[count];
+            Object[] values = new Object[count];
+            String[] references = new String[count];
+            boolean[] convertOnInject = new boolean[count];
+            for (int i = 0; i < count; i++) {
+                propertyNames[i] = propertyValues[i].getName();
+                injectors[i] = propertyInjectorResolver.getPropertyInjector(beanClass, propertyNames[i]);
+                Object value = propertyValues[i].getValue();
+                Class<?> propertyType = injectors[i].getPropertyType();
+                if (value instanceof BeanReference) {
+                    references[i] = ((BeanReference) value).getBeanName();
+                } else if (value == null || BasicType.wrap(propertyType).isInstance(value) || isImmutableValueType(propertyType)) {
+                    values[i] = convertIfNecessary(value, propertyType);
+                } else {
+                    // 转换结果可能是数组等可变对象，每次创建时重新转换，避免多个实例共享同一个对象
+                    values[i] = value;
+                    convertOnInject[i] = true;
+                }
+            }
+            return new BeanRecipe(beanDefinition, findDefaultConstructor(beanClass), propertyNames, injectors, values, references,
+                    convertOnInject, lifecycleMethodResolver.resolveInitMethod(beanName, beanDefinition),
+                    lifecycleMethodResolver.resolveDestroyMethod(beanName, beanDefinition), getBeanPostProcessors(beanClass));
+        } catch (BeansException | ConversionFailedException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 没有构造参数时使用的public无参构造函数，没有时返回null，由实例化策略自行处理
+     */
+    private static Constructor<?> findDefaultConstructor(Class<?> beanClass) {
+        try {
+            return beanClass.getConstructor();
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static boolean isImmutableValueType(Class<?> type) {
+        return BasicType.unWrap(type).isPrimitive() || type == String.class || type.isEnum()
+                || type == Duration.class || type == DataSize.class;
+    }
+
+    /**
+     * 开始使用创建配方并为类已加载的BeanDefinition编译配方，冻结配置时调用。
+     * 配置了初始化或销毁方法的Bean在这里通过Bean工厂的类加载器加载类并解析这些方法，方法不存在时在实例化任何Bean之前抛出异常；
+     * 其余类还未加载的Bean在第一次创建时再编译，不会因为编译配方而加载从未使用的类
+     * @param beanDefinitions bean名称 -> bean定义
+     * @throws BeansException 找不到类或初始化方法、销毁方法时抛出
+     */
+    protected void compileBeanRecipes(Map<String, BeanDefinition> beanDefinitions) throws BeansException {
+        beanRecipesEnabled = true;
+        beanDefinitions.forEach((beanName, beanDefinition) -> {
+            if (!beanDefinition.hasBeanClass() && StrUtil.isAllEmpty(beanDefinition.getInitMethodName(), beanDefinition.getDestroyMethodName())) {
+                return;
+            }
+            resolveBeanClass(beanName, beanDefinition);
+            resolveLifecycleMethods(beanName, beanDefinition);
+            getBeanRecipe(beanName, beanDefinition);
+        });
+    }
+
+    /**
+     * 解析并缓存初始化方法和销毁方法，类必须已经加载
+     */
+    private void resolveLifecycleMethods(String beanName, BeanDefinition beanDefinition) throws BeansException {
+        lifecycleMethodResolver.resolveInitMethod(beanName, beanDefinition);
+        lifecycleMethodResolver.resolveDestroyMethod(beanName, beanDefinition);
+    }
+
+    /**
+     * 移除Bean的创建配方，下一次创建时重新编译
+     * @param beanName
+     */
+    protected void invalidateBeanRecipe(String beanName) {
+        beanRecipes.remove(beanName);
+    }
+
+    @Override
+    public void addBeanPostProcessor(BeanPostProcessor beanPostProcessor) {
+        super.addBeanPostProcessor(beanPostProcessor);
+        // 配方中保存了BeanPostProcessor，需要重新编译
+        beanRecipes.clear();
+    }
+
+    protected Object createBeanInstance(BeanDefinition beanDefinition, String beanName, Object[] args) {
+        // 根据参数类型选择构造函数，结果按参数类型签名缓存，重复创建时不再反射查找
+        Constructor<?> constructor = constructorResolver.resolveConstructor(beanDefinition, args);
         // 用对应的构造函数进行实例化，并返回实例化对象
         return getInstantiationStrategy().instantiate(beanDefinition, beanName, constructor, args);
     }
 
     protected void applyPropertyValues(String beanName, Object bean, BeanDefinition beanDefinition) {
-        try {
-            PropertyValues propertyValues = beanDefinition.getPropertyValues();
-            for (PropertyValue propertyValue : propertyValues.getPropertyValues()) {
-                String name = propertyValue.getName();
-                Object value = propertyValue.getValue();
-                // 如果value是 BeanReference类型则是当前所实例化bean的依赖bean
-                if (value instanceof BeanReference) {
-                    BeanReference beanReference = (BeanReference) value;
-                    value = getBean(beanReference.getBeanName());
+        Class<?> beanClass = beanDefinition.getBeanClass();
+        PropertyValues propertyValues = beanDefinition.getPropertyValues();
+        for (PropertyValue propertyValue : propertyValues.getPropertyValues()) {
+            String name = propertyValue.getName();
+            Object value = propertyValue.getValue();
+            // 如果value是 BeanReference类型则是当前所实例化bean的依赖bean
+            if (value instanceof BeanReference) {
+                BeanReference beanReference = (BeanReference) value;
+                registerDependentBean(beanReference.getBeanName(), beanName);
+                value = getBean(beanReference.getBeanName());
+            }
+            try {
+                PropertyInjector injector = propertyInjectorResolver.getPropertyInjector(beanClass, name);
+                injector.inject(bean, convertIfNecessary(value, injector.getPropertyType()));
+            } catch (Throwable e) {
+                throw new BeansException("Failed to set property '" + name + "' in " + beanName, e);
+            }
+        }
+    }
+
+    /**
+     * 通过ConversionService将属性值转换为属性的类型
+     */
+    protected Object convertIfNecessary(Object value, Class<?> requiredType) {
+        if (value == null || BasicType.wrap(requiredType).isInstance(value)) {
+            return value;
+        }
+        return getConversionService().convert(value, requiredType);
+    }
+
+    @Override
+    public void setConversionService(ConversionService conversionService) {
+        super.setConversionService(conversionService);
+        // 配方中保存了转换后的属性值，需要重新编译
+        beanRecipes.clear();
+    }
+
+    /**
+     * 获取执行异步初始化的线程池，默认使用守护线程，空闲时线程会退出。初始化方法大多在等待I/O，线程数不少于4个
+     * @return
+     */
+    protected Executor getBootstrapExecutor() {
+        Executor executor = bootstrapExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = bootstrapExecutor;
+                if (executor == null) {
+                    int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+                    AtomicInteger threadNumber = new AtomicInteger();
+                    ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "bean-bootstrap-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    threadPool.allowCoreThreadTimeOut(true);
+                    executor = threadPool;
+                    bootstrapExecutor = executor;
                 }
-                BeanUtil.setFieldValue(bean, name, value);
             }
-        } catch (Exception e) {
-            throw new BeansException("Failed to set property in" + beanName);
         }
+        return executor;
+    }
+
+    /**
+     * 设置执行async-init的Bean的初始化方法的线程池
+     * @param bootstrapExecutor
+     */
+    public void setBootstrapExecutor(Executor bootstrapExecutor) {
+        this.bootstrapExecutor = bootstrapExecutor;
     }
 
     protected InstantiationStrategy getInstantiationStrategy() {
         return instantiationStrategy;
     }
 
+    public void setInstantiationStrategy(InstantiationStrategy instantiationStrategy) {
+        this.instantiationStrategy = instantiationStrategy;
+    }
+
+    public PropertyInjectorResolver getPropertyInjectorResolver() {
+        return propertyInjectorResolver;
+    }
+
+    public void setPropertyInjectorResolver(PropertyInjectorResolver propertyInjectorResolver) {
+        this.propertyInjectorResolver = propertyInjectorResolver;
+        this.beanRecipes.clear();
+    }
+
     protected Object initializeBean(String beanName, Object bean, BeanDefinition beanDefinition) {
         if (bean instanceof BeanFactoryAware) {
             ((BeanFactoryAware) bean).setBeanFactory(this);
         }
         Object wrappedBean = applyBeanPostProcessorsBeforeInitialization(beanName, bean);
+        StartupStep step = getApplicationStartup().start("plms.beans.init-method").tag("beanName", beanName);
         try {
             invokeInitMethods(beanName, wrappedBean, beanDefinition);
         } catch (Exception e) {
             throw new BeansException("Invocation of init method of bean[" + beanName + "] failed", e);
+        } finally {
+            step.end();
         }
         wrappedBean = applyBeanPostProcessorsAfterInitialization(beanName, wrappedBean);
         return wrappedBean;
@@ -100,13 +459,28 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
         if (bean instanceof InitializingBean) {
             ((InitializingBean) bean).afterPropertiesSet();
         }
-        String initMethodName = beanDefinition.getInitMethodName();
-        if (StrUtil.isNotEmpty(initMethodName)) {
-            Method method = beanDefinition.getBeanClass().getMethod(initMethodName);
-            if (null == method) {
-                throw new BeansException("Could not find an init method named '" + initMethodName + "' on bean with name '" + beanName + "'");
-            }
-            method.invoke(bean);
+        // 初始化方法只在第一次使用时解析，之后直接调用缓存的MethodHandle
+        MethodHandle initMethod = lifecycleMethodResolver.resolveInitMethod(beanName, beanDefinition);
+        if (initMethod != null) {
+            LifecycleMethodResolver.invoke(initMethod, bean);
+        }
+    }
+
+    /**
+     * 校验BeanDefinition，检查对象池大小并提前解析初始化方法和销毁方法，配置错误时在注册阶段就抛出异常。
+     * 类还未加载时推迟到冻结配置时解析初始化方法和销毁方法，未冻结时在实例化之前解析
+     * @param beanName
+     * @param beanDefinition
+     * @throws BeansException
+     */
+    protected void validateBeanDefinition(String beanName, BeanDefinition beanDefinition) throws BeansException {
+        if (beanDefinition.isPooled() && (beanDefinition.getPoolMaxIdle() < 1 || beanDefinition.getPoolMinIdle() < 0
+                || beanDefinition.getPoolMinIdle() > beanDefinition.getPoolMaxIdle())) {
+            throw new BeansException("Invalid pool size of bean [" + beanName + "]: pool-min-idle=" + beanDefinition.getPoolMinIdle()
+                    + ", pool-max-idle=" + beanDefinition.getPoolMaxIdle());
+        }
+        if (beanDefinition.hasBeanClass()) {
+            resolveLifecycleMethods(beanName, beanDefinition);
         }
     }
 
@@ -117,22 +491,87 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
      * @param beanDefinition
      */
     protected void registerDisposableBeanIfNecessary(String beanName, Object bean, BeanDefinition beanDefinition) {
-        // 非单例Bean则不执行销毁方法
-        if (!beanDefinition.isSingleton()) {
+        registerDisposableBeanIfNecessary(beanName, bean, beanDefinition, null);
+    }
+
+    /**
+     * 有创建配方时使用配方中已解析的销毁方法
+     */
+    private void registerDisposableBeanIfNecessary(String beanName, Object bean, BeanDefinition beanDefinition, BeanRecipe recipe) {
+        // 原型Bean不执行销毁方法，pooled作用域的Bean由对象池负责销毁
+        if (beanDefinition.isPrototype() || beanDefinition.isPooled()) {
             return;
         }
         // Bean如果实现了DisposableBean接口或者Bean中有自定义的销毁方法，则将其注册进注册表中
         if (bean instanceof DisposableBean || StrUtil.isNotEmpty(beanDefinition.getDestroyMethodName())) {
-            // 将Bean封装成DisposableBeanAdapter，注册进disposableBeans中
-            registerDisposableBean(beanName, new DisposableBeanAdapter(bean, beanName, beanDefinition));
+            MethodHandle destroyMethod = recipe != null ? recipe.getDestroyMethod() : lifecycleMethodResolver.resolveDestroyMethod(beanName, beanDefinition);
+            DisposableBeanAdapter disposableBean = new DisposableBeanAdapter(bean, beanName, beanDefinition, destroyMethod);
+            if (beanDefinition.isSingleton()) {
+                // 将Bean封装成DisposableBeanAdapter，注册进disposableBeans中
+                registerDisposableBean(beanName, disposableBean);
+                return;
+            }
+            // 自定义作用域的Bean在作用域结束时销毁
+            Scope scope = getRegisteredScope(beanDefinition.getScope());
+            if (scope != null) {
+                scope.registerDestructionCallback(beanName, () -> {
+                    try {
+                        disposableBean.destroy();
+                    } catch (Exception e) {
+                        throw new BeansException("Destroy method on bean with name '" + beanName + "' throw an exception", e);
+                    }
+                });
+            }
+        }
+    }
+
+    @Override
+    protected void destroyBean(String beanName, Object bean, BeanDefinition beanDefinition) {
+        if (!(bean instanceof DisposableBean) && StrUtil.isEmpty(beanDefinition.getDestroyMethodName())) {
+            return;
+        }
+        MethodHandle destroyMethod = lifecycleMethodResolver.resolveDestroyMethod(beanName, beanDefinition);
+        try {
+            new DisposableBeanAdapter(bean, beanName, beanDefinition, destroyMethod).destroy();
+        } catch (Exception e) {
+            throw new BeansException("Destroy method on bean with name '" + beanName + "' throw an exception", e);
         }
     }
 
     @Override
     public Object applyBeanPostProcessorsBeforeInitialization(String beanName, Object bean) {
+        return applyBeanPostProcessorsBeforeInitialization(getBeanPostProcessors(bean.getClass()), beanName, bean);
+    }
+
+    @Override
+    public Object applyBeanPostProcessorsAfterInitialization(String beanName, Object bean) {
+        return applyBeanPostProcessorsAfterInitialization(getBeanPostProcessors(bean.getClass()), beanName, bean);
+    }
+
+    private Object applyBeanPostProcessorsBeforeInitialization(BeanPostProcessor[] beanPostProcessors, String beanName, Object bean) {
+        DefaultContainerMetrics metrics = beanPostProcessors.length > 0 ? getMetricsIfEnabled() : null;
+        long start = metrics != null ? metrics.startTimer() : DefaultContainerMetrics.NOT_SAMPLED;
+        if (start == DefaultContainerMetrics.NOT_SAMPLED) {
+            return doApplyBeanPostProcessorsBeforeInitialization(beanPostProcessors, beanName, bean);
+        }
+        try {
+            return doApplyBeanPostProcessorsBeforeInitialization(beanPostProcessors, beanName, bean);
+        } finally {
+            metrics.recordPostProcessors(start);
+        }
+    }
+
+    private Object doApplyBeanPostProcessorsBeforeInitialization(BeanPostProcessor[] beanPostProcessors, String beanName, Object bean) {
         Object result = bean;
-        for (BeanPostProcessor beanPostProcessor : getBeanPostProcessors()) {
-            Object current = beanPostProcessor.postProcessBeforeInitialization(bean, beanName);
+        for (BeanPostProcessor beanPostProcessor : beanPostProcessors) {
+            StartupStep step = getApplicationStartup().start("plms.beans.post-process").tag("beanName", beanName)
+                    .tag("postProcessor", CglibSubClassingInstantiationStrategy.getUserClass(beanPostProcessor.getClass()).getName()).tag("phase", "before");
+            Object current;
+            try {
+                current = beanPostProcessor.postProcessBeforeInitialization(result, beanName);
+            } finally {
+                step.end();
+            }
             if (current == null) {
                 return result;
             }
@@ -141,11 +580,30 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
         return result;
     }
 
-    @Override
-    public Object applyBeanPostProcessorsAfterInitialization(String beanName, Object bean) {
+    private Object applyBeanPostProcessorsAfterInitialization(BeanPostProcessor[] beanPostProcessors, String beanName, Object bean) {
+        DefaultContainerMetrics metrics = beanPostProcessors.length > 0 ? getMetricsIfEnabled() : null;
+        long start = metrics != null ? metrics.startTimer() : DefaultContainerMetrics.NOT_SAMPLED;
+        if (start == DefaultContainerMetrics.NOT_SAMPLED) {
+            return doApplyBeanPostProcessorsAfterInitialization(beanPostProcessors, beanName, bean);
+        }
+        try {
+            return doApplyBeanPostProcessorsAfterInitialization(beanPostProcessors, beanName, bean);
+        } finally {
+            metrics.recordPostProcessors(start);
+        }
+    }
+
+    private Object doApplyBeanPostProcessorsAfterInitialization(BeanPostProcessor[] beanPostProcessors, String beanName, Object bean) {
         Object result = bean;
-        for (BeanPostProcessor beanPostProcessor : getBeanPostProcessors()) {
-            Object current = beanPostProcessor.postProcessAfterInitialization(bean, beanName);
+        for (BeanPostProcessor beanPostProcessor : beanPostProcessors) {
+            StartupStep step = getApplicationStartup().start("plms.beans.post-process").tag("beanName", beanName)
+                    .tag("postProcessor", CglibSubClassingInstantiationStrategy.getUserClass(beanPostProcessor.getClass()).getName()).tag("phase", "after");
+            Object current;
+            try {
+                current = beanPostProcessor.postProcessAfterInitialization(result, beanName);
+            } finally {
+                step.end();
+            }
             if (current == null) {
                 return result;
             }
@@ -1,8 +1,20 @@
 package com.plms.springframework.bean.factory.support;
 
 import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
 import com.plms.springframework.core.io.DefaultResourceLoader;
 import com.plms.springframework.core.io.ResourceLoader;
+import com.plms.springframework.core.metrics.ApplicationStartup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @Author bigboss
@@ -14,6 +26,10 @@ public abstract class AbstractBeanDefinitionReader implements BeanDefinitionRead
 
     private ResourceLoader resourceLoader;
 
+    private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
     public AbstractBeanDefinitionReader(BeanDefinitionRegistry registry) {
         this(registry, new DefaultResourceLoader());
     }
@@ -23,13 +39,104 @@ public abstract class AbstractBeanDefinitionReader implements BeanDefinitionRead
         this.resourceLoader = resourceLoader;
     }
 
+    /**
+     * 加载多个配置文件。并行度大于1时在有界线程池中并发解析，每个配置文件先注册到独立的暂存注册表，
+     * 再按配置文件的顺序回放到注册表中，重名检查和抛出的异常与顺序加载相同
+     * @param locations
+     * @throws BeansException
+     */
     @Override
     public void loadBeanDefinitions(String[] locations) throws BeansException {
-        for (String location : locations) {
-            loadBeanDefinitions(location);
+        int threads = Math.min(parallelism, locations.length);
+        List<BufferingBeanDefinitionRegistry> registries = new ArrayList<>(locations.length);
+        List<AbstractBeanDefinitionReader> readers = new ArrayList<>(locations.length);
+        if (threads > 1) {
+            for (int i = 0; i < locations.length; i++) {
+                BufferingBeanDefinitionRegistry registry = new BufferingBeanDefinitionRegistry();
+                AbstractBeanDefinitionReader reader = createDelegateReader(registry);
+                if (reader == null) {
+                    break;
+                }
+                reader.setApplicationStartup(applicationStartup);
+                reader.setParallelism(1);
+                registries.add(registry);
+                readers.add(reader);
+            }
+        }
+        if (readers.size() < locations.length) {
+            for (String location : locations) {
+                loadBeanDefinitions(location);
+            }
+            return;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "bean-definition-loader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(locations.length);
+            for (int i = 0; i < locations.length; i++) {
+                String location = locations[i];
+                BufferingBeanDefinitionRegistry registry = registries.get(i);
+                AbstractBeanDefinitionReader reader = readers.get(i);
+                futures.add(executor.submit(() -> {
+                    try {
+                        reader.loadBeanDefinitions(location);
+                    } catch (RuntimeException e) {
+                        registry.setFailure(e);
+                    }
+                }));
+            }
+            // 按配置文件的顺序回放，前面的配置文件出错时后面的解析结果被丢弃
+            for (int i = 0; i < locations.length; i++) {
+                awaitLoading(futures.get(i), locations[i]);
+                registries.get(i).replayInto(this);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitLoading(Future<?> future, String location) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeansException("Interrupted while loading bean definitions from " + location, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new BeansException("Failed to load bean definitions from " + location, cause);
         }
     }
 
+    /**
+     * 创建并行加载时解析单个配置文件的reader，它与当前reader使用相同的配置，注册到给定的注册表中。
+     * 返回的reader需要与当前reader的类型相同，否则子类重写的解析方法在并行加载时不生效
+     * @param registry 暂存BeanDefinition的注册表
+     * @return 不支持并行加载时返回null，此时按顺序加载
+     */
+    protected AbstractBeanDefinitionReader createDelegateReader(BeanDefinitionRegistry registry) {
+        return null;
+    }
+
+    /**
+     * 检查名称是否重复并注册BeanDefinition
+     * @param beanName bean名称
+     * @param beanDefinition bean定义
+     * @throws BeansException 注册表中已有同名的BeanDefinition时抛出
+     */
+    protected void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) throws BeansException {
+        if (registry.containsBeanDefinition(beanName)) {
+            throw new BeansException("BeanName [" + beanName +"] is duplicate");
+        }
+        registry.registerBeanDefinition(beanName, beanDefinition);
+    }
+
     @Override
     public BeanDefinitionRegistry getRegistry() {
         return registry;
@@ -39,4 +146,34 @@ public abstract class AbstractBeanDefinitionReader implements BeanDefinitionRead
     public ResourceLoader getResourceLoader() {
         return resourceLoader;
     }
+
+    /**
+     * 设置记录解析配置文件和加载Bean类耗时的ApplicationStartup
+     * @param applicationStartup
+     */
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        if (applicationStartup == null) {
+            throw new BeansException("ApplicationStartup must not be null");
+        }
+        this.applicationStartup = applicationStartup;
+    }
+
+    public ApplicationStartup getApplicationStartup() {
+        return applicationStartup;
+    }
+
+    /**
+     * 设置同时加载多个配置文件时的最大并行度，默认为CPU核数，为1时按顺序加载
+     * @param parallelism
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new BeansException("Parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
 }
@@ -1,12 +1,30 @@
 package com.plms.springframework.bean.factory.support;
 
+import cn.hutool.core.convert.BasicType;
+import cn.hutool.core.util.ClassLoaderUtil;
+import com.plms.springframework.bean.BeansException;
 import com.plms.springframework.bean.factory.BeanFactory;
+import com.plms.springframework.bean.factory.BeanHandle;
+import com.plms.springframework.bean.factory.PoolableBean;
 import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.config.BeanPoolMetrics;
 import com.plms.springframework.bean.factory.config.BeanPostProcessor;
 import com.plms.springframework.bean.factory.config.ConfigurableBeanFactory;
+import com.plms.springframework.bean.factory.config.Scope;
+import com.plms.springframework.core.convert.ConversionService;
+import com.plms.springframework.core.convert.support.DefaultConversionService;
+import com.plms.springframework.core.metrics.ApplicationStartup;
+import com.plms.springframework.core.metrics.ContainerMetrics;
+import com.plms.springframework.core.metrics.StartupStep;
+import com.plms.springframework.bean.factory.config.TargetedBeanPostProcessor;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * @Author bigboss
@@ -14,7 +32,52 @@ import java.util.List;
  */
 public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry implements ConfigurableBeanFactory {
 
-    private final List<BeanPostProcessor> beanPostProcessors = new ArrayList<>();
+    private final List<BeanPostProcessor> beanPostProcessors = new CopyOnWriteArrayList<>();
+
+    /**
+     * 已注册的BeanPostProcessor快照及按类型缓存的处理器链，注册新的BeanPostProcessor时整体替换。
+     * 替换前开始计算的处理器链只会写入旧的缓存，不会被之后的获取看到
+     */
+    private volatile BeanPostProcessorChains beanPostProcessorChains = new BeanPostProcessorChains(0, new BeanPostProcessor[0]);
+
+    /**
+     * pooled作用域Bean的名称 -> 对象池
+     */
+    private final Map<String, BeanPool> beanPools = new ConcurrentHashMap<>(16);
+
+    /**
+     * 作用域名称 -> 自定义作用域
+     */
+    private final Map<String, Scope> scopes = new ConcurrentHashMap<>(8);
+
+    /**
+     * 每个容器使用自己的实例，向其中注册转换器不影响其他容器
+     */
+    private ConversionService conversionService = new DefaultConversionService();
+
+    private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
+    private volatile ClassLoader beanClassLoader = ClassLoaderUtil.getClassLoader();
+
+    private final DefaultContainerMetrics containerMetrics = new DefaultContainerMetrics();
+
+    private boolean metricsEnabled = true;
+
+    /**
+     * bean名称 -> BeanHandle的槽位，槽位一经分配不再改变
+     */
+    private final Map<String, Integer> beanHandleSlots = new ConcurrentHashMap<>(16);
+
+    /**
+     * 槽位 -> 已解析的单例Bean或原型Bean的BeanDefinition，为null时需要按名称重新解析。读取不加锁，
+     * 写入、扩容和清空时都持有beanHandleSlots的锁
+     */
+    private volatile AtomicReferenceArray<Object> beanHandleTargets = new AtomicReferenceArray<>(16);
+
+    /**
+     * 每次清空槽位时加一，解析期间发生过清空的结果不再写入槽位
+     */
+    private volatile long beanHandleGeneration;
 
     @Override
     public Object getBean(String beanName) {
@@ -31,13 +94,383 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
         return (T) getBean(beanName);
     }
 
+    @Override
+    public <T> BeanHandle<T> getBeanHandle(String beanName, Class<T> requiredType) throws BeansException {
+        Object singleton = getSingleton(beanName);
+        if (singleton != null) {
+            checkRequiredType(beanName, singleton.getClass(), requiredType);
+        } else {
+            // 提前检查BeanDefinition是否存在，类型已知时检查是否与要求的类型一致
+            BeanDefinition beanDefinition = getBeanDefinition(beanName);
+            if (beanDefinition.hasBeanClass() || beanDefinition.getBeanClassName() != null) {
+                checkRequiredType(beanName, resolveBeanClass(beanName, beanDefinition), requiredType);
+            }
+        }
+        Integer slot = beanHandleSlots.get(beanName);
+        if (slot == null) {
+            synchronized (beanHandleSlots) {
+                slot = beanHandleSlots.get(beanName);
+                if (slot == null) {
+                    slot = beanHandleSlots.size();
+                    if (slot == beanHandleTargets.length()) {
+                        AtomicReferenceArray<Object> targets = new AtomicReferenceArray<>(slot * 2);
+                        for (int i = 0; i < slot; i++) {
+                            targets.set(i, beanHandleTargets.get(i));
+                        }
+                        beanHandleTargets = targets;
+                    }
+                    beanHandleSlots.put(beanName, slot);
+                }
+            }
+        }
+        return new DefaultBeanHandle<>(this, beanName, slot, requiredType);
+    }
+
+    /**
+     * 检查bean的类型是否与要求的类型一致
+     * @param requiredType 要求的类型，为null时不检查
+     * @throws BeansException 类型不一致时抛出
+     */
+    static void checkRequiredType(String beanName, Class<?> beanType, Class<?> requiredType) throws BeansException {
+        if (requiredType != null && !BasicType.wrap(requiredType).isAssignableFrom(beanType)) {
+            throw new BeansException("Bean named '" + beanName + "' is expected to be of type [" + requiredType.getName()
+                    + "] but was actually of type [" + beanType.getName() + "]");
+        }
+    }
+
+    /**
+     * 通过句柄获取bean，槽位中已经解析过时不再根据名称查找，命中单例时与getBean一样记录单例命中次数
+     */
+    Object getBean(int slot, String beanName) {
+        Object target = beanHandleTargets.get(slot);
+        if (target instanceof PrototypeTarget) {
+            return createPrototype(beanName, ((PrototypeTarget) target).beanDefinition);
+        }
+        if (target != null) {
+            if (metricsEnabled) {
+                containerMetrics.recordSingletonHit();
+            }
+            return target;
+        }
+        long generation = beanHandleGeneration;
+        Object singleton = getSingleton(beanName);
+        if (singleton != null) {
+            if (metricsEnabled) {
+                containerMetrics.recordSingletonHit();
+            }
+            setBeanHandleTarget(slot, generation, singleton);
+            return singleton;
+        }
+        BeanDefinition beanDefinition = getBeanDefinition(beanName);
+        if (beanDefinition.isPrototype()) {
+            setBeanHandleTarget(slot, generation, new PrototypeTarget(beanDefinition));
+            return createPrototype(beanName, beanDefinition);
+        }
+        Object bean = doGetBean(beanName, null);
+        // pooled作用域和自定义作用域的Bean每次都需要经过对象池或作用域获取
+        if (beanDefinition.isSingleton()) {
+            setBeanHandleTarget(slot, generation, bean);
+        }
+        return bean;
+    }
+
+    /**
+     * 写入解析结果，与扩容和清空互斥，不会写入已被替换的旧数组。
+     * 从开始解析到写入之间槽位被清空过时放弃写入，下次通过句柄获取时重新解析
+     * @param generation 开始解析时的beanHandleGeneration
+     */
+    private void setBeanHandleTarget(int slot, long generation, Object target) {
+        synchronized (beanHandleSlots) {
+            if (beanHandleGeneration == generation) {
+                beanHandleTargets.set(slot, target);
+            }
+        }
+    }
+
+    private Object createPrototype(String beanName, BeanDefinition beanDefinition) {
+        initDependsOn(beanName, beanDefinition);
+        return createBean(beanName, beanDefinition, null);
+    }
+
+    /**
+     * 清空句柄槽位中已解析的结果，BeanDefinition被替换或单例被销毁后调用
+     * @param beanName bean名称，为null时清空所有槽位
+     */
+    protected void resetBeanHandles(String beanName) {
+        synchronized (beanHandleSlots) {
+            beanHandleGeneration++;
+            if (beanName == null) {
+                for (int i = 0; i < beanHandleTargets.length(); i++) {
+                    beanHandleTargets.set(i, null);
+                }
+                return;
+            }
+            Integer slot = beanHandleSlots.get(beanName);
+            if (slot != null) {
+                beanHandleTargets.set(slot, null);
+            }
+        }
+    }
+
+    /**
+     * 原型Bean在句柄槽位中保存的BeanDefinition，与单例Bean实例区分开
+     */
+    private static final class PrototypeTarget {
+
+        private final BeanDefinition beanDefinition;
+
+        private PrototypeTarget(BeanDefinition beanDefinition) {
+            this.beanDefinition = beanDefinition;
+        }
+    }
+
     protected <T> T doGetBean(final String beanName, final Object[] args) {
         Object bean = getSingleton(beanName);
         if (bean != null) {
+            if (metricsEnabled) {
+                containerMetrics.recordSingletonHit();
+            }
             return (T) bean;
         }
         BeanDefinition beanDefinition = getBeanDefinition(beanName);
-        return (T) createBean(beanName, beanDefinition, args);
+        // 先创建depends-on中声明的Bean
+        initDependsOn(beanName, beanDefinition);
+        if (beanDefinition.isSingleton()) {
+            if (beanDefinition.isAsyncInit()) {
+                return (T) awaitSingleton(beanName, getSingletonAsync(beanName, () -> createBeanAsync(beanName, beanDefinition, args)));
+            }
+            // 持有该Bean的创建锁后再创建，并发获取同一个未创建的单例时只会创建一个实例
+            return (T) getSingleton(beanName, () -> createBean(beanName, beanDefinition, args));
+        }
+        if (beanDefinition.isPooled()) {
+            return (T) borrowBean(beanName, beanDefinition, args);
+        }
+        if (beanDefinition.isPrototype()) {
+            return (T) createBean(beanName, beanDefinition, args);
+        }
+        String scopeName = beanDefinition.getScope();
+        Scope scope = scopes.get(scopeName);
+        if (scope == null) {
+            throw new BeansException("No Scope registered for scope name '" + scopeName + "' of bean [" + beanName + "]");
+        }
+        return (T) scope.get(beanName, () -> createBean(beanName, beanDefinition, args));
+    }
+
+    @Override
+    public void setConversionService(ConversionService conversionService) {
+        this.conversionService = conversionService;
+    }
+
+    @Override
+    public ConversionService getConversionService() {
+        return conversionService;
+    }
+
+    @Override
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        if (applicationStartup == null) {
+            throw new BeansException("ApplicationStartup must not be null");
+        }
+        this.applicationStartup = applicationStartup;
+    }
+
+    @Override
+    public ApplicationStartup getApplicationStartup() {
+        return applicationStartup;
+    }
+
+    @Override
+    public void setBeanClassLoader(ClassLoader beanClassLoader) {
+        if (beanClassLoader == null) {
+            throw new BeansException("Bean class loader must not be null");
+        }
+        this.beanClassLoader = beanClassLoader;
+    }
+
+    @Override
+    public ClassLoader getBeanClassLoader() {
+        return beanClassLoader;
+    }
+
+    /**
+     * 通过Bean工厂的类加载器加载BeanDefinition中的类，已加载时直接返回
+     * @param beanName
+     * @param beanDefinition
+     * @return
+     * @throws BeansException 找不到类时抛出
+     */
+    protected Class<?> resolveBeanClass(String beanName, BeanDefinition beanDefinition) throws BeansException {
+        if (beanDefinition.hasBeanClass()) {
+            return beanDefinition.getBeanClass();
+        }
+        StartupStep step = applicationStartup.start("plms.beans.class-resolve").tag("beanName", beanName)
+                .tag("className", beanDefinition::getBeanClassName);
+        try {
+            return beanDefinition.resolveBeanClass(beanClassLoader);
+        } finally {
+            step.end();
+        }
+    }
+
+    @Override
+    public ContainerMetrics getContainerMetrics() {
+        return containerMetrics;
+    }
+
+    @Override
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    @Override
+    public void setLatencySampleInterval(int latencySampleInterval) throws BeansException {
+        if (latencySampleInterval < 1 || Integer.bitCount(latencySampleInterval) != 1) {
+            throw new BeansException("Latency sample interval must be a power of two: " + latencySampleInterval);
+        }
+        containerMetrics.setLatencySampleInterval(latencySampleInterval);
+    }
+
+    /**
+     * 关闭统计时返回null，调用方据此跳过计时
+     */
+    DefaultContainerMetrics getMetricsIfEnabled() {
+        return metricsEnabled ? containerMetrics : null;
+    }
+
+    @Override
+    public void registerScope(String scopeName, Scope scope) {
+        if (BeanDefinition.SCOPE_SINGLETON.equals(scopeName) || BeanDefinition.SCOPE_PROTOTYPE.equals(scopeName)
+                || BeanDefinition.SCOPE_POOLED.equals(scopeName)) {
+            throw new BeansException("Cannot replace built-in scope '" + scopeName + "'");
+        }
+        scopes.put(scopeName, scope);
+    }
+
+    @Override
+    public Scope getRegisteredScope(String scopeName) {
+        return scopes.get(scopeName);
+    }
+
+    /**
+     * 创建depends-on中声明的Bean，并记录依赖关系，销毁时当前Bean先于它们销毁
+     */
+    private void initDependsOn(String beanName, BeanDefinition beanDefinition) {
+        String[] dependsOn = beanDefinition.getDependsOn();
+        if (dependsOn != null) {
+            for (String dependsOnBean : dependsOn) {
+                registerDependentBean(dependsOnBean, beanName);
+                getBean(dependsOnBean);
+            }
+        }
+    }
+
+    /**
+     * 获取bean，声明了async-init的单例Bean只开始初始化而不等待初始化完成
+     * @param beanName bean名称
+     * @return bean初始化完成时完成的Future
+     */
+    protected CompletableFuture<Object> getBeanAsync(String beanName) {
+        BeanDefinition beanDefinition = getBeanDefinition(beanName);
+        if (!beanDefinition.isSingleton() || !beanDefinition.isAsyncInit()) {
+            return CompletableFuture.completedFuture(getBean(beanName));
+        }
+        initDependsOn(beanName, beanDefinition);
+        return getSingletonAsync(beanName, () -> createBeanAsync(beanName, beanDefinition, null));
+    }
+
+    /**
+     * 从对象池中借出实例，池中没有空闲实例时新建一个。指定了构造参数时总是新建实例，它归还后同样会进入对象池
+     */
+    private Object borrowBean(String beanName, BeanDefinition beanDefinition, Object[] args) {
+        BeanPool beanPool = getBeanPool(beanName, beanDefinition);
+        Object bean = args == null ? beanPool.borrow() : null;
+        if (bean == null) {
+            bean = createBean(beanName, beanDefinition, args);
+            beanPool.recordCreated();
+            beanPool.recordBorrowed(bean);
+        }
+        return bean;
+    }
+
+    /**
+     * 获取pooled作用域Bean的对象池，第一次获取时创建对象池并预热到poolMinIdle个空闲实例。
+     * poolMinIdle只用于预热，借出后不会补充空闲实例。容器关闭后再次借出时创建新的对象池
+     */
+    protected BeanPool getBeanPool(String beanName, BeanDefinition beanDefinition) {
+        BeanPool beanPool = beanPools.get(beanName);
+        if (beanPool != null && !beanPool.isClosed()) {
+            return beanPool;
+        }
+        BeanPool newPool = new BeanPool(beanDefinition.getPoolMaxIdle());
+        boolean installed = beanPool == null ? beanPools.putIfAbsent(beanName, newPool) == null
+                : beanPools.replace(beanName, beanPool, newPool);
+        if (!installed) {
+            return getBeanPool(beanName, beanDefinition);
+        }
+        // 预热不放在computeIfAbsent中进行，创建的实例依赖其他pooled作用域Bean时不会重入映射的计算
+        for (int i = 0; i < beanDefinition.getPoolMinIdle(); i++) {
+            Object bean = createBean(beanName, beanDefinition, null);
+            newPool.recordCreated();
+            if (!newPool.fill(bean)) {
+                destroyBean(beanName, bean, beanDefinition);
+            }
+        }
+        return newPool;
+    }
+
+    @Override
+    public void returnBean(String beanName, Object bean) throws BeansException {
+        BeanDefinition beanDefinition = getBeanDefinition(beanName);
+        if (!beanDefinition.isPooled()) {
+            throw new BeansException("Bean named [" + beanName + "] is not a pooled bean");
+        }
+        BeanPool beanPool = beanPools.get(beanName);
+        if (beanPool == null || !beanPool.release(bean)) {
+            throw new BeansException("Bean [" + bean + "] was not borrowed from the pool of bean named [" + beanName
+                    + "] or has already been returned");
+        }
+        // 容器关闭后归还的实例直接销毁，不会重新创建对象池
+        if (beanPool.isClosed()) {
+            destroyBean(beanName, bean, beanDefinition);
+            return;
+        }
+        if (bean instanceof PoolableBean) {
+            try {
+                ((PoolableBean) bean).reset();
+            } catch (Exception e) {
+                beanPool.recordDiscarded();
+                destroyBean(beanName, bean, beanDefinition);
+                return;
+            }
+        }
+        if (!beanPool.offer(bean)) {
+            destroyBean(beanName, bean, beanDefinition);
+        }
+    }
+
+    @Override
+    public BeanPoolMetrics getBeanPoolMetrics(String beanName) throws BeansException {
+        BeanDefinition beanDefinition = getBeanDefinition(beanName);
+        if (!beanDefinition.isPooled()) {
+            throw new BeansException("Bean named [" + beanName + "] is not a pooled bean");
+        }
+        BeanPool beanPool = beanPools.get(beanName);
+        return (beanPool != null ? beanPool : getBeanPool(beanName, beanDefinition)).getMetrics();
+    }
+
+    @Override
+    public void destroySingletons() {
+        // 先销毁对象池中的空闲实例，它们可能依赖单例Bean
+        // 关闭的对象池保留在映射中，之后归还的实例仍能按借出记录检查
+        for (Map.Entry<String, BeanPool> entry : beanPools.entrySet()) {
+            String beanName = entry.getKey();
+            BeanDefinition beanDefinition = getBeanDefinition(beanName);
+            for (Object bean : entry.getValue().close()) {
+                destroyBean(beanName, bean, beanDefinition);
+            }
+        }
+        resetBeanHandles(null);
+        super.destroySingletons();
     }
 
     /**
@@ -56,14 +489,77 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
      */
     protected abstract Object createBean(String beanName, BeanDefinition beanDefinition, Object[] args);
 
+    /**
+     * 新建bean，实例化和属性注入在当前线程完成，初始化方法在启动线程池中执行
+     * @param beanName bean名称
+     * @param beanDefinition bean定义
+     * @param args 构造函数参数
+     * @return 初始化完成时完成的Future
+     */
+    protected abstract CompletableFuture<Object> createBeanAsync(String beanName, BeanDefinition beanDefinition, Object[] args);
+
+    /**
+     * 执行非单例Bean实例的销毁方法
+     * @param beanName bean名称
+     * @param bean bean实例
+     * @param beanDefinition bean定义
+     */
+    protected abstract void destroyBean(String beanName, Object bean, BeanDefinition beanDefinition);
+
 
     @Override
     public void addBeanPostProcessor(BeanPostProcessor beanPostProcessor) {
-        this.beanPostProcessors.remove(beanPostProcessor);
-        this.beanPostProcessors.add(beanPostProcessor);
+        synchronized (this.beanPostProcessors) {
+            this.beanPostProcessors.remove(beanPostProcessor);
+            this.beanPostProcessors.add(beanPostProcessor);
+            this.beanPostProcessorChains = new BeanPostProcessorChains(beanPostProcessorChains.version + 1,
+                    beanPostProcessors.toArray(new BeanPostProcessor[0]));
+        }
     }
 
     public List<BeanPostProcessor> getBeanPostProcessors() {
         return this.beanPostProcessors;
     }
+
+    /**
+     * 获取需要对该类型的Bean执行的BeanPostProcessor，按注册顺序排列，结果按类型缓存
+     * @param beanType Bean的实际类型
+     * @return
+     */
+    protected BeanPostProcessor[] getBeanPostProcessors(Class<?> beanType) {
+        BeanPostProcessorChains chains = this.beanPostProcessorChains;
+        return chains.cache.computeIfAbsent(beanType, type -> Arrays.stream(chains.processors)
+                .filter(processor -> !(processor instanceof TargetedBeanPostProcessor)
+                        || ((TargetedBeanPostProcessor) processor).supportsBeanType(type))
+                .toArray(BeanPostProcessor[]::new));
+    }
+
+    /**
+     * 获取BeanPostProcessor的版本号，每次注册BeanPostProcessor时加一。
+     * 保存了处理器链的缓存在计算前后比较版本号，版本号变化时丢弃计算结果
+     * @return
+     */
+    protected int getBeanPostProcessorVersion() {
+        return beanPostProcessorChains.version;
+    }
+
+    /**
+     * 某个版本的BeanPostProcessor快照，以及由该快照计算出的各个类型的处理器链
+     */
+    private static final class BeanPostProcessorChains {
+
+        private final int version;
+
+        private final BeanPostProcessor[] processors;
+
+        /**
+         * Bean的类型 -> 需要对该类型执行的BeanPostProcessor
+         */
+        private final Map<Class<?>, BeanPostProcessor[]> cache = new ConcurrentHashMap<>(64);
+
+        private BeanPostProcessorChains(int version, BeanPostProcessor[] processors) {
+            this.version = version;
+            this.processors = processors;
+        }
+    }
 }
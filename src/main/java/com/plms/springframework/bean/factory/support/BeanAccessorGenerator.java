@@ -0,0 +1,366 @@
+package com.plms.springframework.bean.factory.support;
+
+import cn.hutool.core.util.StrUtil;
+import com.plms.springframework.bean.BeansException;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+
+/**
+ * 使用cglib自带的ASM为Bean类型生成GeneratedBeanAccessor的实现类。
+ * 生成的类位于单独的类加载器中，因此只能访问public类的public构造函数、setter和字段
+ * @Author bigboss
+ * @Date 2021/11/17 20:18
+ */
+public final class BeanAccessorGenerator implements Opcodes {
+
+    private static final String ACCESSOR_SUFFIX = "$$BeanAccessorByPlms";
+
+    /**
+     * Bean类型的类加载器 -> 生成类所在的类加载器。生成类的加载器以Bean的类加载器为父加载器，
+     * 因此只能被弱引用，否则键始终可达，Bean的类加载器永远不会被回收
+     */
+    private static final Map<ClassLoader, WeakReference<AccessorClassLoader>> CLASS_LOADERS = new WeakHashMap<>();
+
+    /**
+     * 每个Bean类型只生成一次访问器，生成的类随Bean类型一起被回收
+     */
+    private static final ClassValue<Optional<Accessor>> ACCESSORS = new ClassValue<Optional<Accessor>>() {
+        @Override
+        protected Optional<Accessor> computeValue(Class<?> type) {
+            return Optional.ofNullable(generate(type));
+        }
+    };
+
+    private BeanAccessorGenerator() {
+    }
+
+    /**
+     * 获取Bean类型的访问器，第一次获取时生成
+     * @param beanClass bean类型
+     * @return 生成的访问器，Bean类型不是public的具体类时返回null
+     */
+    public static Accessor getAccessor(Class<?> beanClass) {
+        return ACCESSORS.get(beanClass).orElse(null);
+    }
+
+    private static Accessor generate(Class<?> beanClass) {
+        if (!Modifier.isPublic(beanClass.getModifiers()) || beanClass.isInterface() || Modifier.isAbstract(beanClass.getModifiers())) {
+            return null;
+        }
+        List<Constructor<?>> constructors = new ArrayList<>(Arrays.asList(beanClass.getConstructors()));
+        constructors.sort((a, b) -> a.toString().compareTo(b.toString()));
+        Map<String, Member> properties = findWritableProperties(beanClass);
+
+        String accessorName = (beanClass.getName().startsWith("java.") ? "plms." : "") + beanClass.getName() + ACCESSOR_SUFFIX;
+        byte[] bytecode = generateBytecode(accessorName.replace('.', '/'), beanClass, constructors, new ArrayList<>(properties.values()));
+        try {
+            Class<?> accessorClass = getClassLoader(beanClass).define(accessorName, bytecode);
+            GeneratedBeanAccessor accessor = (GeneratedBeanAccessor) accessorClass.newInstance();
+            Map<List<Class<?>>, Integer> constructorIndexes = new LinkedHashMap<>();
+            for (int i = 0; i < constructors.size(); i++) {
+                constructorIndexes.put(Arrays.asList(constructors.get(i).getParameterTypes()), i);
+            }
+            Map<String, Integer> propertyIndexes = new LinkedHashMap<>();
+            Map<String, Class<?>> propertyTypes = new LinkedHashMap<>();
+            int index = 0;
+            for (Map.Entry<String, Member> entry : properties.entrySet()) {
+                propertyIndexes.put(entry.getKey(), index++);
+                propertyTypes.put(entry.getKey(), propertyType(entry.getValue()));
+            }
+            return new Accessor(accessor, constructorIndexes, propertyIndexes, propertyTypes);
+        } catch (LinkageError | InstantiationException | IllegalAccessException e) {
+            throw new BeansException("Failed to generate bean accessor for class [" + beanClass.getName() + "]", e);
+        }
+    }
+
+    /**
+     * 查找所有可写属性：与PropertyInjectorResolver一致，字段优先，public的非final字段直接写入，
+     * 只有没有可写字段的属性才调用public的setter；私有字段不在生成的代码中处理，回退到MethodHandle
+     */
+    private static Map<String, Member> findWritableProperties(Class<?> beanClass) {
+        Map<String, Member> properties = new LinkedHashMap<>();
+        List<Method> setters = new ArrayList<>();
+        for (Method method : beanClass.getMethods()) {
+            if (method.getName().length() > 3 && method.getName().startsWith("set") && method.getParameterCount() == 1
+                    && !Modifier.isStatic(method.getModifiers()) && Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                setters.add(method);
+            }
+        }
+        setters.sort((a, b) -> a.toString().compareTo(b.toString()));
+        for (Field field : beanClass.getFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())) {
+                properties.putIfAbsent(field.getName(), field);
+            }
+        }
+        for (Method setter : setters) {
+            String propertyName = StrUtil.lowerFirst(setter.getName().substring(3));
+            Field field = findField(beanClass, propertyName);
+            if (field != null && !Modifier.isFinal(field.getModifiers())) {
+                continue;
+            }
+            Member existing = properties.get(propertyName);
+            Class<?> fieldType = field != null ? field.getType() : null;
+            // 有多个重载的setter时优先选择参数类型与（final）字段类型一致的
+            if (existing == null || (fieldType != null && propertyType(existing) != fieldType && setter.getParameterTypes()[0] == fieldType)) {
+                properties.put(propertyName, setter);
+            }
+        }
+        return properties;
+    }
+
+    private static Field findField(Class<?> beanClass, String propertyName) {
+        for (Class<?> type = beanClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(propertyName);
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    return field;
+                }
+            } catch (NoSuchFieldException ignored) {
+                // 继续在父类中查找
+            }
+        }
+        return null;
+    }
+
+    private static Class<?> propertyType(Member member) {
+        return member instanceof Method ? ((Method) member).getParameterTypes()[0] : ((Field) member).getType();
+    }
+
+    private static byte[] generateBytecode(String internalName, Class<?> beanClass, List<Constructor<?>> constructors, List<Member> properties) {
+        String beanType = Type.getInternalName(beanClass);
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, internalName, null, "java/lang/Object",
+                new String[]{Type.getInternalName(GeneratedBeanAccessor.class)});
+
+        MethodVisitor init = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(ALOAD, 0);
+        init.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitInsn(RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        // Object newInstance(int constructorIndex, Object[] args)
+        MethodVisitor newInstance = cw.visitMethod(ACC_PUBLIC, "newInstance", "(I[Ljava/lang/Object;)Ljava/lang/Object;", null, null);
+        newInstance.visitCode();
+        Label[] constructorLabels = newLabels(constructors.size());
+        Label constructorDefault = new Label();
+        newInstance.visitVarInsn(ILOAD, 1);
+        if (!constructors.isEmpty()) {
+            newInstance.visitTableSwitchInsn(0, constructors.size() - 1, constructorDefault, constructorLabels);
+        }
+        for (int i = 0; i < constructors.size(); i++) {
+            Constructor<?> constructor = constructors.get(i);
+            newInstance.visitLabel(constructorLabels[i]);
+            newInstance.visitTypeInsn(NEW, beanType);
+            newInstance.visitInsn(DUP);
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            for (int j = 0; j < parameterTypes.length; j++) {
+                newInstance.visitVarInsn(ALOAD, 2);
+                pushInt(newInstance, j);
+                newInstance.visitInsn(AALOAD);
+                unboxOrCast(newInstance, parameterTypes[j]);
+            }
+            newInstance.visitMethodInsn(INVOKESPECIAL, beanType, "<init>", Type.getConstructorDescriptor(constructor), false);
+            newInstance.visitInsn(ARETURN);
+        }
+        newInstance.visitLabel(constructorDefault);
+        throwIllegalArgument(newInstance, "No such constructor index");
+        newInstance.visitMaxs(0, 0);
+        newInstance.visitEnd();
+
+        // void setProperty(Object bean, int propertyIndex, Object value)
+        MethodVisitor setProperty = cw.visitMethod(ACC_PUBLIC, "setProperty", "(Ljava/lang/Object;ILjava/lang/Object;)V", null, null);
+        setProperty.visitCode();
+        Label[] propertyLabels = newLabels(properties.size());
+        Label propertyDefault = new Label();
+        setProperty.visitVarInsn(ILOAD, 2);
+        if (!properties.isEmpty()) {
+            setProperty.visitTableSwitchInsn(0, properties.size() - 1, propertyDefault, propertyLabels);
+        }
+        for (int i = 0; i < properties.size(); i++) {
+            Member property = properties.get(i);
+            setProperty.visitLabel(propertyLabels[i]);
+            setProperty.visitVarInsn(ALOAD, 1);
+            setProperty.visitTypeInsn(CHECKCAST, beanType);
+            setProperty.visitVarInsn(ALOAD, 3);
+            unboxOrCast(setProperty, propertyType(property));
+            if (property instanceof Method) {
+                Method setter = (Method) property;
+                setProperty.visitMethodInsn(INVOKEVIRTUAL, beanType, setter.getName(), Type.getMethodDescriptor(setter), false);
+                if (setter.getReturnType() != void.class) {
+                    setProperty.visitInsn(Type.getType(setter.getReturnType()).getSize() == 2 ? POP2 : POP);
+                }
+            } else {
+                Field field = (Field) property;
+                setProperty.visitFieldInsn(PUTFIELD, beanType, field.getName(), Type.getDescriptor(field.getType()));
+            }
+            setProperty.visitInsn(RETURN);
+        }
+        setProperty.visitLabel(propertyDefault);
+        throwIllegalArgument(setProperty, "No such property index");
+        setProperty.visitMaxs(0, 0);
+        setProperty.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static Label[] newLabels(int size) {
+        Label[] labels = new Label[size];
+        for (int i = 0; i < size; i++) {
+            labels[i] = new Label();
+        }
+        return labels;
+    }
+
+    private static void pushInt(MethodVisitor mv, int value) {
+        if (value <= 5) {
+            mv.visitInsn(ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, value);
+        } else {
+            mv.visitIntInsn(SIPUSH, value);
+        }
+    }
+
+    private static void throwIllegalArgument(MethodVisitor mv, String message) {
+        mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
+        mv.visitInsn(DUP);
+        mv.visitLdcInsn(message);
+        mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V", false);
+        mv.visitInsn(ATHROW);
+    }
+
+    /**
+     * 将栈顶的Object转换为目标类型，基本类型先转换为包装类型再拆箱
+     */
+    private static void unboxOrCast(MethodVisitor mv, Class<?> type) {
+        if (!type.isPrimitive()) {
+            if (type != Object.class) {
+                mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+            }
+            return;
+        }
+        Type primitive = Type.getType(type);
+        String wrapper;
+        switch (primitive.getSort()) {
+            case Type.BOOLEAN:
+                wrapper = "java/lang/Boolean";
+                break;
+            case Type.CHAR:
+                wrapper = "java/lang/Character";
+                break;
+            case Type.BYTE:
+                wrapper = "java/lang/Byte";
+                break;
+            case Type.SHORT:
+                wrapper = "java/lang/Short";
+                break;
+            case Type.INT:
+                wrapper = "java/lang/Integer";
+                break;
+            case Type.LONG:
+                wrapper = "java/lang/Long";
+                break;
+            case Type.FLOAT:
+                wrapper = "java/lang/Float";
+                break;
+            default:
+                wrapper = "java/lang/Double";
+                break;
+        }
+        mv.visitTypeInsn(CHECKCAST, wrapper);
+        mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, primitive.getClassName() + "Value", "()" + primitive.getDescriptor(), false);
+    }
+
+    private static AccessorClassLoader getClassLoader(Class<?> beanClass) {
+        ClassLoader parent = beanClass.getClassLoader() != null ? beanClass.getClassLoader() : BeanAccessorGenerator.class.getClassLoader();
+        synchronized (CLASS_LOADERS) {
+            WeakReference<AccessorClassLoader> reference = CLASS_LOADERS.get(parent);
+            AccessorClassLoader classLoader = reference != null ? reference.get() : null;
+            if (classLoader == null) {
+                classLoader = new AccessorClassLoader(parent);
+                CLASS_LOADERS.put(parent, new WeakReference<>(classLoader));
+            }
+            return classLoader;
+        }
+    }
+
+    /**
+     * 生成的访问器及其构造函数、属性的下标
+     */
+    public static class Accessor {
+
+        private final GeneratedBeanAccessor accessor;
+
+        private final Map<List<Class<?>>, Integer> constructorIndexes;
+
+        private final Map<String, Integer> propertyIndexes;
+
+        private final Map<String, Class<?>> propertyTypes;
+
+        Accessor(GeneratedBeanAccessor accessor, Map<List<Class<?>>, Integer> constructorIndexes,
+                 Map<String, Integer> propertyIndexes, Map<String, Class<?>> propertyTypes) {
+            this.accessor = accessor;
+            this.constructorIndexes = Collections.unmodifiableMap(constructorIndexes);
+            this.propertyIndexes = Collections.unmodifiableMap(propertyIndexes);
+            this.propertyTypes = Collections.unmodifiableMap(propertyTypes);
+        }
+
+        public GeneratedBeanAccessor getAccessor() {
+            return accessor;
+        }
+
+        /**
+         * @return 构造函数的下标，没有对应的public构造函数时返回-1
+         */
+        public int getConstructorIndex(Class<?>[] parameterTypes) {
+            return constructorIndexes.getOrDefault(Arrays.asList(parameterTypes), -1);
+        }
+
+        /**
+         * @return 属性的下标，没有对应的public setter或字段时返回-1
+         */
+        public int getPropertyIndex(String propertyName) {
+            return propertyIndexes.getOrDefault(propertyName, -1);
+        }
+
+        public Class<?> getPropertyType(String propertyName) {
+            return propertyTypes.get(propertyName);
+        }
+    }
+
+    private static class AccessorClassLoader extends ClassLoader {
+
+        AccessorClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        /**
+         * ClassValue可能在多个线程上同时为同一个Bean类型生成访问器，已定义过的类直接复用，避免重复定义
+         */
+        synchronized Class<?> define(String name, byte[] bytecode) {
+            Class<?> loadedClass = findLoadedClass(name);
+            return loadedClass != null ? loadedClass : defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+}
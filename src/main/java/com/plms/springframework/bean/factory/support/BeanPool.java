@@ -0,0 +1,197 @@
+package com.plms.springframework.bean.factory.support;
+
+import com.plms.springframework.bean.factory.config.BeanPoolMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * pooled作用域Bean的有界对象池，每个空闲实例占用一个槽位，借出和归还都只通过CAS修改槽位，不需要加锁。
+ * 借出中的实例按对象身份记录，只有借出且尚未归还的实例才能归还
+ * @Author bigboss
+ * @Date 2021/11/16 20:20
+ */
+class BeanPool {
+
+    private final AtomicReferenceArray<Object> slots;
+
+    /**
+     * 借出中的实例
+     */
+    private final Set<BorrowedBean> borrowed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 容器关闭时设置，之后归还的实例不再放入池中
+     */
+    private volatile boolean closed;
+
+    private final LongAdder created = new LongAdder();
+
+    private final LongAdder borrowHits = new LongAdder();
+
+    private final LongAdder borrowMisses = new LongAdder();
+
+    private final LongAdder returned = new LongAdder();
+
+    private final LongAdder discarded = new LongAdder();
+
+    BeanPool(int maxIdle) {
+        this.slots = new AtomicReferenceArray<>(maxIdle);
+    }
+
+    /**
+     * 取出一个空闲实例
+     * @return 池中没有空闲实例时返回null，调用方需要自行创建
+     */
+    Object borrow() {
+        int length = slots.length();
+        // 从随机位置开始查找，避免并发借出时都在同一个槽位上竞争
+        int start = ThreadLocalRandom.current().nextInt(length);
+        for (int i = 0; i < length; i++) {
+            int index = (start + i) % length;
+            Object bean = slots.get(index);
+            if (bean != null && slots.compareAndSet(index, bean, null)) {
+                borrowHits.increment();
+                borrowed.add(new BorrowedBean(bean));
+                return bean;
+            }
+        }
+        borrowMisses.increment();
+        return null;
+    }
+
+    /**
+     * 记录池中没有空闲实例时新建并借出的实例
+     */
+    void recordBorrowed(Object bean) {
+        borrowed.add(new BorrowedBean(bean));
+    }
+
+    /**
+     * 结束实例的借出状态，归还前调用
+     * @return 实例不是从该池借出的或已经归还过时返回false
+     */
+    boolean release(Object bean) {
+        return borrowed.remove(new BorrowedBean(bean));
+    }
+
+    /**
+     * 放回一个已经release的实例
+     * @return 池已满或已关闭时返回false，调用方需要销毁该实例
+     */
+    boolean offer(Object bean) {
+        if (!closed && put(bean)) {
+            // 放入的同时池被关闭时取回该实例，已被drain取走时由关闭容器的一方销毁
+            if (closed && take(bean)) {
+                discarded.increment();
+                return false;
+            }
+            returned.increment();
+            return true;
+        }
+        discarded.increment();
+        return false;
+    }
+
+    private boolean take(Object bean) {
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) == bean && slots.compareAndSet(i, bean, null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 放入一个新建的实例，用于预热，不计入归还次数
+     * @return 池已满时返回false，调用方需要销毁该实例
+     */
+    boolean fill(Object bean) {
+        if (put(bean)) {
+            return true;
+        }
+        discarded.increment();
+        return false;
+    }
+
+    private boolean put(Object bean) {
+        int length = slots.length();
+        int start = ThreadLocalRandom.current().nextInt(length);
+        for (int i = 0; i < length; i++) {
+            int index = (start + i) % length;
+            if (slots.get(index) == null && slots.compareAndSet(index, null, bean)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void recordCreated() {
+        created.increment();
+    }
+
+    void recordDiscarded() {
+        discarded.increment();
+    }
+
+    /**
+     * 关闭对象池并取出所有空闲实例，用于关闭容器时销毁
+     */
+    List<Object> close() {
+        closed = true;
+        return drain();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    private List<Object> drain() {
+        List<Object> beans = new ArrayList<>();
+        for (int i = 0; i < slots.length(); i++) {
+            Object bean = slots.getAndSet(i, null);
+            if (bean != null) {
+                beans.add(bean);
+            }
+        }
+        return beans;
+    }
+
+    BeanPoolMetrics getMetrics() {
+        int idle = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                idle++;
+            }
+        }
+        return new BeanPoolMetrics(idle, slots.length(), created.sum(), borrowHits.sum(), borrowMisses.sum(),
+                returned.sum(), discarded.sum());
+    }
+
+    /**
+     * 按对象身份比较的借出记录，Bean重写的equals和hashCode不影响判断
+     */
+    private static final class BorrowedBean {
+
+        private final Object bean;
+
+        private BorrowedBean(Object bean) {
+            this.bean = bean;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof BorrowedBean && ((BorrowedBean) other).bean == bean;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(bean);
+        }
+    }
+}
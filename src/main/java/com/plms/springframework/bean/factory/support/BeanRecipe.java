@@ -0,0 +1,147 @@
+package com.plms.springframework.bean.factory.support;
+
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.config.BeanPostProcessor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Constructor;
+
+/**
+ * 冻结配置时由BeanDefinition编译得到的不可变创建配方，包含无参时使用的构造函数、已解析的属性注入器、已转换的属性值、
+ * 初始化和销毁方法以及适用的BeanPostProcessor，创建Bean时不再逐项解释BeanDefinition。
+ * 带构造参数创建时的构造函数取决于参数类型，仍由ConstructorResolver按参数类型签名缓存在BeanDefinition中
+ * @Author bigboss
+ * @Date 2021/11/18 20:15
+ */
+final class BeanRecipe {
+
+    private final BeanDefinition beanDefinition;
+
+    private final Class<?> beanClass;
+
+    /**
+     * 没有构造参数时使用的public无参构造函数，没有时为null
+     */
+    private final Constructor<?> defaultConstructor;
+
+    private final String[] propertyNames;
+
+    private final PropertyInjector[] injectors;
+
+    /**
+     * 属性值，已转换的值直接注入，引用其他Bean的属性为null
+     */
+    private final Object[] values;
+
+    /**
+     * 引用的Bean名称，不是引用时为null
+     */
+    private final String[] references;
+
+    /**
+     * 值是否需要在每次创建时转换，转换结果可变时不能在多个实例之间共享
+     */
+    private final boolean[] convertOnInject;
+
+    private final MethodHandle initMethod;
+
+    private final MethodHandle destroyMethod;
+
+    private final BeanPostProcessor[] beanPostProcessors;
+
+    /**
+     * 为false时表示该BeanDefinition无法编译，只作为缓存标记，Bean按BeanDefinition创建
+     */
+    private final boolean compilable;
+
+    BeanRecipe(BeanDefinition beanDefinition, Constructor<?> defaultConstructor, String[] propertyNames, PropertyInjector[] injectors, Object[] values,
+               String[] references, boolean[] convertOnInject, MethodHandle initMethod, MethodHandle destroyMethod,
+               BeanPostProcessor[] beanPostProcessors) {
+        this.beanDefinition = beanDefinition;
+        this.beanClass = beanDefinition.getBeanClass();
+        this.defaultConstructor = defaultConstructor;
+        this.propertyNames = propertyNames;
+        this.injectors = injectors;
+        this.values = values;
+        this.references = references;
+        this.convertOnInject = convertOnInject;
+        this.initMethod = initMethod;
+        this.destroyMethod = destroyMethod;
+        this.beanPostProcessors = beanPostProcessors;
+        this.compilable = true;
+    }
+
+    private BeanRecipe(BeanDefinition beanDefinition) {
+        this.beanDefinition = beanDefinition;
+        this.beanClass = null;
+        this.defaultConstructor = null;
+        this.propertyNames = null;
+        this.injectors = null;
+        this.values = null;
+        this.references = null;
+        this.convertOnInject = null;
+        this.initMethod = null;
+        this.destroyMethod = null;
+        this.beanPostProcessors = null;
+        this.compilable = false;
+    }
+
+    /**
+     * 创建表示BeanDefinition无法编译的标记
+     */
+    static BeanRecipe notCompilable(BeanDefinition beanDefinition) {
+        return new BeanRecipe(beanDefinition);
+    }
+
+    boolean isCompilable() {
+        return compilable;
+    }
+
+    BeanDefinition getBeanDefinition() {
+        return beanDefinition;
+    }
+
+    Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    Constructor<?> getDefaultConstructor() {
+        return defaultConstructor;
+    }
+
+    int getPropertyCount() {
+        return injectors.length;
+    }
+
+    String getPropertyName(int index) {
+        return propertyNames[index];
+    }
+
+    PropertyInjector getInjector(int index) {
+        return injectors[index];
+    }
+
+    Object getValue(int index) {
+        return values[index];
+    }
+
+    String getReference(int index) {
+        return references[index];
+    }
+
+    boolean isConvertOnInject(int index) {
+        return convertOnInject[index];
+    }
+
+    MethodHandle getInitMethod() {
+        return initMethod;
+    }
+
+    MethodHandle getDestroyMethod() {
+        return destroyMethod;
+    }
+
+    BeanPostProcessor[] getBeanPostProcessors() {
+        return beanPostProcessors;
+    }
+}
@@ -0,0 +1,65 @@
+package com.plms.springframework.bean.factory.support;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 并行加载配置文件时每个配置文件使用的注册表，按注册顺序暂存BeanDefinition，
+ * 解析完成后再按配置文件的顺序回放到真正的注册表中
+ * @Author bigboss
+ * @Date 2021/11/28 19:10
+ */
+final class BufferingBeanDefinitionRegistry implements BeanDefinitionRegistry {
+
+    private final Map<String, BeanDefinition> beanDefinitions = new LinkedHashMap<>();
+
+    /**
+     * 解析配置文件失败时的异常，在回放完失败前注册的BeanDefinition后抛出
+     */
+    private RuntimeException failure;
+
+    @Override
+    public void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) {
+        // 覆盖已有的BeanDefinition时保持它第一次注册的位置，与直接注册到Bean工厂的结果一致
+        beanDefinitions.put(beanName, beanDefinition);
+    }
+
+    @Override
+    public BeanDefinition getBeanDefinition(String beanName) {
+        BeanDefinition beanDefinition = beanDefinitions.get(beanName);
+        if (beanDefinition == null) {
+            throw new BeansException("No bean named '" + beanName + "' is defined");
+        }
+        return beanDefinition;
+    }
+
+    @Override
+    public String[] getBeanDefinitionNames() {
+        return beanDefinitions.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public boolean containsBeanDefinition(String beanName) {
+        return beanDefinitions.containsKey(beanName);
+    }
+
+    void setFailure(RuntimeException failure) {
+        this.failure = failure;
+    }
+
+    /**
+     * 按注册顺序将暂存的BeanDefinition注册到reader的注册表中，解析失败时随后抛出解析时的异常
+     * @param reader 执行重名检查并注册的reader
+     */
+    void replayInto(AbstractBeanDefinitionReader reader) {
+        for (Map.Entry<String, BeanDefinition> entry : beanDefinitions.entrySet()) {
+            reader.registerBeanDefinition(entry.getKey(), entry.getValue());
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
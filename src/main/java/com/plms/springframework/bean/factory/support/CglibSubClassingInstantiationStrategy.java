@@ -1,29 +1,106 @@
 package com.plms.springframework.bean.factory.support;
 
+import com.plms.springframework.bean.BeansException;
 import com.plms.springframework.bean.factory.config.BeanDefinition;
+import net.sf.cglib.proxy.Callback;
 import net.sf.cglib.proxy.Enhancer;
 import net.sf.cglib.proxy.NoOp;
+import net.sf.cglib.reflect.FastClass;
+import net.sf.cglib.reflect.FastConstructor;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * 通过CGLIB生成Bean的子类进行实例化。每个Bean类型的子类只生成一次，并缓存它的FastClass构造函数，
+ * 之后的实例化不再经过Enhancer。自动模式下只有确实需要子类时才生成子类，否则直接使用父类的反射实例化
  * @Author bigboss
  * @Date 2021/11/2 14:22
  */
-public class CglibSubClassingInstantiationStrategy implements InstantiationStrategy{
+public class CglibSubClassingInstantiationStrategy extends SimpleInstantiationStrategy {
+
+    private static final Callback[] CALLBACKS = new Callback[]{NoOp.INSTANCE};
+
+    private final boolean autoDetect;
+
+    private final Map<Class<?>, GeneratedSubclass> subclassCache = new ConcurrentHashMap<>();
+
+    public CglibSubClassingInstantiationStrategy() {
+        this(false);
+    }
+
+    /**
+     * @param autoDetect 为true时只对需要生成子类的Bean使用CGLIB，其余Bean使用反射实例化
+     */
+    public CglibSubClassingInstantiationStrategy(boolean autoDetect) {
+        this.autoDetect = autoDetect;
+    }
+
     @Override
     public Object instantiate(BeanDefinition beanDefinition, String beanName, Constructor constructor, Object[] args) {
-        Enhancer enhancer = new Enhancer();
-        enhancer.setSuperclass(beanDefinition.getBeanClass());
-        enhancer.setCallback(new NoOp() {
-            @Override
-            public int hashCode() {
-                return super.hashCode();
-            }
-        });
-        if (constructor == null) {
-            return enhancer.create();
+        Class<?> beanClass = beanDefinition.getBeanClass();
+        if ((autoDetect && !requiresSubclassing(beanDefinition)) || Modifier.isFinal(beanClass.getModifiers())) {
+            return super.instantiate(beanDefinition, beanName, constructor, args);
+        }
+        GeneratedSubclass subclass = subclassCache.computeIfAbsent(beanClass, GeneratedSubclass::new);
+        Class<?>[] parameterTypes = constructor != null ? constructor.getParameterTypes() : new Class<?>[0];
+        try {
+            return subclass.getConstructor(parameterTypes).newInstance(constructor != null ? args : new Object[0]);
+        } catch (InvocationTargetException e) {
+            throw new BeansException("Failed to instantiate [" + beanName + "]", e.getTargetException());
+        } catch (RuntimeException e) {
+            throw new BeansException("Failed to instantiate [" + beanName + "]", e);
+        }
+    }
+
+    /**
+     * 判断Bean是否必须通过生成子类来实例化，目前容器没有需要子类才能实现的特性（如方法注入），子类可以覆盖该方法
+     * @param beanDefinition bean定义
+     * @return 是否需要生成子类
+     */
+    protected boolean requiresSubclassing(BeanDefinition beanDefinition) {
+        return false;
+    }
+
+    public boolean isAutoDetect() {
+        return autoDetect;
+    }
+
+    /**
+     * 获取CGLIB生成的子类对应的原始类型，用于记录和展示，其他类型原样返回
+     * @param type 实例的类型
+     * @return
+     */
+    public static Class<?> getUserClass(Class<?> type) {
+        return Enhancer.isEnhanced(type) ? type.getSuperclass() : type;
+    }
+
+    /**
+     * 为某个Bean类型生成的子类以及它的构造函数
+     */
+    private static class GeneratedSubclass {
+
+        private final FastClass fastClass;
+
+        private final Map<List<Class<?>>, FastConstructor> constructors = new ConcurrentHashMap<>();
+
+        GeneratedSubclass(Class<?> beanClass) {
+            Enhancer enhancer = new Enhancer();
+            enhancer.setSuperclass(beanClass);
+            // 只指定回调类型生成子类，回调实例以静态回调的方式注册，所有实例共用同一个生成的子类
+            enhancer.setCallbackType(NoOp.class);
+            Class<?> subclass = enhancer.createClass();
+            Enhancer.registerStaticCallbacks(subclass, CALLBACKS);
+            this.fastClass = FastClass.create(subclass);
+        }
+
+        FastConstructor getConstructor(Class<?>[] parameterTypes) {
+            return constructors.computeIfAbsent(Arrays.asList(parameterTypes), key -> fastClass.getConstructor(parameterTypes));
         }
-        return enhancer.create(constructor.getParameterTypes(), args);
     }
 }
@@ -0,0 +1,118 @@
+package com.plms.springframework.bean.factory.support;
+
+import org.objectweb.asm.ClassReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 获取一个类本身及其所有父类和接口的名称。类还未加载时通过ASM直接读取class文件中的父类和接口，
+ * 既不加载类也不执行静态初始化，按类型查找Bean时不需要加载容器中所有Bean的类
+ * @Author bigboss
+ * @Date 2021/11/30 20:15
+ */
+final class ClassHierarchyReader {
+
+    /**
+     * 已加载的类 -> 该类本身及其所有父类和接口的名称，同一个类的多个bean共享同一份结果
+     */
+    private static final ClassValue<Set<String>> LOADED_TYPE_NAMES = new ClassValue<Set<String>>() {
+        @Override
+        protected Set<String> computeValue(Class<?> type) {
+            Set<String> typeNames = new LinkedHashSet<>();
+            collectTypeNames(type, typeNames);
+            return Collections.unmodifiableSet(typeNames);
+        }
+    };
+
+    private final ClassLoader classLoader;
+
+    /**
+     * 类名 -> 从class文件中读取的该类本身及其所有父类和接口的名称
+     */
+    private final Map<String, Set<String>> typeNamesByClassName = new ConcurrentHashMap<>(256);
+
+    ClassHierarchyReader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    static Set<String> getAssignableTypeNames(Class<?> type) {
+        return LOADED_TYPE_NAMES.get(type);
+    }
+
+    /**
+     * 不加载类，从class文件中读取类本身及其所有父类和接口的名称
+     * @param className 全限定类名
+     * @return 找不到或无法解析该类或其父类、接口的class文件时返回null，由调用方加载类后再获取
+     */
+    Set<String> getAssignableTypeNames(String className) {
+        Set<String> typeNames = typeNamesByClassName.get(className);
+        if (typeNames == null) {
+            typeNames = read(className);
+            if (typeNames != null) {
+                typeNamesByClassName.put(className, typeNames);
+            }
+        }
+        return typeNames;
+    }
+
+    private Set<String> read(String className) {
+        if (className.startsWith("java.")) {
+            // JDK中的类由启动类加载器加载，不会执行用户代码
+            try {
+                return getAssignableTypeNames(Class.forName(className, false, classLoader));
+            } catch (ClassNotFoundException e) {
+                return null;
+            }
+        }
+        ClassReader classReader;
+        try (InputStream inputStream = classLoader.getResourceAsStream(className.replace('.', '/') + ".class")) {
+            if (inputStream == null) {
+                return null;
+            }
+            classReader = new ClassReader(inputStream);
+        } catch (IOException | RuntimeException e) {
+            // ASM不支持的class文件版本等情况
+            return null;
+        }
+        Set<String> typeNames = new LinkedHashSet<>();
+        typeNames.add(className);
+        if (classReader.getSuperName() != null && !addSuperTypeNames(classReader.getSuperName(), typeNames)) {
+            return null;
+        }
+        for (String interfaceName : classReader.getInterfaces()) {
+            if (!addSuperTypeNames(interfaceName, typeNames)) {
+                return null;
+            }
+        }
+        return Collections.unmodifiableSet(typeNames);
+    }
+
+    private boolean addSuperTypeNames(String internalName, Set<String> typeNames) {
+        Set<String> superTypeNames = getAssignableTypeNames(internalName.replace('/', '.'));
+        if (superTypeNames == null) {
+            return false;
+        }
+        typeNames.addAll(superTypeNames);
+        return true;
+    }
+
+    private static void collectTypeNames(Class<?> type, Set<String> typeNames) {
+        if (type == null || !typeNames.add(type.getName())) {
+            return;
+        }
+        collectTypeNames(type.getSuperclass(), typeNames);
+        for (Class<?> interfaceType : type.getInterfaces()) {
+            collectTypeNames(interfaceType, typeNames);
+        }
+    }
+}
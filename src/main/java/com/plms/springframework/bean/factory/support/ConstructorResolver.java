@@ -0,0 +1,121 @@
+package com.plms.springframework.bean.factory.support;
+
+import cn.hutool.core.convert.BasicType;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 根据参数类型解析Bean的构造函数，解析结果按参数类型签名缓存在BeanDefinition中
+ * @Author bigboss
+ * @Date 2021/11/13 15:20
+ */
+public class ConstructorResolver {
+
+    /**
+     * 解析与参数匹配的构造函数
+     * @param beanDefinition bean定义
+     * @param args 构造函数参数
+     * @return 匹配的构造函数，没有参数或没有匹配的构造函数时返回null
+     */
+    public Constructor<?> resolveConstructor(BeanDefinition beanDefinition, Object[] args) {
+        if (args == null) {
+            return null;
+        }
+        Class<?>[] argTypes = new Class<?>[args.length];
+        for (int i = 0; i < args.length; i++) {
+            argTypes[i] = args[i] != null ? args[i].getClass() : null;
+        }
+        List<Class<?>> signature = Arrays.asList(argTypes);
+        Optional<Constructor<?>> resolved = beanDefinition.getResolvedConstructor(signature);
+        if (resolved == null) {
+            resolved = Optional.ofNullable(findConstructor(beanDefinition.getBeanClass(), argTypes));
+            beanDefinition.cacheResolvedConstructor(signature, resolved);
+        }
+        return resolved.orElse(null);
+    }
+
+    /**
+     * 在参数个数相同且参数类型都可赋值的构造函数中，选择类型距离最小的一个；
+     * 距离相同时依次选择参数类型更具体的、public的、签名字典序更小的，保证重载存在歧义时结果是确定的
+     */
+    protected Constructor<?> findConstructor(Class<?> beanClass, Class<?>[] argTypes) {
+        Constructor<?> best = null;
+        int bestWeight = Integer.MAX_VALUE;
+        for (Constructor<?> candidate : beanClass.getDeclaredConstructors()) {
+            Class<?>[] parameterTypes = candidate.getParameterTypes();
+            if (parameterTypes.length != argTypes.length) {
+                continue;
+            }
+            int weight = typeDifferenceWeight(parameterTypes, argTypes);
+            if (weight < 0) {
+                continue;
+            }
+            if (best == null || weight < bestWeight || (weight == bestWeight && isPreferred(candidate, best))) {
+                best = candidate;
+                bestWeight = weight;
+            }
+        }
+        return best;
+    }
+
+    private boolean isPreferred(Constructor<?> candidate, Constructor<?> current) {
+        boolean candidateMoreSpecific = isAssignable(current.getParameterTypes(), candidate.getParameterTypes());
+        boolean currentMoreSpecific = isAssignable(candidate.getParameterTypes(), current.getParameterTypes());
+        if (candidateMoreSpecific != currentMoreSpecific) {
+            return candidateMoreSpecific;
+        }
+        boolean candidatePublic = Modifier.isPublic(candidate.getModifiers());
+        if (candidatePublic != Modifier.isPublic(current.getModifiers())) {
+            return candidatePublic;
+        }
+        return candidate.toString().compareTo(current.toString()) < 0;
+    }
+
+    private boolean isAssignable(Class<?>[] targetTypes, Class<?>[] sourceTypes) {
+        for (int i = 0; i < targetTypes.length; i++) {
+            if (!BasicType.wrap(targetTypes[i]).isAssignableFrom(BasicType.wrap(sourceTypes[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int typeDifferenceWeight(Class<?>[] parameterTypes, Class<?>[] argTypes) {
+        int weight = 0;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            int distance = typeDistance(parameterTypes[i], argTypes[i]);
+            if (distance < 0) {
+                return -1;
+            }
+            weight += distance;
+        }
+        return weight;
+    }
+
+    /**
+     * 计算参数类型到形参类型在继承层次上的距离，不可赋值时返回-1
+     */
+    private int typeDistance(Class<?> parameterType, Class<?> argType) {
+        if (argType == null) {
+            return parameterType.isPrimitive() ? -1 : 0;
+        }
+        Class<?> targetType = BasicType.wrap(parameterType);
+        if (!targetType.isAssignableFrom(argType)) {
+            return -1;
+        }
+        int distance = 0;
+        for (Class<?> type = argType; type != null && targetType.isAssignableFrom(type); type = type.getSuperclass()) {
+            if (type == targetType) {
+                return distance;
+            }
+            distance++;
+        }
+        // 形参是接口时，距离为实现该接口的最上层父类的距离再加一
+        return distance + 1;
+    }
+}
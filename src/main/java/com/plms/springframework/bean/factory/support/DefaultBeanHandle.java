@@ -0,0 +1,45 @@
+package com.plms.springframework.bean.factory.support;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.factory.BeanHandle;
+
+/**
+ * 指向AbstractBeanFactory中句柄槽位的BeanHandle
+ * @Author bigboss
+ * @Date 2021/11/19 20:18
+ */
+final class DefaultBeanHandle<T> implements BeanHandle<T> {
+
+    private final AbstractBeanFactory beanFactory;
+
+    private final String beanName;
+
+    private final int slot;
+
+    private final Class<T> requiredType;
+
+    DefaultBeanHandle(AbstractBeanFactory beanFactory, String beanName, int slot, Class<T> requiredType) {
+        this.beanFactory = beanFactory;
+        this.beanName = beanName;
+        this.slot = slot;
+        this.requiredType = requiredType;
+    }
+
+    @Override
+    public T get() throws BeansException {
+        Object bean = beanFactory.getBean(slot, beanName);
+        // BeanDefinition可能被替换，BeanPostProcessor也可能返回其他类型的对象，每次获取时都检查类型
+        AbstractBeanFactory.checkRequiredType(beanName, bean.getClass(), requiredType);
+        return (T) bean;
+    }
+
+    @Override
+    public String getBeanName() {
+        return beanName;
+    }
+
+    @Override
+    public String toString() {
+        return "BeanHandle[" + beanName + "]";
+    }
+}
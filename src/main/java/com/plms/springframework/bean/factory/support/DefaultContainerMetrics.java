@@ -0,0 +1,142 @@
+package com.plms.springframework.bean.factory.support;
+
+import com.plms.springframework.core.metrics.ContainerMetrics;
+import com.plms.springframework.core.metrics.LatencyHistogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bean工厂使用的ContainerMetrics实现，由Bean工厂在获取和创建Bean时记录。
+ * 计数器每次都记录，耗时按采样间隔随机采样，避免每次创建Bean都调用多次System.nanoTime
+ * @Author bigboss
+ * @Date 2021/11/24 19:55
+ */
+final class DefaultContainerMetrics implements ContainerMetrics {
+
+    /**
+     * 本次没有采样耗时时使用的开始时间
+     */
+    static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    static final int DEFAULT_LATENCY_SAMPLE_INTERVAL = 16;
+
+    private int latencySampleMask = DEFAULT_LATENCY_SAMPLE_INTERVAL - 1;
+
+    private final LongAdder singletonHits = new LongAdder();
+
+    private final LongAdder creations = new LongAdder();
+
+    private final LongAdder creationFailures = new LongAdder();
+
+    /**
+     * bean名称 -> 原型Bean的创建次数
+     */
+    private final Map<String, LongAdder> prototypeCreations = new ConcurrentHashMap<>(16);
+
+    private final LatencyHistogram creationLatency = new LatencyHistogram();
+
+    private final LatencyHistogram postProcessorLatency = new LatencyHistogram();
+
+    /**
+     * @param latencySampleInterval 采样间隔，必须是2的幂
+     */
+    void setLatencySampleInterval(int latencySampleInterval) {
+        this.latencySampleMask = latencySampleInterval - 1;
+    }
+
+    /**
+     * 按采样间隔决定是否记录本次耗时
+     * @return 需要采样时返回开始时间，否则返回NOT_SAMPLED
+     */
+    long startTimer() {
+        if ((ThreadLocalRandom.current().nextInt() & latencySampleMask) != 0) {
+            return NOT_SAMPLED;
+        }
+        return System.nanoTime();
+    }
+
+    void recordSingletonHit() {
+        singletonHits.increment();
+    }
+
+    void recordCreation(String beanName, boolean prototype, long startNanos) {
+        creations.increment();
+        if (startNanos != NOT_SAMPLED) {
+            creationLatency.record(System.nanoTime() - startNanos);
+        }
+        if (prototype) {
+            LongAdder counter = prototypeCreations.get(beanName);
+            if (counter == null) {
+                counter = prototypeCreations.computeIfAbsent(beanName, name -> new LongAdder());
+            }
+            counter.increment();
+        }
+    }
+
+    void recordCreationFailure() {
+        creationFailures.increment();
+    }
+
+    void recordPostProcessors(long startNanos) {
+        postProcessorLatency.record(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public long getSingletonHits() {
+        return singletonHits.sum();
+    }
+
+    @Override
+    public long getCreations() {
+        return creations.sum();
+    }
+
+    @Override
+    public long getCreationFailures() {
+        return creationFailures.sum();
+    }
+
+    @Override
+    public Map<String, Long> getPrototypeCreations() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        prototypeCreations.forEach((beanName, counter) -> result.put(beanName, counter.sum()));
+        return result;
+    }
+
+    @Override
+    public long getPrototypeCreations(String beanName) {
+        LongAdder counter = prototypeCreations.get(beanName);
+        return counter == null ? 0L : counter.sum();
+    }
+
+    @Override
+    public LatencyHistogram getCreationLatency() {
+        return creationLatency;
+    }
+
+    @Override
+    public LatencyHistogram getPostProcessorLatency() {
+        return postProcessorLatency;
+    }
+
+    @Override
+    public void reset() {
+        singletonHits.reset();
+        creations.reset();
+        creationFailures.reset();
+        prototypeCreations.clear();
+        creationLatency.reset();
+        postProcessorLatency.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "ContainerMetrics{singletonHits=" + getSingletonHits() + ", creations=" + getCreations() + ", creationFailures="
+                + getCreationFailures() + ", prototypeCreations=" + getPrototypeCreations() + ", creationLatency=" + creationLatency
+                + ", postProcessorLatency=" + postProcessorLatency + "}";
+    }
+}
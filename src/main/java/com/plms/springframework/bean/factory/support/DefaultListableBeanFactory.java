@@ -1,18 +1,61 @@
 package com.plms.springframework.bean.factory.support;
 
 import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.PropertyValue;
 import com.plms.springframework.bean.factory.ConfigurableListableBeanFactory;
 import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.config.BeanReference;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * @Author bigboss
  * @Date 2021/11/1 22:01
  */
 public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFactory implements BeanDefinitionRegistry, ConfigurableListableBeanFactory {
-    private Map<String, BeanDefinition> beanDefinitionMap = new HashMap<>();
+    private final Map<String, BeanDefinition> beanDefinitionMap = new ConcurrentHashMap<>(256);
+
+    /**
+     * 提前实例化单例Bean时的并行度，为1时在调用线程上按依赖顺序依次创建
+     */
+    private int preInstantiationParallelism = 1;
+
+    /**
+     * 类型名称 -> 该类型（包括其所有父类和接口）的bean名称，在注册BeanDefinition时维护，对它的读写都需要持有它自身的锁。
+     * 以类型名称为键，类还未加载的Bean也能建立索引。不同类加载器中的同名类会落在同一个键下，
+     * 查找时对类已加载的Bean再按Class检查一次，类未加载的Bean只能按名称匹配
+     */
+    private final Map<String, Set<String>> beanNamesByType = new HashMap<>(256);
+
+    /**
+     * 读取未加载的类的父类和接口，更换类加载器后重新创建
+     */
+    private volatile ClassHierarchyReader classHierarchyReader;
+
+    /**
+     * 冻结配置后按类型查找结果的缓存，索引变化时在beanNamesByType的锁内整体替换而不是清空，
+     * 替换前开始的查找只会写入旧的缓存
+     */
+    private volatile Map<Class<?>, String[]> frozenBeanNamesByType = new ConcurrentHashMap<>(64);
+
+    private volatile boolean configurationFrozen = false;
 
     @Override
     public BeanDefinition getBeanDefinition(String beanName) {
@@ -25,7 +68,191 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
     @Override
     public void preInstantiateSingletons() throws BeansException {
-        beanDefinitionMap.keySet().forEach(this::getBean);
+        // 非延迟加载的单例Bean -> 它直接或间接依赖的非延迟加载的单例Bean，按依赖在前的拓扑顺序排列
+        Map<String, Set<String>> dependencyGraph = buildSingletonDependencyGraph();
+        if (preInstantiationParallelism <= 1 || dependencyGraph.size() <= 1) {
+            Map<String, CompletableFuture<?>> futures = new LinkedHashMap<>();
+            for (String beanName : dependencyGraph.keySet()) {
+                try {
+                    // async-init的Bean只开始初始化，依赖它的Bean在注入时才等待
+                    futures.put(beanName, getBeanAsync(beanName));
+                } catch (BeansException e) {
+                    CompletableFuture<?> failure = new CompletableFuture<>();
+                    failure.completeExceptionally(e);
+                    futures.put(beanName, failure);
+                    break;
+                }
+            }
+            awaitPreInstantiation(futures);
+        } else {
+            preInstantiateInParallel(dependencyGraph);
+        }
+        // 预热非延迟加载的对象池
+        beanDefinitionMap.forEach((beanName, beanDefinition) -> {
+            if (beanDefinition.isPooled() && !beanDefinition.isLazyInit() && beanDefinition.getPoolMinIdle() > 0) {
+                getBeanPool(beanName, beanDefinition);
+            }
+        });
+    }
+
+    private void preInstantiateInParallel(Map<String, Set<String>> dependencyGraph) {
+        ForkJoinPool pool = new ForkJoinPool(preInstantiationParallelism);
+        try {
+            // 每个Bean在其依赖的Bean全部初始化完成后才提交到线程池，互不依赖的Bean并发创建
+            Map<String, CompletableFuture<?>> futures = new LinkedHashMap<>();
+            dependencyGraph.forEach((beanName, dependencies) -> {
+                CompletableFuture<?>[] dependencyFutures = dependencies.stream().map(futures::get).toArray(CompletableFuture[]::new);
+                futures.put(beanName, CompletableFuture.allOf(dependencyFutures).thenComposeAsync(v -> getBeanAsync(beanName), pool));
+            });
+            awaitPreInstantiation(futures);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 等待所有Bean创建和异步初始化结束，按拓扑顺序抛出第一个失败Bean的异常，其余失败作为suppressed异常附加在上面
+     */
+    private void awaitPreInstantiation(Map<String, CompletableFuture<?>> futures) {
+        CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).exceptionally(ex -> null).join();
+        BeansException failure = null;
+        // 依赖失败的Bean会以同一个异常结束，每个异常只记录一次
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Map.Entry<String, CompletableFuture<?>> entry : futures.entrySet()) {
+            try {
+                entry.getValue().join();
+            } catch (CompletionException e) {
+                if (!seen.add(e.getCause())) {
+                    continue;
+                }
+                BeansException cause = e.getCause() instanceof BeansException ? (BeansException) e.getCause()
+                        : new BeansException("Pre-instantiation of bean [" + entry.getKey() + "] failed", e.getCause());
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * 根据属性中的BeanReference和depends-on构建需要提前实例化的单例Bean之间的依赖关系图
+     * @return 按拓扑顺序排列的单例Bean及其依赖的单例Bean
+     */
+    protected Map<String, Set<String>> buildSingletonDependencyGraph() {
+        Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+        for (String beanName : getBeanDefinitionNames()) {
+            if (isPreInstantiated(beanDefinitionMap.get(beanName))) {
+                Set<String> singletonDependencies = new LinkedHashSet<>();
+                collectSingletonDependencies(beanName, singletonDependencies);
+                dependencies.put(beanName, singletonDependencies);
+            }
+        }
+        Map<String, Set<String>> sorted = new LinkedHashMap<>();
+        Set<String> visiting = new LinkedHashSet<>();
+        for (String beanName : dependencies.keySet()) {
+            sortTopologically(beanName, dependencies, sorted, visiting);
+        }
+        return sorted;
+    }
+
+    /**
+     * 收集Bean依赖的单例Bean，穿过原型和延迟加载的Bean继续向下寻找。使用显式的栈深度优先遍历，依赖链很长时也不会栈溢出
+     */
+    private void collectSingletonDependencies(String beanName, Set<String> result) {
+        Set<String> visited = new HashSet<>();
+        Deque<Iterator<String>> stack = new ArrayDeque<>();
+        stack.push(getDependencyNames(beanName).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<String> dependencyNames = stack.peek();
+            if (!dependencyNames.hasNext()) {
+                stack.pop();
+                continue;
+            }
+            String dependencyName = dependencyNames.next();
+            BeanDefinition dependency = beanDefinitionMap.get(dependencyName);
+            // 未定义的依赖留给getBean报错；原型和延迟加载的依赖在当前Bean创建时才会被实例化，继续向下寻找它依赖的单例
+            if (dependency == null || !visited.add(dependencyName)) {
+                continue;
+            }
+            if (isPreInstantiated(dependency)) {
+                result.add(dependencyName);
+            } else {
+                stack.push(getDependencyNames(dependencyName).iterator());
+            }
+        }
+    }
+
+    /**
+     * 获取属性中的BeanReference和depends-on中声明的bean名称
+     */
+    private List<String> getDependencyNames(String beanName) {
+        BeanDefinition beanDefinition = beanDefinitionMap.get(beanName);
+        List<String> dependencyNames = new ArrayList<>();
+        for (PropertyValue propertyValue : beanDefinition.getPropertyValues().getPropertyValues()) {
+            if (propertyValue.getValue() instanceof BeanReference) {
+                dependencyNames.add(((BeanReference) propertyValue.getValue()).getBeanName());
+            }
+        }
+        if (beanDefinition.getDependsOn() != null) {
+            dependencyNames.addAll(Arrays.asList(beanDefinition.getDependsOn()));
+        }
+        return dependencyNames;
+    }
+
+    private boolean isPreInstantiated(BeanDefinition beanDefinition) {
+        return beanDefinition.isSingleton() && !beanDefinition.isLazyInit();
+    }
+
+    /**
+     * 按后序遍历将beanName及其依赖加入sorted，依赖总是排在前面。使用显式的栈代替递归，
+     * visiting中按顺序保存当前遍历路径上的Bean，用于发现并报告循环依赖
+     */
+    private void sortTopologically(String beanName, Map<String, Set<String>> dependencies,
+                                   Map<String, Set<String>> sorted, Set<String> visiting) {
+        if (sorted.containsKey(beanName)) {
+            return;
+        }
+        Deque<String> path = new ArrayDeque<>();
+        Deque<Iterator<String>> stack = new ArrayDeque<>();
+        visiting.add(beanName);
+        path.push(beanName);
+        stack.push(dependencies.get(beanName).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<String> iterator = stack.peek();
+            if (!iterator.hasNext()) {
+                String current = path.pop();
+                stack.pop();
+                visiting.remove(current);
+                sorted.put(current, dependencies.get(current));
+                continue;
+            }
+            String dependency = iterator.next();
+            if (sorted.containsKey(dependency)) {
+                continue;
+            }
+            if (!visiting.add(dependency)) {
+                throw new BeansException("Circular dependency between singleton beans: " + String.join(" -> ", visiting) + " -> " + dependency);
+            }
+            path.push(dependency);
+            stack.push(dependencies.get(dependency).iterator());
+        }
+    }
+
+    public int getPreInstantiationParallelism() {
+        return preInstantiationParallelism;
+    }
+
+    /**
+     * 设置提前实例化单例Bean的并行度
+     * @param preInstantiationParallelism 并行度，大于1时互不依赖的单例Bean会在ForkJoinPool上并发创建
+     */
+    public void setPreInstantiationParallelism(int preInstantiationParallelism) {
+        this.preInstantiationParallelism = preInstantiationParallelism;
     }
 
     @Override
@@ -40,19 +267,122 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
     @Override
     public void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) {
-        beanDefinitionMap.put(beanName, beanDefinition);
+        validateBeanDefinition(beanName, beanDefinition);
+        Set<String> typeNames = getAssignableTypeNames(beanName, beanDefinition);
+        synchronized (beanNamesByType) {
+            BeanDefinition oldBeanDefinition = beanDefinitionMap.put(beanName, beanDefinition);
+            if (oldBeanDefinition != null) {
+                removeFromTypeIndex(beanName, getAssignableTypeNames(beanName, oldBeanDefinition));
+            }
+            addToTypeIndex(beanName, typeNames);
+            // 冻结后仍然允许注册，但之前缓存的查找结果和该Bean的创建配方已经失效
+            frozenBeanNamesByType = new ConcurrentHashMap<>(64);
+        }
+        invalidateBeanRecipe(beanName);
+        resetBeanHandles(beanName);
     }
 
     @Override
-    public <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException {
-        Map<String, T> result = new HashMap<>();
-        beanDefinitionMap.forEach((beanName, beanDefinition) -> {
-            Class<?> beanClass = beanDefinition.getBeanClass();
-            if (type.isAssignableFrom(beanClass)) {
-                T bean = (T) getBean(beanName);
-                result.put(beanName, bean);
+    public void freezeConfiguration() {
+        // BeanFactoryPostProcessor可能修改了BeanDefinition中的类型，冻结时重建一次索引
+        synchronized (beanNamesByType) {
+            beanNamesByType.clear();
+            beanDefinitionMap.forEach((beanName, beanDefinition) -> addToTypeIndex(beanName, getAssignableTypeNames(beanName, beanDefinition)));
+            frozenBeanNamesByType = new ConcurrentHashMap<>(64);
+        }
+        configurationFrozen = true;
+        // 将每个BeanDefinition编译为创建配方，之后创建Bean时不再解释BeanDefinition
+        compileBeanRecipes(beanDefinitionMap);
+    }
+
+    @Override
+    public boolean isConfigurationFrozen() {
+        return configurationFrozen;
+    }
+
+    @Override
+    public String[] getBeanNamesForType(Class<?> type) {
+        if (!configurationFrozen) {
+            return doGetBeanNamesForType(type);
+        }
+        return frozenBeanNamesByType.computeIfAbsent(type, this::doGetBeanNamesForType);
+    }
+
+    private String[] doGetBeanNamesForType(Class<?> type) {
+        synchronized (beanNamesByType) {
+            Set<String> beanNames = beanNamesByType.get(type.getName());
+            if (beanNames == null) {
+                return new String[0];
             }
-        });
+            List<String> result = new ArrayList<>(beanNames.size());
+            for (String beanName : beanNames) {
+                BeanDefinition beanDefinition = beanDefinitionMap.get(beanName);
+                // 排除其他类加载器中的同名类型
+                if (beanDefinition != null && beanDefinition.hasBeanClass() && !type.isAssignableFrom(beanDefinition.getBeanClass())) {
+                    continue;
+                }
+                result.add(beanName);
+            }
+            return result.toArray(new String[0]);
+        }
+    }
+
+    private void addToTypeIndex(String beanName, Set<String> typeNames) {
+        for (String typeName : typeNames) {
+            beanNamesByType.computeIfAbsent(typeName, key -> new LinkedHashSet<>()).add(beanName);
+        }
+    }
+
+    private void removeFromTypeIndex(String beanName, Set<String> typeNames) {
+        for (String typeName : typeNames) {
+            Set<String> beanNames = beanNamesByType.get(typeName);
+            if (beanNames != null && beanNames.remove(beanName) && beanNames.isEmpty()) {
+                beanNamesByType.remove(typeName);
+            }
+        }
+    }
+
+    /**
+     * 获取Bean的类型本身及其所有父类和接口的名称，类还未加载时从class文件中读取，读取不到时才加载类
+     */
+    private Set<String> getAssignableTypeNames(String beanName, BeanDefinition beanDefinition) {
+        if (!beanDefinition.hasBeanClass()) {
+            Set<String> typeNames = getClassHierarchyReader().getAssignableTypeNames(beanDefinition.getBeanClassName());
+            if (typeNames != null) {
+                return typeNames;
+            }
+        }
+        return ClassHierarchyReader.getAssignableTypeNames(resolveBeanClass(beanName, beanDefinition));
+    }
+
+    private ClassHierarchyReader getClassHierarchyReader() {
+        ClassHierarchyReader reader = classHierarchyReader;
+        if (reader == null || reader.getClassLoader() != getBeanClassLoader()) {
+            reader = new ClassHierarchyReader(getBeanClassLoader());
+            classHierarchyReader = reader;
+        }
+        return reader;
+    }
+
+    @Override
+    public <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException {
+        Map<String, T> result = new LinkedHashMap<>();
+        for (String beanName : getBeanNamesForType(type)) {
+            result.put(beanName, (T) getBean(beanName));
+        }
         return result;
     }
+
+    @Override
+    public <T> T getBean(Class<T> requiredType) throws BeansException {
+        String[] beanNames = getBeanNamesForType(requiredType);
+        if (beanNames.length == 0) {
+            throw new BeansException("No bean of type [" + requiredType.getName() + "] is defined");
+        }
+        if (beanNames.length > 1) {
+            throw new BeansException("No unique bean of type [" + requiredType.getName() + "] is defined: expected single bean but found "
+                    + beanNames.length + ": " + String.join(", ", beanNames));
+        }
+        return (T) getBean(beanNames[0]);
+    }
 }
@@ -2,25 +2,236 @@ package com.plms.springframework.bean.factory.support;
 
 import com.plms.springframework.bean.BeansException;
 import com.plms.springframework.bean.factory.DisposableBean;
+import com.plms.springframework.bean.factory.ObjectFactory;
 import com.plms.springframework.bean.factory.config.SingletonBeanRegistry;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
+ * 单例注册表，读操作无锁，创建时每个Bean持有各自的创建锁，某个Bean的创建不会阻塞其他Bean的获取。
+ * 异步初始化的Bean在初始化完成前保存在pendingSingletons中，获取它的线程会等待初始化完成
  * @Author bigboss
  * @Date 2021/11/1 21:52
  */
 public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
 
-    private final Map<String, Object> singletonObjects = new HashMap<>();
+    private final Map<String, Object> singletonObjects = new ConcurrentHashMap<>(256);
 
-    private final Map<String, DisposableBean> disposableBeans = new HashMap<>();
+    /**
+     * 每个单例Bean的创建锁
+     */
+    private final Map<String, Object> singletonLocks = new ConcurrentHashMap<>(256);
 
+    private final Map<String, DisposableBean> disposableBeans = new LinkedHashMap<>();
+
+    /**
+     * bean名称 -> 依赖它的bean名称，在注入引用和处理depends-on时记录
+     */
+    private final Map<String, Set<String>> dependentBeanMap = new ConcurrentHashMap<>(64);
+
+    /**
+     * 并行销毁的线程数，销毁方法大多在等待I/O，默认不少于4个
+     */
+    private int destroyParallelism = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private long destroyTimeoutMillis = 10_000;
+
+    private long shutdownTimeoutMillis = 30_000;
+
+    /**
+     * 正在异步初始化的单例Bean，初始化完成后先加入singletonObjects再从这里移除
+     */
+    private final Map<String, CompletableFuture<Object>> pendingSingletons = new ConcurrentHashMap<>(16);
+
+    /**
+     * 正在执行异步初始化的bean名称 -> 执行初始化的线程，以及线程 -> 它正在等待的异步初始化的bean名称，
+     * 用于在等待之前发现等待关系中的环。两者都只在持有asyncInitializationLock时读写
+     */
+    private final Map<String, Thread> initializingThreads = new HashMap<>(16);
+
+    private final Map<Thread, String> awaitedSingletons = new HashMap<>(16);
+
+    private final Object asyncInitializationLock = new Object();
+
+    /**
+     * 获取单例Bean，Bean正在异步初始化时等待初始化完成
+     */
     @Override
     public Object getSingleton(String beanName) {
-        return singletonObjects.get(beanName);
+        Object singletonObject = singletonObjects.get(beanName);
+        if (singletonObject == null && !pendingSingletons.isEmpty()) {
+            CompletableFuture<Object> pendingSingleton = pendingSingletons.get(beanName);
+            if (pendingSingleton != null) {
+                return awaitSingleton(beanName, pendingSingleton);
+            }
+        }
+        return singletonObject;
+    }
+
+    /**
+     * 获取单例Bean，不存在时持有该Bean的创建锁并通过singletonFactory创建，保证同一个Bean只会被创建一次
+     * @param beanName bean名称
+     * @param singletonFactory 创建Bean的工厂
+     * @return 单例bean实例
+     */
+    public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
+        Object singletonObject = singletonObjects.get(beanName);
+        if (singletonObject != null) {
+            return singletonObject;
+        }
+        Object lock = getSingletonLock(beanName);
+        synchronized (lock) {
+            singletonObject = getSingleton(beanName);
+            if (singletonObject == null) {
+                singletonObject = singletonFactory.getObject();
+                addSingleton(beanName, singletonObject);
+            }
+        }
+        return singletonObject;
+    }
+
+    /**
+     * 获取异步初始化的单例Bean，不存在时持有该Bean的创建锁并通过singletonFactory开始创建，不等待初始化完成
+     * @param beanName bean名称
+     * @param singletonFactory 开始创建Bean并返回初始化结果的工厂
+     * @return 初始化完成时完成的Future
+     */
+    public CompletableFuture<Object> getSingletonAsync(String beanName, ObjectFactory<CompletableFuture<Object>> singletonFactory) {
+        Object singletonObject = singletonObjects.get(beanName);
+        if (singletonObject != null) {
+            return CompletableFuture.completedFuture(singletonObject);
+        }
+        Object lock = getSingletonLock(beanName);
+        synchronized (lock) {
+            singletonObject = singletonObjects.get(beanName);
+            if (singletonObject != null) {
+                return CompletableFuture.completedFuture(singletonObject);
+            }
+            CompletableFuture<Object> pendingSingleton = pendingSingletons.get(beanName);
+            if (pendingSingleton != null) {
+                return pendingSingleton;
+            }
+            CompletableFuture<Object> future = singletonFactory.getObject();
+            pendingSingletons.put(beanName, future);
+            // 初始化失败时移除，之后获取该Bean会重新创建
+            return future.whenComplete((bean, ex) -> {
+                if (ex == null) {
+                    addSingleton(beanName, bean);
+                }
+                pendingSingletons.remove(beanName);
+            });
+        }
+    }
+
+    /**
+     * 等待异步初始化的单例Bean初始化完成
+     * @param beanName bean名称
+     * @param future 初始化结果
+     * @return 单例bean实例
+     * @throws BeansException 初始化失败，或者等待会形成环（例如Bean的初始化方法获取它自身）时抛出
+     */
+    protected Object awaitSingleton(String beanName, CompletableFuture<?> future) throws BeansException {
+        if (future.isDone()) {
+            return joinSingleton(beanName, future);
+        }
+        Thread currentThread = Thread.currentThread();
+        synchronized (asyncInitializationLock) {
+            if (isWaitingForItself(beanName, currentThread)) {
+                throw new BeansException("Requested bean [" + beanName + "] is currently in creation: Is there an unresolvable circular reference?");
+            }
+            awaitedSingletons.put(currentThread, beanName);
+        }
+        try {
+            return joinSingleton(beanName, future);
+        } finally {
+            synchronized (asyncInitializationLock) {
+                awaitedSingletons.remove(currentThread);
+            }
+        }
+    }
+
+    private Object joinSingleton(String beanName, CompletableFuture<?> future) throws BeansException {
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof BeansException) {
+                throw (BeansException) cause;
+            }
+            throw new BeansException("Async initialization of bean [" + beanName + "] failed", cause);
+        }
+    }
+
+    /**
+     * 沿着"Bean由哪个线程初始化、该线程又在等待哪个Bean"查找，回到当前线程说明等待永远不会结束
+     */
+    private boolean isWaitingForItself(String beanName, Thread currentThread) {
+        Set<Thread> visited = new HashSet<>();
+        String awaitedBeanName = beanName;
+        while (awaitedBeanName != null) {
+            Thread initializingThread = initializingThreads.get(awaitedBeanName);
+            if (initializingThread == null || !visited.add(initializingThread)) {
+                return false;
+            }
+            if (initializingThread == currentThread) {
+                return true;
+            }
+            awaitedBeanName = awaitedSingletons.get(initializingThread);
+        }
+        return false;
+    }
+
+    /**
+     * 在当前线程上执行Bean的异步初始化，执行期间记录初始化线程，用于发现等待中的循环
+     * @param beanName bean名称
+     * @param initializer 初始化过程
+     * @return 初始化结果
+     */
+    protected <T> T initializeAsyncSingleton(String beanName, Supplier<T> initializer) {
+        synchronized (asyncInitializationLock) {
+            initializingThreads.put(beanName, Thread.currentThread());
+        }
+        try {
+            return initializer.get();
+        } finally {
+            synchronized (asyncInitializationLock) {
+                initializingThreads.remove(beanName);
+            }
+        }
+    }
+
+    private Object getSingletonLock(String beanName) {
+        Object lock = singletonLocks.computeIfAbsent(beanName, name -> new Object());
+        // 当前线程已经在创建该Bean，说明出现了循环依赖
+        if (Thread.holdsLock(lock)) {
+            throw new BeansException("Requested bean [" + beanName + "] is currently in creation: Is there an unresolvable circular reference?");
+        }
+        return lock;
     }
 
     public void addSingleton(String beanName, Object bean) {
@@ -28,18 +239,203 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
     }
 
     public void registerDisposableBean(String beanName, DisposableBean bean) {
-        disposableBeans.put(beanName, bean);
+        synchronized (disposableBeans) {
+            disposableBeans.put(beanName, bean);
+        }
     }
 
+    /**
+     * 注册依赖关系，销毁时依赖方会先于被依赖的Bean销毁
+     * @param beanName 被依赖的bean名称
+     * @param dependentBeanName 依赖它的bean名称
+     */
+    public void registerDependentBean(String beanName, String dependentBeanName) {
+        Set<String> dependentBeans = dependentBeanMap.get(beanName);
+        if (dependentBeans == null) {
+            dependentBeans = dependentBeanMap.computeIfAbsent(beanName, name -> ConcurrentHashMap.newKeySet());
+        }
+        dependentBeans.add(dependentBeanName);
+    }
+
+    /**
+     * 获取直接依赖该Bean的bean名称
+     * @param beanName bean名称
+     * @return
+     */
+    public String[] getDependentBeans(String beanName) {
+        Set<String> dependentBeans = dependentBeanMap.get(beanName);
+        return dependentBeans == null ? new String[0] : dependentBeans.toArray(new String[0]);
+    }
+
+    /**
+     * 按依赖关系的逆序销毁单例Bean：依赖方销毁之后才销毁被依赖的Bean，互不依赖的Bean并行销毁。
+     * 每个Bean的销毁方法有各自的超时时间，所有Bean的销毁共享一个总的时间预算，
+     * 失败或超时不会中断其他Bean的销毁，最后汇总抛出，第一个失败之外的失败作为suppressed异常附加在上面
+     */
     public void destroySingletons() {
-        Set<String> beanNames = disposableBeans.keySet();
-        for (String beanName : beanNames) {
-            DisposableBean disposableBean = disposableBeans.remove(beanName);
+        Map<String, DisposableBean> beansToDestroy;
+        synchronized (disposableBeans) {
+            beansToDestroy = new LinkedHashMap<>(disposableBeans);
+            disposableBeans.clear();
+        }
+        if (beansToDestroy.isEmpty()) {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(destroyParallelism, beansToDestroy.size()), daemonThreadFactory("bean-destroy-"));
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("bean-destroy-timer-"));
+        Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        try {
+            for (String beanName : beansToDestroy.keySet()) {
+                scheduleDestruction(beanName, beansToDestroy, futures, new HashSet<>(), executor, timer);
+            }
+            try {
+                CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).get(shutdownTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // 超出总时间预算，尚未完成的Bean全部记为超时
+                futures.forEach((beanName, future) -> future.completeExceptionally(
+                        new BeansException("Destruction of bean with name '" + beanName + "' did not finish within the shutdown timeout of " + shutdownTimeoutMillis + "ms")));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // 每个Bean的失败在下面分别收集
+            }
+        } finally {
+            executor.shutdownNow();
+            timer.shutdownNow();
+        }
+        BeansException failure = null;
+        for (CompletableFuture<Void> future : futures.values()) {
+            try {
+                future.getNow(null);
+            } catch (CompletionException e) {
+                BeansException cause = (BeansException) e.getCause();
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * 安排Bean的销毁，在所有依赖它的Bean销毁结束（成功、失败或超时）之后开始
+     */
+    private CompletableFuture<Void> scheduleDestruction(String beanName, Map<String, DisposableBean> beansToDestroy,
+                                                        Map<String, CompletableFuture<Void>> futures, Set<String> visiting,
+                                                        ExecutorService executor, ScheduledExecutorService timer) {
+        CompletableFuture<Void> future = futures.get(beanName);
+        if (future != null) {
+            return future;
+        }
+        // 依赖关系中存在环时不再等待环上的Bean
+        if (!visiting.add(beanName)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<CompletableFuture<Void>> dependentFutures = new ArrayList<>();
+        for (String dependentBeanName : getDisposableDependents(beanName, beansToDestroy)) {
+            dependentFutures.add(scheduleDestruction(dependentBeanName, beansToDestroy, futures, visiting, executor, timer));
+        }
+        visiting.remove(beanName);
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        DisposableBean disposableBean = beansToDestroy.get(beanName);
+        CompletableFuture.allOf(dependentFutures.toArray(new CompletableFuture<?>[0])).whenComplete((v, ex) -> {
             try {
-                disposableBean.destroy();
-            } catch (Exception e) {
-                throw new BeansException("Destroy method on bean with name '" + beanName + "' throw an exception", e);
+                executor.execute(() -> destroyWithTimeout(beanName, disposableBean, result, timer));
+            } catch (RejectedExecutionException e) {
+                // 已超出总时间预算，线程池已关闭
+                result.completeExceptionally(new BeansException("Destruction of bean with name '" + beanName + "' was skipped after the shutdown timeout", e));
             }
+        });
+        futures.put(beanName, result);
+        return result;
+    }
+
+    /**
+     * 在销毁线程上执行Bean的销毁方法，超时从销毁方法开始执行时计算，在线程池中排队的时间不计入超时。
+     * 超时后中断销毁线程，中断标志在销毁结束后清除，不会影响同一线程上之后的销毁
+     */
+    private void destroyWithTimeout(String beanName, DisposableBean disposableBean, CompletableFuture<Void> result,
+                                    ScheduledExecutorService timer) {
+        Thread worker = Thread.currentThread();
+        ScheduledFuture<?> timeout = null;
+        try {
+            timeout = timer.schedule(() -> {
+                synchronized (result) {
+                    if (result.completeExceptionally(new BeansException("Destroy method on bean with name '" + beanName + "' timed out after " + destroyTimeoutMillis + "ms"))) {
+                        worker.interrupt();
+                    }
+                }
+            }, destroyTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 计时线程已关闭，由总时间预算兜底
         }
+        try {
+            disposableBean.destroy();
+            result.complete(null);
+        } catch (Throwable e) {
+            result.completeExceptionally(new BeansException("Destroy method on bean with name '" + beanName + "' throw an exception", e));
+        } finally {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            // 计时任务只会在result未完成时中断，持有同一把锁清除中断标志后不会再收到超时中断
+            synchronized (result) {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * 获取依赖该Bean并且需要销毁的Bean，依赖方本身没有销毁方法时继续查找依赖它的Bean
+     */
+    private Set<String> getDisposableDependents(String beanName, Map<String, DisposableBean> beansToDestroy) {
+        Set<String> result = new LinkedHashSet<>();
+        Set<String> visited = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>(Arrays.asList(getDependentBeans(beanName)));
+        while (!queue.isEmpty()) {
+            String dependentBeanName = queue.poll();
+            if (dependentBeanName.equals(beanName) || !visited.add(dependentBeanName)) {
+                continue;
+            }
+            if (beansToDestroy.containsKey(dependentBeanName)) {
+                result.add(dependentBeanName);
+            } else {
+                queue.addAll(Arrays.asList(getDependentBeans(dependentBeanName)));
+            }
+        }
+        return result;
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public void setDestroyParallelism(int destroyParallelism) {
+        this.destroyParallelism = Math.max(1, destroyParallelism);
+    }
+
+    /**
+     * 设置单个Bean的销毁方法的超时时间，超时后中断该销毁方法并继续销毁它依赖的Bean
+     * @param destroyTimeoutMillis
+     */
+    public void setDestroyTimeoutMillis(long destroyTimeoutMillis) {
+        this.destroyTimeoutMillis = destroyTimeoutMillis;
+    }
+
+    /**
+     * 设置销毁所有单例Bean的总时间预算，超出后不再等待尚未完成的销毁方法
+     * @param shutdownTimeoutMillis
+     */
+    public void setShutdownTimeoutMillis(long shutdownTimeoutMillis) {
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
     }
 }
@@ -1,12 +1,9 @@
 package com.plms.springframework.bean.factory.support;
 
-import cn.hutool.core.util.StrUtil;
-import com.plms.springframework.bean.BeansException;
 import com.plms.springframework.bean.factory.DisposableBean;
 import com.plms.springframework.bean.factory.config.BeanDefinition;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
 
 /**
  * @Author bigboss
@@ -18,12 +15,18 @@ public class DisposableBeanAdapter implements DisposableBean {
 
     private final String beanName;
 
-    private String destroyMethodName;
+    private final String destroyMethodName;
 
-    public DisposableBeanAdapter(Object bean, String beanName, BeanDefinition beanDefinition) {
+    /**
+     * 已解析的销毁方法，类型为(Object)void
+     */
+    private final MethodHandle destroyMethod;
+
+    public DisposableBeanAdapter(Object bean, String beanName, BeanDefinition beanDefinition, MethodHandle destroyMethod) {
         this.bean = bean;
         this.beanName = beanName;
         this.destroyMethodName = beanDefinition.getDestroyMethodName();
+        this.destroyMethod = destroyMethod;
     }
 
     @Override
@@ -31,12 +34,8 @@ public class DisposableBeanAdapter implements DisposableBean {
         if (bean instanceof DisposableBean) {
             ((DisposableBean) bean).destroy();
         }
-        if (StrUtil.isNotEmpty(destroyMethodName) && !(bean instanceof DisposableBean && "destroy".equals(this.destroyMethodName))) {
-            Method method = bean.getClass().getMethod(destroyMethodName);
-            if (null == method) {
-                throw new BeansException("Couldn't find a destroy method named '" + destroyMethodName + "' on bean with name '" + beanName + "'");
-            }
-            method.invoke(bean);
+        if (destroyMethod != null && !(bean instanceof DisposableBean && "destroy".equals(this.destroyMethodName))) {
+            LifecycleMethodResolver.invoke(destroyMethod, bean);
         }
     }
 }
@@ -0,0 +1,25 @@
+package com.plms.springframework.bean.factory.support;
+
+/**
+ * 为某个Bean类型在运行时生成的访问器，直接调用构造函数和setter（或直接写字段），不经过反射
+ * @Author bigboss
+ * @Date 2021/11/17 20:10
+ */
+public interface GeneratedBeanAccessor {
+
+    /**
+     * 调用指定下标的构造函数创建实例
+     * @param constructorIndex 构造函数下标
+     * @param args 构造函数参数
+     * @return bean实例
+     */
+    Object newInstance(int constructorIndex, Object[] args);
+
+    /**
+     * 为指定下标的属性赋值
+     * @param bean bean实例
+     * @param propertyIndex 属性下标
+     * @param value 属性值，已经转换为属性的类型
+     */
+    void setProperty(Object bean, int propertyIndex, Object value);
+}
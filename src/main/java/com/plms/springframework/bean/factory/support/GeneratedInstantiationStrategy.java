@@ -0,0 +1,68 @@
+package com.plms.springframework.bean.factory.support;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * 通过ASM为每个Bean类型生成的访问器实例化Bean，直接调用构造函数，开销接近手写的new。
+ * 配合{@link #getPropertyInjectorResolver()}返回的属性注入器解析器，属性也会通过生成的代码直接调用setter或写字段。
+ * 无法生成访问器的Bean（非public的类或构造函数）回退到反射实例化
+ * @Author bigboss
+ * @Date 2021/11/17 21:02
+ */
+public class GeneratedInstantiationStrategy extends SimpleInstantiationStrategy {
+
+    private static final Class<?>[] NO_PARAMETERS = new Class<?>[0];
+
+    private final PropertyInjectorResolver propertyInjectorResolver = new GeneratedPropertyInjectorResolver();
+
+    @Override
+    public Object instantiate(BeanDefinition beanDefinition, String beanName, Constructor constructor, Object[] args) {
+        BeanAccessorGenerator.Accessor accessor = BeanAccessorGenerator.getAccessor(beanDefinition.getBeanClass());
+        int constructorIndex = accessor == null ? -1 : accessor.getConstructorIndex(constructor != null ? constructor.getParameterTypes() : NO_PARAMETERS);
+        if (constructorIndex < 0) {
+            return super.instantiate(beanDefinition, beanName, constructor, args);
+        }
+        try {
+            return accessor.getAccessor().newInstance(constructorIndex, constructor != null ? args : null);
+        } catch (RuntimeException e) {
+            throw new BeansException("Failed to instantiate [" + beanName + "]", e);
+        }
+    }
+
+    /**
+     * 获取通过生成的访问器注入属性的解析器，可以设置到Bean工厂中
+     * @return 属性注入器解析器
+     */
+    public PropertyInjectorResolver getPropertyInjectorResolver() {
+        return propertyInjectorResolver;
+    }
+
+    private static class GeneratedPropertyInjectorResolver extends PropertyInjectorResolver {
+
+        @Override
+        protected PropertyInjector createPropertyInjector(Class<?> beanClass, String propertyName) {
+            BeanAccessorGenerator.Accessor accessor = BeanAccessorGenerator.getAccessor(beanClass);
+            int propertyIndex = accessor == null ? -1 : accessor.getPropertyIndex(propertyName);
+            if (propertyIndex < 0) {
+                // 私有字段等生成的代码无法访问的属性，回退到MethodHandle
+                return super.createPropertyInjector(beanClass, propertyName);
+            }
+            GeneratedBeanAccessor generatedAccessor = accessor.getAccessor();
+            Class<?> propertyType = accessor.getPropertyType(propertyName);
+            return new PropertyInjector() {
+                @Override
+                public Class<?> getPropertyType() {
+                    return propertyType;
+                }
+
+                @Override
+                public void inject(Object bean, Object value) {
+                    generatedAccessor.setProperty(bean, propertyIndex, value);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.plms.springframework.bean.factory.support;
+
+import cn.hutool.core.util.StrUtil;
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * 解析Bean的初始化方法和销毁方法，解析结果以MethodHandle的形式缓存在BeanDefinition中
+ * @Author bigboss
+ * @Date 2021/11/15 20:12
+ */
+public class LifecycleMethodResolver {
+
+    private static final MethodType INVOKE_TYPE = MethodType.methodType(void.class, Object.class);
+
+    /**
+     * 解析初始化方法
+     * @param beanName bean名称
+     * @param beanDefinition bean定义
+     * @return 类型为(Object)void的MethodHandle，没有配置初始化方法时返回null
+     * @throws BeansException 找不到初始化方法时抛出
+     */
+    public MethodHandle resolveInitMethod(String beanName, BeanDefinition beanDefinition) throws BeansException {
+        String initMethodName = beanDefinition.getInitMethodName();
+        if (StrUtil.isEmpty(initMethodName)) {
+            return null;
+        }
+        MethodHandle initMethod = beanDefinition.getResolvedInitMethod();
+        if (initMethod == null) {
+            initMethod = resolve(beanDefinition.getBeanClass(), initMethodName, "an init", beanName);
+            beanDefinition.setResolvedInitMethod(initMethod);
+        }
+        return initMethod;
+    }
+
+    /**
+     * 解析销毁方法
+     * @param beanName bean名称
+     * @param beanDefinition bean定义
+     * @return 类型为(Object)void的MethodHandle，没有配置销毁方法时返回null
+     * @throws BeansException 找不到销毁方法时抛出
+     */
+    public MethodHandle resolveDestroyMethod(String beanName, BeanDefinition beanDefinition) throws BeansException {
+        String destroyMethodName = beanDefinition.getDestroyMethodName();
+        if (StrUtil.isEmpty(destroyMethodName)) {
+            return null;
+        }
+        MethodHandle destroyMethod = beanDefinition.getResolvedDestroyMethod();
+        if (destroyMethod == null) {
+            destroyMethod = resolve(beanDefinition.getBeanClass(), destroyMethodName, "a destroy", beanName);
+            beanDefinition.setResolvedDestroyMethod(destroyMethod);
+        }
+        return destroyMethod;
+    }
+
+    private MethodHandle resolve(Class<?> beanClass, String methodName, String kind, String beanName) {
+        try {
+            Method method = beanClass.getMethod(methodName);
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method).asType(INVOKE_TYPE);
+        } catch (NoSuchMethodException e) {
+            throw new BeansException("Could not find " + kind + " method named '" + methodName + "' on bean with name '" + beanName + "'");
+        } catch (IllegalAccessException e) {
+            throw new BeansException("Could not access " + kind + " method named '" + methodName + "' on bean with name '" + beanName + "'", e);
+        }
+    }
+
+    /**
+     * 调用解析出的生命周期方法
+     * @param method 类型为(Object)void的MethodHandle
+     * @param bean bean实例
+     * @throws Exception
+     */
+    public static void invoke(MethodHandle method, Object bean) throws Exception {
+        try {
+            method.invokeExact(bean);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new BeansException("Invocation of lifecycle method failed", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.plms.springframework.bean.factory.support;
+
+/**
+ * 向Bean的某个属性注入值
+ * @Author bigboss
+ * @Date 2021/11/14 14:30
+ */
+public interface PropertyInjector {
+
+    /**
+     * 获取属性的类型
+     * @return 属性类型
+     */
+    Class<?> getPropertyType();
+
+    /**
+     * 注入属性值
+     * @param bean bean实例
+     * @param value 已经转换为属性类型的值
+     * @throws Throwable
+     */
+    void inject(Object bean, Object value) throws Throwable;
+}
@@ -0,0 +1,118 @@
+package com.plms.springframework.bean.factory.support;
+
+import cn.hutool.core.util.StrUtil;
+import com.plms.springframework.bean.BeansException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 解析并缓存每个类的属性注入器，注入器基于MethodHandle，优先直接写字段，没有可写字段时调用setter方法。
+ * 同一个类的同一个属性只会被反射解析一次
+ * @Author bigboss
+ * @Date 2021/11/14 14:36
+ */
+public class PropertyInjectorResolver {
+
+    private static final MethodType INJECT_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Map<Class<?>, Map<String, PropertyInjector>> injectorCache = new ConcurrentHashMap<>(256);
+
+    /**
+     * 获取属性注入器
+     * @param beanClass bean类型
+     * @param propertyName 属性名称
+     * @return 属性注入器
+     * @throws BeansException 类中没有可写的该属性时抛出
+     */
+    public PropertyInjector getPropertyInjector(Class<?> beanClass, String propertyName) throws BeansException {
+        Map<String, PropertyInjector> injectors = injectorCache.computeIfAbsent(beanClass, key -> new ConcurrentHashMap<>());
+        PropertyInjector injector = injectors.get(propertyName);
+        if (injector == null) {
+            injector = createPropertyInjector(beanClass, propertyName);
+            injectors.put(propertyName, injector);
+        }
+        return injector;
+    }
+
+    protected PropertyInjector createPropertyInjector(Class<?> beanClass, String propertyName) {
+        Field field = findField(beanClass, propertyName);
+        // 与原先的BeanUtil.setFieldValue一致，优先直接写字段，字段不可写时才调用setter
+        if (field != null && !Modifier.isFinal(field.getModifiers())) {
+            try {
+                field.setAccessible(true);
+                return new MethodHandlePropertyInjector(field.getType(), MethodHandles.lookup().unreflectSetter(field));
+            } catch (IllegalAccessException | RuntimeException e) {
+                // 字段无法访问时尝试setter
+            }
+        }
+        Method setter = findSetter(beanClass, propertyName, field != null ? field.getType() : null);
+        if (setter != null) {
+            try {
+                setter.setAccessible(true);
+                return new MethodHandlePropertyInjector(setter.getParameterTypes()[0], MethodHandles.lookup().unreflect(setter));
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw new BeansException("Could not access property '" + propertyName + "' of class [" + beanClass.getName() + "]", e);
+            }
+        }
+        throw new BeansException("No writable property '" + propertyName + "' found on class [" + beanClass.getName() + "]");
+    }
+
+    private Method findSetter(Class<?> beanClass, String propertyName, Class<?> fieldType) {
+        String setterName = "set" + StrUtil.upperFirst(propertyName);
+        Method candidate = null;
+        for (Method method : beanClass.getMethods()) {
+            if (!method.getName().equals(setterName) || method.getParameterCount() != 1 || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            // 有多个重载的setter时优先选择参数类型与字段类型一致的
+            if (method.getParameterTypes()[0] == fieldType) {
+                return method;
+            }
+            if (candidate == null) {
+                candidate = method;
+            }
+        }
+        return candidate;
+    }
+
+    private Field findField(Class<?> beanClass, String propertyName) {
+        for (Class<?> type = beanClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.getName().equals(propertyName) && !Modifier.isStatic(field.getModifiers())) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static class MethodHandlePropertyInjector implements PropertyInjector {
+
+        private final Class<?> propertyType;
+
+        private final MethodHandle methodHandle;
+
+        MethodHandlePropertyInjector(Class<?> propertyType, MethodHandle methodHandle) {
+            this.propertyType = propertyType;
+            // 统一适配为(Object, Object)void，调用时可以使用invokeExact
+            this.methodHandle = methodHandle.asType(INJECT_TYPE);
+        }
+
+        @Override
+        public Class<?> getPropertyType() {
+            return propertyType;
+        }
+
+        @Override
+        public void inject(Object bean, Object value) throws Throwable {
+            methodHandle.invokeExact(bean, value);
+        }
+    }
+}
@@ -16,12 +16,14 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy {
         Class<?> beanClass = beanDefinition.getBeanClass();
         try {
             if (constructor != null) {
-                return beanClass.getDeclaredConstructor(constructor.getParameterTypes()).newInstance(args);
+                if (!constructor.isAccessible()) {
+                    constructor.setAccessible(true);
+                }
+                return constructor.newInstance(args);
             }
             return beanClass.newInstance();
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-            e.printStackTrace();
-            throw new BeansException("Failed to instantiate [" + beanName + "]");
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new BeansException("Failed to instantiate [" + beanName + "]", e);
         }
     }
 }
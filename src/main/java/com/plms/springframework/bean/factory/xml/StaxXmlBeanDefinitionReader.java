@@ -0,0 +1,122 @@
+package com.plms.springframework.bean.factory.xml;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.PropertyValues;
+import com.plms.springframework.bean.factory.support.AbstractBeanDefinitionReader;
+import com.plms.springframework.bean.factory.support.BeanDefinitionRegistry;
+import com.plms.springframework.core.io.ResourceLoader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 基于StAX流式解析XML的BeanDefinitionReader，不构建DOM，每个bean标签结束时立即注册BeanDefinition，
+ * 解析时占用的内存只与单个bean标签的大小有关，与配置文件大小无关。支持的标签和属性与XmlBeanDefinitionReader相同
+ * @Author bigboss
+ * @Date 2021/11/27 19:20
+ */
+public class StaxXmlBeanDefinitionReader extends XmlBeanDefinitionReader {
+
+    private XMLInputFactory inputFactory;
+
+    public StaxXmlBeanDefinitionReader(BeanDefinitionRegistry registry) {
+        super(registry);
+    }
+
+    public StaxXmlBeanDefinitionReader(BeanDefinitionRegistry registry, ResourceLoader resourceLoader) {
+        super(registry, resourceLoader);
+    }
+
+    /**
+     * 与XmlBeanDefinitionReader相同，子类没有重写该方法时按顺序加载
+     */
+    @Override
+    protected AbstractBeanDefinitionReader createDelegateReader(BeanDefinitionRegistry registry) {
+        if (getClass() != StaxXmlBeanDefinitionReader.class) {
+            return null;
+        }
+        return new StaxXmlBeanDefinitionReader(registry, getResourceLoader());
+    }
+
+    @Override
+    protected void doLoadBeanDefinitions(InputStream inputStream) {
+        XMLStreamReader reader = null;
+        try {
+            reader = getInputFactory().createXMLStreamReader(inputStream);
+            boolean defaultLazyInit = false;
+            // 当前元素的层级，根元素为1，bean标签为2，property标签为3
+            int depth = 0;
+            Map<String, String> beanAttributes = null;
+            PropertyValues propertyValues = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String elementName = reader.getLocalName();
+                    if (depth == 1) {
+                        defaultLazyInit = Boolean.parseBoolean(reader.getAttributeValue(null, "default-lazy-init"));
+                    } else if (depth == 2 && BEAN_ELEMENT.equals(elementName)) {
+                        beanAttributes = readAttributes(reader);
+                        propertyValues = new PropertyValues();
+                    } else if (depth == 3 && beanAttributes != null && PROPERTY_ELEMENT.equals(elementName)) {
+                        propertyValues.addPropertyValue(createPropertyValue(attribute(reader, "name"),
+                                attribute(reader, "value"), attribute(reader, "ref")));
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (depth == 2 && beanAttributes != null) {
+                        Map<String, String> attributes = beanAttributes;
+                        registerBeanDefinition(name -> attributes.getOrDefault(name, ""), propertyValues, defaultLazyInit);
+                        beanAttributes = null;
+                        propertyValues = null;
+                    }
+                    depth--;
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new BeansException("XMLStreamException parsing XML document", e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                }
+            }
+        }
+    }
+
+    private static Map<String, String> readAttributes(XMLStreamReader reader) {
+        int count = reader.getAttributeCount();
+        Map<String, String> attributes = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+        }
+        return attributes;
+    }
+
+    /**
+     * 与DOM的getAttribute一致，没有该属性时返回空字符串
+     */
+    private static String attribute(XMLStreamReader reader, String name) {
+        String value = reader.getAttributeValue(null, name);
+        return value != null ? value : "";
+    }
+
+    /**
+     * XMLInputFactory的查找和创建开销较大，每个Reader只创建一次。不支持DTD和外部实体
+     */
+    private XMLInputFactory getInputFactory() {
+        if (inputFactory == null) {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+            inputFactory = factory;
+        }
+        return inputFactory;
+    }
+}
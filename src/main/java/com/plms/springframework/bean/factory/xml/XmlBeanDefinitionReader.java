@@ -4,12 +4,14 @@ import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.XmlUtil;
 import com.plms.springframework.bean.BeansException;
 import com.plms.springframework.bean.PropertyValue;
+import com.plms.springframework.bean.PropertyValues;
 import com.plms.springframework.bean.factory.config.BeanDefinition;
 import com.plms.springframework.bean.factory.config.BeanReference;
 import com.plms.springframework.bean.factory.support.AbstractBeanDefinitionReader;
 import com.plms.springframework.bean.factory.support.BeanDefinitionRegistry;
 import com.plms.springframework.core.io.Resource;
 import com.plms.springframework.core.io.ResourceLoader;
+import com.plms.springframework.core.metrics.StartupStep;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -17,6 +19,7 @@ import org.w3c.dom.NodeList;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.function.UnaryOperator;
 
 /**
  * @Author bigboss
@@ -24,6 +27,9 @@ import java.io.InputStream;
  */
 public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
 
+    protected static final String BEAN_ELEMENT = "bean";
+
+    protected static final String PROPERTY_ELEMENT = "property";
 
     public XmlBeanDefinitionReader(BeanDefinitionRegistry registry) {
         super(registry);
@@ -33,12 +39,27 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
         super(registry, resourceLoader);
     }
 
+    /**
+     * 只为XmlBeanDefinitionReader本身创建并行加载的reader。子类可能重写了解析或注册方法，
+     * 没有重写该方法创建自身类型的reader时按顺序加载，子类重写的方法不会丢失
+     */
+    @Override
+    protected AbstractBeanDefinitionReader createDelegateReader(BeanDefinitionRegistry registry) {
+        if (getClass() != XmlBeanDefinitionReader.class) {
+            return null;
+        }
+        return new XmlBeanDefinitionReader(registry, getResourceLoader());
+    }
+
     @Override
     public void loadBeanDefinitions(Resource resource) throws BeansException {
+        StartupStep step = getApplicationStartup().start("plms.xml.parse").tag("resource", resource::toString);
         try(InputStream inputStream = resource.getInputStream()) {
             doLoadBeanDefinitions(inputStream);
         } catch (IOException e) {
             throw new BeansException("IOException parsing XML document from " + resource, e);
+        } finally {
+            step.end();
         }
     }
 
@@ -51,62 +72,98 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
     protected void doLoadBeanDefinitions(InputStream inputStream) {
         Document document = XmlUtil.readXML(inputStream);
         Element root = document.getDocumentElement();
+        boolean defaultLazyInit = Boolean.parseBoolean(root.getAttribute("default-lazy-init"));
         NodeList childNodes = root.getChildNodes();
         for (int i = 0; i < childNodes.getLength(); i++) {
-            if (!(childNodes.item(i) instanceof Element)) {
-                continue;
-            }
-            if (!"bean".equals(childNodes.item(i).getNodeName())) {
+            Node node = childNodes.item(i);
+            if (!(node instanceof Element) || !BEAN_ELEMENT.equals(node.getNodeName())) {
                 continue;
             }
-            Element bean = (Element) childNodes.item(i);
-            String id = bean.getAttribute("id");
-            String name = bean.getAttribute("name");
-            String beanClassName = bean.getAttribute("class");
-            String initMethodName = bean.getAttribute("init-method");
-            String destroyMethodName = bean.getAttribute("destroy-method");
-            String beanScope = bean.getAttribute("scope");
-            Class<?> beanClass = null;
-            try {
-                beanClass = Class.forName(beanClassName);
-            } catch (ClassNotFoundException e) {
-                throw new BeansException("can not find class named [" + beanClassName + "]");
-            }
-            String beanName = StrUtil.isNotEmpty(id) ? id : name;
-            if (StrUtil.isEmpty(beanName)) {
-                beanName = StrUtil.lowerFirst(beanClass.getSimpleName());
-            }
-            BeanDefinition beanDefinition = new BeanDefinition(beanClass);
-            beanDefinition.setInitMethodName(initMethodName);
-            beanDefinition.setDestroyMethodName(destroyMethodName);
-            if (StrUtil.isNotEmpty(beanScope)) {
-                beanDefinition.setScope(beanScope);
-            }
-            for (int j = 0; j < bean.getChildNodes().getLength(); j++) {
-                if (!(childNodes.item(i) instanceof Element)) {
+            Element bean = (Element) node;
+            PropertyValues propertyValues = new PropertyValues();
+            NodeList propertyNodes = bean.getChildNodes();
+            for (int j = 0; j < propertyNodes.getLength(); j++) {
+                Node propertyNode = propertyNodes.item(j);
+                if (!(propertyNode instanceof Element) || !PROPERTY_ELEMENT.equals(propertyNode.getNodeName())) {
                     continue;
                 }
-                if (!"property".equals(bean.getChildNodes().item(j).getNodeName())) {
-                    continue;
-                }
-                Element property = (Element) bean.getChildNodes().item(j);
-                String attrName = property.getAttribute("name");
-                String attrValue = property.getAttribute("value");
-                String attrRef = property.getAttribute("ref");
-                if (StrUtil.isEmpty(attrName)) {
-                    throw new BeansException("the name of bean can not be empty!");
-                }
-                Object value = attrValue;
-                if (StrUtil.isNotEmpty(attrRef)) {
-                    value = new BeanReference(attrRef);
-                }
-                PropertyValue propertyValue = new PropertyValue(attrName, value);
-                beanDefinition.getPropertyValues().addPropertyValue(propertyValue);
+                Element property = (Element) propertyNode;
+                propertyValues.addPropertyValue(createPropertyValue(property.getAttribute("name"),
+                        property.getAttribute("value"), property.getAttribute("ref")));
             }
-            if (getRegistry().containsBeanDefinition(beanName)) {
-                throw new BeansException("BeanName [" + beanName +"] is duplicate");
-            }
-            getRegistry().registerBeanDefinition(beanName, beanDefinition);
+            registerBeanDefinition(bean::getAttribute, propertyValues, defaultLazyInit);
+        }
+    }
+
+    /**
+     * 根据property标签的属性创建属性值
+     * @param name name属性
+     * @param value value属性
+     * @param ref ref属性，不为空时属性值为对该Bean的引用
+     * @return
+     */
+    protected PropertyValue createPropertyValue(String name, String value, String ref) {
+        if (StrUtil.isEmpty(name)) {
+            throw new BeansException("the name of bean can not be empty!");
+        }
+        if (StrUtil.isNotEmpty(ref)) {
+            return new PropertyValue(name, new BeanReference(ref));
+        }
+        return new PropertyValue(name, value);
+    }
+
+    /**
+     * 根据bean标签的属性创建BeanDefinition并注册
+     * @param attributes 属性名 -> 属性值，没有该属性时返回空字符串
+     * @param propertyValues bean标签中的属性值
+     * @param defaultLazyInit beans标签上的default-lazy-init
+     * @return bean名称
+     */
+    protected String registerBeanDefinition(UnaryOperator<String> attributes, PropertyValues propertyValues, boolean defaultLazyInit) {
+        String id = attributes.apply("id");
+        String name = attributes.apply("name");
+        String beanClassName = attributes.apply("class");
+        String initMethodName = attributes.apply("init-method");
+        String destroyMethodName = attributes.apply("destroy-method");
+        String beanScope = attributes.apply("scope");
+        String dependsOn = attributes.apply("depends-on");
+        String lazyInit = attributes.apply("lazy-init");
+        String asyncInit = attributes.apply("async-init");
+        String poolMinIdle = attributes.apply("pool-min-idle");
+        String poolMaxIdle = attributes.apply("pool-max-idle");
+        if (StrUtil.isBlank(beanClassName)) {
+            throw new BeansException("can not find class named [" + beanClassName + "]");
+        }
+        String beanName = StrUtil.isNotEmpty(id) ? id : name;
+        if (StrUtil.isEmpty(beanName)) {
+            // 按类的简单名称生成bean名称，不加载类
+            String simpleName = beanClassName.substring(Math.max(beanClassName.lastIndexOf('.'), beanClassName.lastIndexOf('$')) + 1);
+            beanName = StrUtil.lowerFirst(simpleName);
+        }
+        // 只记录类名，类在第一次创建Bean时才加载
+        BeanDefinition beanDefinition = new BeanDefinition(beanClassName, propertyValues);
+        beanDefinition.setInitMethodName(initMethodName);
+        beanDefinition.setDestroyMethodName(destroyMethodName);
+        if (StrUtil.isNotEmpty(beanScope)) {
+            beanDefinition.setScope(beanScope);
+        }
+        // 未声明lazy-init或声明为default时使用beans标签上的default-lazy-init
+        if (StrUtil.isEmpty(lazyInit) || "default".equals(lazyInit)) {
+            beanDefinition.setLazyInit(defaultLazyInit);
+        } else {
+            beanDefinition.setLazyInit(Boolean.parseBoolean(lazyInit));
+        }
+        beanDefinition.setAsyncInit(Boolean.parseBoolean(asyncInit));
+        if (StrUtil.isNotBlank(dependsOn)) {
+            beanDefinition.setDependsOn(StrUtil.splitTrim(dependsOn, ',').toArray(new String[0]));
+        }
+        if (StrUtil.isNotBlank(poolMinIdle)) {
+            beanDefinition.setPoolMinIdle(Integer.parseInt(poolMinIdle.trim()));
+        }
+        if (StrUtil.isNotBlank(poolMaxIdle)) {
+            beanDefinition.setPoolMaxIdle(Integer.parseInt(poolMaxIdle.trim()));
         }
+        registerBeanDefinition(beanName, beanDefinition);
+        return beanName;
     }
 }
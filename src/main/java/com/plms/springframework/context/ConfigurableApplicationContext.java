@@ -1,6 +1,10 @@
 package com.plms.springframework.context;
 
 import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.factory.config.BeanPoolMetrics;
+import com.plms.springframework.bean.factory.config.Scope;
+import com.plms.springframework.core.metrics.ApplicationStartup;
+import com.plms.springframework.core.metrics.ContainerMetrics;
 
 /**
  * @Author bigboss
@@ -8,12 +12,32 @@ import com.plms.springframework.bean.BeansException;
  */
 public interface ConfigurableApplicationContext extends ApplicationContext{
 
+    /**
+     * 容器中该名称的Bean会作为注入属性值时使用的ConversionService
+     */
+    String CONVERSION_SERVICE_BEAN_NAME = "conversionService";
+
     /**
      * 刷新容器
      * @throws BeansException
      */
     void refresh() throws BeansException;
 
+    /**
+     * 设置记录启动各阶段耗时的ApplicationStartup，需要在refresh之前设置。
+     * 使用BufferingApplicationStartup可以在启动后获取每个Bean的实例化、属性注入、初始化方法和各个BeanPostProcessor的耗时
+     * @param applicationStartup
+     */
+    void setApplicationStartup(ApplicationStartup applicationStartup);
+
+    ApplicationStartup getApplicationStartup();
+
+    /**
+     * 获取容器运行时的统计，可以用来发现在循环中调用getBean获取原型Bean的代码
+     * @return
+     */
+    ContainerMetrics getContainerMetrics();
+
     /**
      * 关闭应用上下文
      */
@@ -23,4 +47,27 @@ public interface ConfigurableApplicationContext extends ApplicationContext{
      * 向虚拟机中注册一个钩子方法，在虚拟机关闭之前执行关闭容器等操作
      */
     void registerShutdownHook();
+
+    /**
+     * 将借出的pooled作用域Bean归还到对象池
+     * @param beanName bean名称
+     * @param bean 借出的实例
+     * @throws BeansException
+     */
+    void returnBean(String beanName, Object bean) throws BeansException;
+
+    /**
+     * 获取pooled作用域Bean的对象池统计
+     * @param beanName bean名称
+     * @return
+     * @throws BeansException
+     */
+    BeanPoolMetrics getBeanPoolMetrics(String beanName) throws BeansException;
+
+    /**
+     * 获取注册的自定义作用域，例如通过内置的thread作用域在线程结束使用前销毁该线程的Bean
+     * @param scopeName 作用域名称
+     * @return 没有注册时返回null
+     */
+    Scope getRegisteredScope(String scopeName);
 }
@@ -1,11 +1,19 @@
 package com.plms.springframework.context.support;
 
 import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.factory.BeanHandle;
 import com.plms.springframework.bean.factory.ConfigurableListableBeanFactory;
 import com.plms.springframework.bean.factory.config.BeanFactoryPostProcessor;
+import com.plms.springframework.bean.factory.config.BeanPoolMetrics;
 import com.plms.springframework.bean.factory.config.BeanPostProcessor;
+import com.plms.springframework.bean.factory.config.Scope;
+import com.plms.springframework.bean.factory.support.CglibSubClassingInstantiationStrategy;
 import com.plms.springframework.context.ConfigurableApplicationContext;
+import com.plms.springframework.core.convert.ConversionService;
 import com.plms.springframework.core.io.DefaultResourceLoader;
+import com.plms.springframework.core.metrics.ApplicationStartup;
+import com.plms.springframework.core.metrics.ContainerMetrics;
+import com.plms.springframework.core.metrics.StartupStep;
 
 import java.util.Map;
 
@@ -14,20 +22,64 @@ import java.util.Map;
  * @Date 2021/11/6 13:32
  */
 public abstract class AbstractApplicationContext extends DefaultResourceLoader implements ConfigurableApplicationContext {
+
+    private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
     @Override
     public void refresh() throws BeansException {
-        // 刷新容器，创建 BeanFactory，并加载 BeanDefinition
-        refreshBeanFactory();
-        // 获取 BeanFactory
-        ConfigurableListableBeanFactory beanFactory = getBeanFactory();
-        // 向容器注册ApplicationContextAwareProcessor，让继承自ApplicationContextAware的bean能感知bean
-        beanFactory.addBeanPostProcessor(new ApplicationContextAwareProcessor(this));
-        // 在Bean实例化之前调用所有的 postProcessBeanFactory方法
-        invokeBeanFactoryPostProcessors(beanFactory);
-        // 注册BeanPostProcessor
-        registerBeanPostProcessors(beanFactory);
-        // 提前实例化所有单例Bean
-        beanFactory.preInstantiateSingletons();
+        StartupStep refreshStep = applicationStartup.start("plms.context.refresh");
+        try {
+            // 刷新容器，创建 BeanFactory，并加载 BeanDefinition
+            refreshBeanFactory();
+            // 获取 BeanFactory
+            ConfigurableListableBeanFactory beanFactory = getBeanFactory();
+            // 注册内置的线程作用域
+            beanFactory.registerScope(SimpleThreadScope.SCOPE_THREAD, new SimpleThreadScope());
+            // 向容器注册ApplicationContextAwareProcessor，让继承自ApplicationContextAware的bean能感知bean
+            beanFactory.addBeanPostProcessor(new ApplicationContextAwareProcessor(this));
+            // 使用容器中定义的ConversionService，在创建其他Bean之前设置，BeanFactoryPostProcessor和BeanPostProcessor的属性同样使用它转换
+            if (beanFactory.containsBeanDefinition(CONVERSION_SERVICE_BEAN_NAME)) {
+                beanFactory.setConversionService(beanFactory.getBean(CONVERSION_SERVICE_BEAN_NAME, ConversionService.class));
+            }
+            // 在Bean实例化之前调用所有的 postProcessBeanFactory方法
+            invokeBeanFactoryPostProcessors(beanFactory);
+            // 注册BeanPostProcessor
+            StartupStep step = applicationStartup.start("plms.context.bean-post-processors.register");
+            try {
+                registerBeanPostProcessors(beanFactory);
+            } finally {
+                step.end();
+            }
+            // 冻结BeanDefinition，之后按类型查找的结果会被缓存
+            step = applicationStartup.start("plms.context.configuration.freeze");
+            try {
+                beanFactory.freezeConfiguration();
+            } finally {
+                step.end();
+            }
+            // 提前实例化所有单例Bean
+            step = applicationStartup.start("plms.context.beans.pre-instantiate");
+            try {
+                beanFactory.preInstantiateSingletons();
+            } finally {
+                step.end();
+            }
+        } finally {
+            refreshStep.end();
+        }
+    }
+
+    @Override
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        if (applicationStartup == null) {
+            throw new BeansException("ApplicationStartup must not be null");
+        }
+        this.applicationStartup = applicationStartup;
+    }
+
+    @Override
+    public ApplicationStartup getApplicationStartup() {
+        return applicationStartup;
     }
 
     /**
@@ -47,7 +99,13 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
     protected void invokeBeanFactoryPostProcessors(ConfigurableListableBeanFactory beanFactory) {
         Map<String, BeanFactoryPostProcessor> beanFactoryPostProcessorMap = beanFactory.getBeansOfType(BeanFactoryPostProcessor.class);
         for (BeanFactoryPostProcessor beanFactoryPostProcessor : beanFactoryPostProcessorMap.values()) {
-            beanFactoryPostProcessor.postProcessBeanFactory(beanFactory);
+            StartupStep step = applicationStartup.start("plms.context.bean-factory.post-process")
+                    .tag("postProcessor", CglibSubClassingInstantiationStrategy.getUserClass(beanFactoryPostProcessor.getClass()).getName());
+            try {
+                beanFactoryPostProcessor.postProcessBeanFactory(beanFactory);
+            } finally {
+                step.end();
+            }
         }
     }
 
@@ -63,6 +121,16 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
         return getBeanFactory().getBeansOfType(type);
     }
 
+    @Override
+    public String[] getBeanNamesForType(Class<?> type) {
+        return getBeanFactory().getBeanNamesForType(type);
+    }
+
+    @Override
+    public boolean containsBeanDefinition(String beanName) {
+        return getBeanFactory().containsBeanDefinition(beanName);
+    }
+
     @Override
     public String[] getBeanDefinitionNames() {
         return getBeanFactory().getBeanDefinitionNames();
@@ -78,11 +146,41 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
         return getBeanFactory().getBean(beanName, requiredType);
     }
 
+    @Override
+    public <T> T getBean(Class<T> requiredType) throws BeansException {
+        return getBeanFactory().getBean(requiredType);
+    }
+
+    @Override
+    public <T> BeanHandle<T> getBeanHandle(String beanName, Class<T> requiredType) throws BeansException {
+        return getBeanFactory().getBeanHandle(beanName, requiredType);
+    }
+
     @Override
     public Object getBean(String beanName, Object... args) {
         return getBeanFactory().getBean(beanName, args);
     }
 
+    @Override
+    public void returnBean(String beanName, Object bean) throws BeansException {
+        getBeanFactory().returnBean(beanName, bean);
+    }
+
+    @Override
+    public BeanPoolMetrics getBeanPoolMetrics(String beanName) throws BeansException {
+        return getBeanFactory().getBeanPoolMetrics(beanName);
+    }
+
+    @Override
+    public ContainerMetrics getContainerMetrics() {
+        return getBeanFactory().getContainerMetrics();
+    }
+
+    @Override
+    public Scope getRegisteredScope(String scopeName) {
+        return getBeanFactory().getRegisteredScope(scopeName);
+    }
+
     @Override
     public void close() {
         doClose();
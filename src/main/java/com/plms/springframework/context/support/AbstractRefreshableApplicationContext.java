@@ -3,6 +3,7 @@ package com.plms.springframework.context.support;
 import com.plms.springframework.bean.BeansException;
 import com.plms.springframework.bean.factory.ConfigurableListableBeanFactory;
 import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.core.metrics.StartupStep;
 
 /**
  * @Author bigboss
@@ -12,10 +13,20 @@ public abstract class AbstractRefreshableApplicationContext extends AbstractAppl
 
     private DefaultListableBeanFactory beanFactory;
 
+    private int preInstantiationParallelism = 1;
+
+    private boolean metricsEnabled = true;
+
     @Override
     protected void refreshBeanFactory() throws BeansException {
         DefaultListableBeanFactory beanFactory = createBeanFactory();
-        loadBeanDefinitions(beanFactory);
+        customizeBeanFactory(beanFactory);
+        StartupStep step = getApplicationStartup().start("plms.context.beans.load");
+        try {
+            loadBeanDefinitions(beanFactory);
+        } finally {
+            step.end();
+        }
         this.beanFactory = beanFactory;
     }
 
@@ -23,6 +34,32 @@ public abstract class AbstractRefreshableApplicationContext extends AbstractAppl
         return new DefaultListableBeanFactory();
     }
 
+    /**
+     * 在加载BeanDefinition之前对新建的Bean工厂进行定制，子类可以覆盖该方法
+     * @param beanFactory
+     */
+    protected void customizeBeanFactory(DefaultListableBeanFactory beanFactory) {
+        beanFactory.setPreInstantiationParallelism(preInstantiationParallelism);
+        beanFactory.setApplicationStartup(getApplicationStartup());
+        beanFactory.setMetricsEnabled(metricsEnabled);
+    }
+
+    /**
+     * 设置提前实例化单例Bean的并行度，在下一次refresh时生效
+     * @param preInstantiationParallelism
+     */
+    public void setPreInstantiationParallelism(int preInstantiationParallelism) {
+        this.preInstantiationParallelism = preInstantiationParallelism;
+    }
+
+    /**
+     * 开启或关闭容器运行时统计，默认开启，在下一次refresh时生效
+     * @param metricsEnabled
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
     @Override
     protected ConfigurableListableBeanFactory getBeanFactory() {
         return beanFactory;
@@ -1,20 +1,74 @@
 package com.plms.springframework.context.support;
 
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.factory.snapshot.BeanDefinitionSnapshotWriter;
+import com.plms.springframework.bean.factory.snapshot.SnapshotBeanDefinitionReader;
 import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.bean.factory.xml.StaxXmlBeanDefinitionReader;
 import com.plms.springframework.bean.factory.xml.XmlBeanDefinitionReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * @Author bigboss
  * @Date 2021/11/6 14:39
  */
 public abstract class AbstractXmlApplicationContext extends AbstractRefreshableApplicationContext {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractXmlApplicationContext.class);
+
+    private Path beanDefinitionSnapshot;
+
     @Override
     protected void loadBeanDefinitions(DefaultListableBeanFactory beanFactory) {
-        XmlBeanDefinitionReader xmlBeanDefinitionReader = new XmlBeanDefinitionReader(beanFactory, this);
         String[] configLocations = getConfigLocations();
+        BeanDefinitionSnapshotWriter snapshotWriter = null;
+        long checksum = 0;
+        if (configLocations != null && beanDefinitionSnapshot != null) {
+            // 在解析之前计算校验和，解析期间配置文件被修改时快照会在下次启动时失效
+            snapshotWriter = new BeanDefinitionSnapshotWriter(this);
+            checksum = snapshotWriter.checksum(configLocations);
+            SnapshotBeanDefinitionReader snapshotReader = new SnapshotBeanDefinitionReader(beanFactory, this);
+            snapshotReader.setApplicationStartup(getApplicationStartup());
+            if (snapshotReader.isUpToDate(beanDefinitionSnapshot, checksum)) {
+                snapshotReader.loadBeanDefinitions(beanDefinitionSnapshot);
+                return;
+            }
+        }
+        XmlBeanDefinitionReader xmlBeanDefinitionReader = createBeanDefinitionReader(beanFactory);
+        xmlBeanDefinitionReader.setApplicationStartup(getApplicationStartup());
         if (configLocations != null) {
             xmlBeanDefinitionReader.loadBeanDefinitions(configLocations);
         }
+        if (snapshotWriter != null) {
+            // 快照不存在或配置文件已修改，重新生成快照供下次启动使用。快照只是缓存，写入失败（如只读文件系统）不影响启动
+            try {
+                snapshotWriter.write(beanFactory, checksum, beanDefinitionSnapshot);
+            } catch (BeansException e) {
+                logger.warn("Failed to write bean definition snapshot {}, falling back to XML on next start", beanDefinitionSnapshot, e);
+            }
+        }
+    }
+
+    /**
+     * 设置BeanDefinition快照文件，快照与配置文件一致时直接从快照加载BeanDefinition，不再解析XML，
+     * 否则解析XML并重新生成快照
+     * @param beanDefinitionSnapshot 快照文件路径，为null时不使用快照
+     */
+    public void setBeanDefinitionSnapshot(String beanDefinitionSnapshot) {
+        this.beanDefinitionSnapshot = beanDefinitionSnapshot != null ? Paths.get(beanDefinitionSnapshot) : null;
+    }
+
+    /**
+     * 创建读取配置文件的BeanDefinitionReader，默认使用流式解析的StaxXmlBeanDefinitionReader，子类可以覆盖该方法
+     * @param beanFactory
+     * @return
+     */
+    protected XmlBeanDefinitionReader createBeanDefinitionReader(DefaultListableBeanFactory beanFactory) {
+        return new StaxXmlBeanDefinitionReader(beanFactory, this);
     }
 
     /**
@@ -1,7 +1,7 @@
 package com.plms.springframework.context.support;
 
 import com.plms.springframework.bean.BeansException;
-import com.plms.springframework.bean.factory.config.BeanPostProcessor;
+import com.plms.springframework.bean.factory.config.TargetedBeanPostProcessor;
 import com.plms.springframework.context.ApplicationContext;
 import com.plms.springframework.context.ApplicationContextAware;
 
@@ -9,7 +9,7 @@ import com.plms.springframework.context.ApplicationContextAware;
  * @Author bigboss
  * @Date 2021/11/8 20:51
  */
-public class ApplicationContextAwareProcessor implements BeanPostProcessor {
+public class ApplicationContextAwareProcessor implements TargetedBeanPostProcessor {
 
     private final ApplicationContext applicationContext;
 
@@ -17,6 +17,11 @@ public class ApplicationContextAwareProcessor implements BeanPostProcessor {
         this.applicationContext = applicationContext;
     }
 
+    @Override
+    public boolean supportsBeanType(Class<?> beanType) {
+        return ApplicationContextAware.class.isAssignableFrom(beanType);
+    }
+
     @Override
     public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
         if (bean instanceof ApplicationContextAware) {
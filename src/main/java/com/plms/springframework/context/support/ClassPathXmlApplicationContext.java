@@ -13,8 +13,18 @@ public class ClassPathXmlApplicationContext extends AbstractXmlApplicationContex
     }
 
     public ClassPathXmlApplicationContext(String[] configLocations) {
+        this(configLocations, true);
+    }
+
+    /**
+     * @param configLocations 配置文件地址
+     * @param refresh 是否立即刷新容器，为false时可以先对容器进行配置再手动调用refresh
+     */
+    public ClassPathXmlApplicationContext(String[] configLocations, boolean refresh) {
         this.configLocations = configLocations;
-        refresh();
+        if (refresh) {
+            refresh();
+        }
     }
 
     @Override
@@ -0,0 +1,70 @@
+package com.plms.springframework.context.support;
+
+import com.plms.springframework.bean.factory.ObjectFactory;
+import com.plms.springframework.bean.factory.config.Scope;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 线程作用域，每个线程持有各自的Bean实例，存取都只访问当前线程的ThreadLocal，线程之间没有竞争。
+ * 线程结束使用前应调用destroyCurrentThread执行销毁回调并释放实例，否则它们会一直跟随线程存活
+ * @Author bigboss
+ * @Date 2021/11/17 20:25
+ */
+public class SimpleThreadScope implements Scope {
+
+    public static final String SCOPE_THREAD = "thread";
+
+    private final ThreadLocal<Map<String, Object>> threadScope = ThreadLocal.withInitial(LinkedHashMap::new);
+
+    private final ThreadLocal<Map<String, Runnable>> destructionCallbacks = ThreadLocal.withInitial(LinkedHashMap::new);
+
+    @Override
+    public Object get(String name, ObjectFactory<?> objectFactory) {
+        Map<String, Object> scope = threadScope.get();
+        Object scopedObject = scope.get(name);
+        if (scopedObject == null) {
+            scopedObject = objectFactory.getObject();
+            scope.put(name, scopedObject);
+        }
+        return scopedObject;
+    }
+
+    @Override
+    public Object remove(String name) {
+        destructionCallbacks.get().remove(name);
+        return threadScope.get().remove(name);
+    }
+
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback) {
+        destructionCallbacks.get().put(name, callback);
+    }
+
+    /**
+     * 按创建顺序的逆序执行当前线程中所有Bean的销毁回调，并清空当前线程的作用域
+     */
+    public void destroyCurrentThread() {
+        List<Runnable> callbacks = new ArrayList<>(destructionCallbacks.get().values());
+        destructionCallbacks.remove();
+        threadScope.remove();
+        RuntimeException failure = null;
+        for (int i = callbacks.size() - 1; i >= 0; i--) {
+            try {
+                callbacks.get(i).run();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
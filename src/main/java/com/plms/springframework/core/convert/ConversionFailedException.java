@@ -0,0 +1,19 @@
+package com.plms.springframework.core.convert;
+
+/**
+ * 类型转换失败时抛出
+ * @Author bigboss
+ * @Date 2021/11/20 14:08
+ */
+public class ConversionFailedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ConversionFailedException(String message) {
+        super(message);
+    }
+
+    public ConversionFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
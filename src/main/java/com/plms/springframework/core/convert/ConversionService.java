@@ -0,0 +1,27 @@
+package com.plms.springframework.core.convert;
+
+/**
+ * 类型转换服务，容器在注入属性值时通过它将配置中的值转换为属性的类型
+ * @Author bigboss
+ * @Date 2021/11/20 14:02
+ */
+public interface ConversionService {
+
+    /**
+     * 是否可以将sourceType类型的对象转换为targetType类型
+     * @param sourceType 源类型
+     * @param targetType 目标类型
+     * @return
+     */
+    boolean canConvert(Class<?> sourceType, Class<?> targetType);
+
+    /**
+     * 将对象转换为targetType类型，对象已经是该类型时直接返回
+     * @param source 源对象
+     * @param targetType 目标类型
+     * @param <T> 目标类型
+     * @return 转换后的对象
+     * @throws ConversionFailedException 没有可用的转换器或转换失败时抛出
+     */
+    <T> T convert(Object source, Class<T> targetType) throws ConversionFailedException;
+}
@@ -0,0 +1,117 @@
+package com.plms.springframework.core.convert;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 数据大小，例如缓冲区大小或上传文件大小限制，单位之间按1024换算
+ * @Author bigboss
+ * @Date 2021/11/20 14:30
+ */
+public final class DataSize implements Comparable<DataSize> {
+
+    private static final Pattern PATTERN = Pattern.compile("^([+-]?\\d+)\\s*([a-zA-Z]{0,2})$");
+
+    private static final long BYTES_PER_KB = 1024;
+
+    private static final long BYTES_PER_MB = BYTES_PER_KB * 1024;
+
+    private static final long BYTES_PER_GB = BYTES_PER_MB * 1024;
+
+    private static final long BYTES_PER_TB = BYTES_PER_GB * 1024;
+
+    private final long bytes;
+
+    private DataSize(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public static DataSize ofBytes(long bytes) {
+        return new DataSize(bytes);
+    }
+
+    public static DataSize ofKilobytes(long kilobytes) {
+        return new DataSize(Math.multiplyExact(kilobytes, BYTES_PER_KB));
+    }
+
+    public static DataSize ofMegabytes(long megabytes) {
+        return new DataSize(Math.multiplyExact(megabytes, BYTES_PER_MB));
+    }
+
+    public static DataSize ofGigabytes(long gigabytes) {
+        return new DataSize(Math.multiplyExact(gigabytes, BYTES_PER_GB));
+    }
+
+    public static DataSize ofTerabytes(long terabytes) {
+        return new DataSize(Math.multiplyExact(terabytes, BYTES_PER_TB));
+    }
+
+    /**
+     * 解析数据大小，例如"512"、"512B"、"64KB"、"10MB"、"1GB"、"2TB"，没有单位时按字节处理，单位不区分大小写
+     * @param text 文本
+     * @return 数据大小
+     * @throws IllegalArgumentException 格式不正确时抛出
+     */
+    public static DataSize parse(CharSequence text) {
+        Matcher matcher = PATTERN.matcher(text.toString().trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("'" + text + "' is not a valid data size");
+        }
+        long amount = Long.parseLong(matcher.group(1));
+        switch (matcher.group(2).toUpperCase()) {
+            case "":
+            case "B":
+                return ofBytes(amount);
+            case "KB":
+                return ofKilobytes(amount);
+            case "MB":
+                return ofMegabytes(amount);
+            case "GB":
+                return ofGigabytes(amount);
+            case "TB":
+                return ofTerabytes(amount);
+            default:
+                throw new IllegalArgumentException("Unknown data unit '" + matcher.group(2) + "' in '" + text + "'");
+        }
+    }
+
+    public long toBytes() {
+        return bytes;
+    }
+
+    public long toKilobytes() {
+        return bytes / BYTES_PER_KB;
+    }
+
+    public long toMegabytes() {
+        return bytes / BYTES_PER_MB;
+    }
+
+    public long toGigabytes() {
+        return bytes / BYTES_PER_GB;
+    }
+
+    public long toTerabytes() {
+        return bytes / BYTES_PER_TB;
+    }
+
+    @Override
+    public int compareTo(DataSize other) {
+        return Long.compare(this.bytes, other.bytes);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || (other instanceof DataSize && this.bytes == ((DataSize) other).bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return bytes + "B";
+    }
+}
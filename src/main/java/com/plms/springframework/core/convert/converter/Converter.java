@@ -0,0 +1,17 @@
+package com.plms.springframework.core.convert.converter;
+
+/**
+ * 类型转换器，将S类型的对象转换为T类型
+ * @Author bigboss
+ * @Date 2021/11/20 14:05
+ */
+@FunctionalInterface
+public interface Converter<S, T> {
+
+    /**
+     * 转换对象
+     * @param source 源对象，不为null
+     * @return 转换后的对象
+     */
+    T convert(S source);
+}
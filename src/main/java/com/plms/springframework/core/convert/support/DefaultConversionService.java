@@ -0,0 +1,351 @@
+package com.plms.springframework.core.convert.support;
+
+import cn.hutool.core.convert.BasicType;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.convert.ConverterRegistry;
+import com.plms.springframework.core.convert.ConversionFailedException;
+import com.plms.springframework.core.convert.ConversionService;
+import com.plms.springframework.core.convert.DataSize;
+import com.plms.springframework.core.convert.converter.Converter;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 默认的类型转换服务，内置基本类型、枚举、Duration、DataSize以及逗号分隔字符串到数组的转换，其他类型回退到hutool的Convert。
+ * 查找转换器时会沿源类型的父类和接口向上匹配，查找结果按(源类型, 目标类型)缓存，之后同样的转换不再重复查找
+ * @Author bigboss
+ * @Date 2021/11/20 14:40
+ */
+public class DefaultConversionService implements ConversionService {
+
+    private static final Pattern SIMPLE_DURATION = Pattern.compile("^([+-]?\\d+)\\s*(ns|us|ms|s|m|h|d)?$");
+
+    private static final Converter<Object, Object> NO_MATCH = source -> source;
+
+    /**
+     * 注册的转换器，key中的类型都已转换为包装类型
+     */
+    private final Map<ConvertiblePair, Converter<Object, Object>> converters = new ConcurrentHashMap<>(64);
+
+    /**
+     * 查找结果缓存，没有可用的转换器时缓存NO_MATCH
+     */
+    private final Map<ConvertiblePair, Converter<Object, Object>> converterCache = new ConcurrentHashMap<>(64);
+
+    public DefaultConversionService() {
+        addDefaultConverters();
+    }
+
+    /**
+     * 注册转换器，同一对类型的转换器会被替换
+     * @param sourceType 源类型，其子类同样适用该转换器
+     * @param targetType 目标类型
+     * @param converter 转换器
+     */
+    public <S, T> void addConverter(Class<S> sourceType, Class<T> targetType, Converter<? super S, ? extends T> converter) {
+        converters.put(new ConvertiblePair(BasicType.wrap(sourceType), BasicType.wrap(targetType)), (Converter<Object, Object>) converter);
+        converterCache.clear();
+    }
+
+    @Override
+    public boolean canConvert(Class<?> sourceType, Class<?> targetType) {
+        return BasicType.wrap(targetType).isAssignableFrom(BasicType.wrap(sourceType)) || getConverter(sourceType, targetType) != null;
+    }
+
+    @Override
+    public <T> T convert(Object source, Class<T> targetType) throws ConversionFailedException {
+        if (source == null) {
+            if (targetType.isPrimitive()) {
+                throw new ConversionFailedException("Cannot convert null to primitive type [" + targetType.getName() + "]");
+            }
+            return null;
+        }
+        if (BasicType.wrap(targetType).isInstance(source)) {
+            return (T) source;
+        }
+        Converter<Object, Object> converter = getConverter(source.getClass(), targetType);
+        if (converter == null) {
+            throw new ConversionFailedException("No converter found capable of converting from type [" + source.getClass().getName()
+                    + "] to type [" + targetType.getName() + "]");
+        }
+        try {
+            return (T) converter.convert(source);
+        } catch (ConversionFailedException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new ConversionFailedException("Failed to convert value '" + source + "' to type [" + targetType.getName() + "]", e);
+        }
+    }
+
+    private Converter<Object, Object> getConverter(Class<?> sourceType, Class<?> targetType) {
+        ConvertiblePair key = new ConvertiblePair(sourceType, targetType);
+        Converter<Object, Object> converter = converterCache.get(key);
+        if (converter == null) {
+            converter = findConverter(BasicType.wrap(sourceType), BasicType.wrap(targetType));
+            converterCache.put(key, converter != null ? converter : NO_MATCH);
+        }
+        return converter == NO_MATCH ? null : converter;
+    }
+
+    private Converter<Object, Object> findConverter(Class<?> sourceType, Class<?> targetType) {
+        for (Class<?> candidate : getClassHierarchy(sourceType)) {
+            Converter<Object, Object> converter = converters.get(new ConvertiblePair(candidate, targetType));
+            if (converter != null) {
+                return converter;
+            }
+        }
+        if (sourceType == String.class && targetType.isEnum()) {
+            return source -> {
+                String text = ((String) source).trim();
+                return text.isEmpty() ? null : Enum.valueOf((Class) targetType, text);
+            };
+        }
+        if (sourceType == String.class && targetType.isArray()) {
+            return createArrayConverter(targetType.getComponentType());
+        }
+        if (targetType == String.class) {
+            return Object::toString;
+        }
+        return createFallbackConverter(targetType);
+    }
+
+    /**
+     * 没有注册转换器的类型交给hutool的Convert转换，例如集合、Map、Date、Class、Locale等，与使用ConversionService之前的属性注入行为一致。
+     * 只适用于hutool内置了转换器的目标类型，其他类型仍然视为无法转换
+     */
+    private static Converter<Object, Object> createFallbackConverter(Class<?> targetType) {
+        if (!Collection.class.isAssignableFrom(targetType) && !Map.class.isAssignableFrom(targetType)
+                && ConverterRegistry.getInstance().getDefaultConverter(targetType) == null) {
+            return null;
+        }
+        return source -> {
+            Object result = Convert.convert(targetType, source);
+            if (result == null) {
+                throw new IllegalArgumentException("Cannot convert value '" + source + "' to type [" + targetType.getName() + "]");
+            }
+            return result;
+        };
+    }
+
+    /**
+     * 将逗号分隔的字符串转换为数组，每个元素再转换为数组的元素类型
+     */
+    private Converter<Object, Object> createArrayConverter(Class<?> componentType) {
+        Converter<Object, Object> elementConverter = componentType == String.class ? null : getConverter(String.class, componentType);
+        if (componentType != String.class && elementConverter == null) {
+            return null;
+        }
+        return source -> {
+            String text = ((String) source).trim();
+            List<String> elements = new ArrayList<>();
+            if (!text.isEmpty()) {
+                for (String element : text.split(",")) {
+                    elements.add(element.trim());
+                }
+            }
+            Object array = Array.newInstance(componentType, elements.size());
+            for (int i = 0; i < elements.size(); i++) {
+                Array.set(array, i, elementConverter == null ? elements.get(i) : elementConverter.convert(elements.get(i)));
+            }
+            return array;
+        };
+    }
+
+    private static Set<Class<?>> getClassHierarchy(Class<?> type) {
+        Set<Class<?>> hierarchy = new LinkedHashSet<>();
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            hierarchy.add(current);
+        }
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            addInterfaces(current, hierarchy);
+        }
+        return hierarchy;
+    }
+
+    private static void addInterfaces(Class<?> type, Set<Class<?>> hierarchy) {
+        for (Class<?> interfaceType : type.getInterfaces()) {
+            if (hierarchy.add(interfaceType)) {
+                addInterfaces(interfaceType, hierarchy);
+            }
+        }
+    }
+
+    private void addDefaultConverters() {
+        addConverter(String.class, Integer.class, source -> Integer.valueOf(source.trim()));
+        addConverter(String.class, Long.class, source -> Long.valueOf(source.trim()));
+        addConverter(String.class, Short.class, source -> Short.valueOf(source.trim()));
+        addConverter(String.class, Byte.class, source -> Byte.valueOf(source.trim()));
+        addConverter(String.class, Float.class, source -> Float.valueOf(source.trim()));
+        addConverter(String.class, Double.class, source -> Double.valueOf(source.trim()));
+        addConverter(String.class, BigInteger.class, source -> new BigInteger(source.trim()));
+        addConverter(String.class, BigDecimal.class, source -> new BigDecimal(source.trim()));
+        addConverter(String.class, Boolean.class, DefaultConversionService::parseBoolean);
+        addConverter(String.class, Character.class, DefaultConversionService::parseCharacter);
+        addConverter(String.class, Duration.class, DefaultConversionService::parseDuration);
+        addConverter(String.class, DataSize.class, DataSize::parse);
+        addConverter(Number.class, Integer.class, source -> (int) toLong(source, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.class));
+        addConverter(Number.class, Long.class, source -> toLong(source, Long.MIN_VALUE, Long.MAX_VALUE, Long.class));
+        addConverter(Number.class, Short.class, source -> (short) toLong(source, Short.MIN_VALUE, Short.MAX_VALUE, Short.class));
+        addConverter(Number.class, Byte.class, source -> (byte) toLong(source, Byte.MIN_VALUE, Byte.MAX_VALUE, Byte.class));
+        addConverter(Number.class, Float.class, DefaultConversionService::toFloat);
+        addConverter(Number.class, Double.class, DefaultConversionService::toDouble);
+        addConverter(Number.class, DataSize.class, source -> DataSize.ofBytes(toLong(source, Long.MIN_VALUE, Long.MAX_VALUE, DataSize.class)));
+        addConverter(Number.class, Duration.class, source -> Duration.ofMillis(toLong(source, Long.MIN_VALUE, Long.MAX_VALUE, Duration.class)));
+    }
+
+    /**
+     * 将数字转换为整数，小数部分被截断，超出目标类型的范围时抛出异常而不是溢出
+     * @param min 目标类型的最小值
+     * @param max 目标类型的最大值
+     */
+    private static long toLong(Number source, long min, long max, Class<?> targetType) {
+        if (source instanceof BigInteger || source instanceof BigDecimal) {
+            BigInteger value = source instanceof BigDecimal ? ((BigDecimal) source).toBigInteger() : (BigInteger) source;
+            if (value.compareTo(BigInteger.valueOf(min)) < 0 || value.compareTo(BigInteger.valueOf(max)) > 0) {
+                throw overflow(source, targetType);
+            }
+            return value.longValue();
+        }
+        if (source instanceof Double || source instanceof Float) {
+            double value = source.doubleValue();
+            double truncated = value < 0 ? Math.ceil(value) : Math.floor(value);
+            // max等于-min-1，与-min比较时不受long最大值无法用double精确表示的影响；NaN不满足任何比较
+            if (!(truncated >= (double) min && truncated < -(double) min)) {
+                throw overflow(source, targetType);
+            }
+            return (long) truncated;
+        }
+        long value = source.longValue();
+        if (value < min || value > max) {
+            throw overflow(source, targetType);
+        }
+        return value;
+    }
+
+    private static Float toFloat(Number source) {
+        float value = source.floatValue();
+        if (Float.isInfinite(value) && !isInfinite(source)) {
+            throw overflow(source, Float.class);
+        }
+        return value;
+    }
+
+    private static Double toDouble(Number source) {
+        double value = source.doubleValue();
+        if (Double.isInfinite(value) && !isInfinite(source)) {
+            throw overflow(source, Double.class);
+        }
+        return value;
+    }
+
+    private static boolean isInfinite(Number source) {
+        return (source instanceof Double || source instanceof Float) && Double.isInfinite(source.doubleValue());
+    }
+
+    private static ConversionFailedException overflow(Number source, Class<?> targetType) {
+        return new ConversionFailedException("Value '" + source + "' of type [" + source.getClass().getName()
+                + "] is out of range of type [" + targetType.getName() + "]");
+    }
+
+    private static Boolean parseBoolean(String source) {
+        switch (source.trim().toLowerCase()) {
+            case "true":
+            case "yes":
+            case "on":
+            case "1":
+                return Boolean.TRUE;
+            case "false":
+            case "no":
+            case "off":
+            case "0":
+                return Boolean.FALSE;
+            default:
+                throw new IllegalArgumentException("Invalid boolean value '" + source + "'");
+        }
+    }
+
+    private static Character parseCharacter(String source) {
+        if (source.length() != 1) {
+            throw new IllegalArgumentException("Can only convert a [String] with length of 1 to a [Character]");
+        }
+        return source.charAt(0);
+    }
+
+    /**
+     * 解析ISO-8601格式（例如"PT30S"）或简单格式（例如"500ms"、"30s"、"5m"、"2h"、"1d"）的时长，简单格式没有单位时按毫秒处理
+     */
+    private static Duration parseDuration(String source) {
+        String text = source.trim();
+        if (text.startsWith("P") || text.startsWith("-P") || text.startsWith("p") || text.startsWith("-p")) {
+            return Duration.parse(text);
+        }
+        Matcher matcher = SIMPLE_DURATION.matcher(text.toLowerCase());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("'" + source + "' is not a valid duration");
+        }
+        long amount = Long.parseLong(matcher.group(1));
+        String unit = matcher.group(2) == null ? "ms" : matcher.group(2);
+        switch (unit) {
+            case "ns":
+                return Duration.ofNanos(amount);
+            case "us":
+                return Duration.of(amount, ChronoUnit.MICROS);
+            case "s":
+                return Duration.ofSeconds(amount);
+            case "m":
+                return Duration.ofMinutes(amount);
+            case "h":
+                return Duration.ofHours(amount);
+            case "d":
+                return Duration.ofDays(amount);
+            default:
+                return Duration.ofMillis(amount);
+        }
+    }
+
+    /**
+     * 源类型和目标类型组成的缓存key
+     */
+    private static final class ConvertiblePair {
+
+        private final Class<?> sourceType;
+
+        private final Class<?> targetType;
+
+        private ConvertiblePair(Class<?> sourceType, Class<?> targetType) {
+            this.sourceType = sourceType;
+            this.targetType = targetType;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof ConvertiblePair)) {
+                return false;
+            }
+            ConvertiblePair pair = (ConvertiblePair) other;
+            return sourceType == pair.sourceType && targetType == pair.targetType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sourceType, targetType);
+        }
+    }
+}
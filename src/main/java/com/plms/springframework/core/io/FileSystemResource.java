@@ -26,4 +26,8 @@ public class FileSystemResource implements Resource{
             throw new FileNotFoundException(ex.getMessage());
         }
     }
+
+    public String getPath() {
+        return path;
+    }
 }
@@ -0,0 +1,21 @@
+package com.plms.springframework.core.metrics;
+
+/**
+ * 记录容器启动过程中各个步骤的耗时，默认实现DEFAULT不做任何记录
+ * @Author bigboss
+ * @Date 2021/11/23 20:02
+ */
+public interface ApplicationStartup {
+
+    /**
+     * 不记录任何步骤的默认实现
+     */
+    ApplicationStartup DEFAULT = new DefaultApplicationStartup();
+
+    /**
+     * 开始一个步骤
+     * @param name 步骤名称
+     * @return 步骤，调用方需要在步骤完成后调用end
+     */
+    StartupStep start(String name);
+}
@@ -0,0 +1,235 @@
+package com.plms.springframework.core.metrics;
+
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 在内存中缓存已结束步骤的ApplicationStartup，超过容量后不再记录新的步骤。
+ * 同一个线程中在某个步骤结束前开始的步骤会被记录为它的子步骤
+ * @Author bigboss
+ * @Date 2021/11/23 20:20
+ */
+public class BufferingApplicationStartup implements ApplicationStartup {
+
+    private final int capacity;
+
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicLong idGenerator = new AtomicLong();
+
+    private final AtomicInteger recordedCount = new AtomicInteger();
+
+    private final ConcurrentLinkedQueue<RecordedStep> recordedSteps = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 当前线程中尚未结束的最内层步骤
+     */
+    private final ThreadLocal<BufferedStartupStep> currentStep = new ThreadLocal<>();
+
+    /**
+     * @param capacity 最多记录的步骤数
+     */
+    public BufferingApplicationStartup(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public StartupStep start(String name) {
+        BufferedStartupStep parent = currentStep.get();
+        BufferedStartupStep step = new BufferedStartupStep(idGenerator.incrementAndGet(), name, parent);
+        currentStep.set(step);
+        return step;
+    }
+
+    /**
+     * 获取已结束的步骤，按结束顺序排列
+     * @return
+     */
+    public List<RecordedStep> getSteps() {
+        return Collections.unmodifiableList(new ArrayList<>(recordedSteps));
+    }
+
+    /**
+     * 清空已记录的步骤
+     */
+    public void clear() {
+        recordedSteps.clear();
+        recordedCount.set(0);
+    }
+
+    /**
+     * 将已结束的步骤输出为JSON数组
+     * @return
+     */
+    public String toJson() {
+        JSONArray steps = new JSONArray();
+        for (RecordedStep step : recordedSteps) {
+            JSONObject json = new JSONObject(true);
+            json.set("id", step.getId());
+            json.set("parentId", step.getParentId());
+            json.set("name", step.getName());
+            json.set("thread", step.getThreadName());
+            json.set("startTimeNanos", step.getStartTimeNanos());
+            json.set("durationNanos", step.getDurationNanos());
+            json.set("tags", step.getTags());
+            steps.add(json);
+        }
+        return steps.toString();
+    }
+
+    private void record(RecordedStep step) {
+        if (recordedCount.incrementAndGet() <= capacity) {
+            recordedSteps.add(step);
+        } else {
+            recordedCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * 已结束的步骤
+     */
+    public static final class RecordedStep {
+
+        private final long id;
+
+        private final Long parentId;
+
+        private final String name;
+
+        private final String threadName;
+
+        private final long startTimeNanos;
+
+        private final long durationNanos;
+
+        private final Map<String, String> tags;
+
+        private RecordedStep(long id, Long parentId, String name, String threadName, long startTimeNanos,
+                             long durationNanos, Map<String, String> tags) {
+            this.id = id;
+            this.parentId = parentId;
+            this.name = name;
+            this.threadName = threadName;
+            this.startTimeNanos = startTimeNanos;
+            this.durationNanos = durationNanos;
+            this.tags = tags;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public Long getParentId() {
+            return parentId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        /**
+         * 相对于ApplicationStartup创建时间的开始时间
+         */
+        public long getStartTimeNanos() {
+            return startTimeNanos;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        public Map<String, String> getTags() {
+            return tags;
+        }
+
+        @Override
+        public String toString() {
+            return name + tags + " " + (durationNanos / 1000) + "us";
+        }
+    }
+
+    private final class BufferedStartupStep implements StartupStep {
+
+        private final long id;
+
+        private final String name;
+
+        private final BufferedStartupStep parent;
+
+        private final long start = System.nanoTime();
+
+        private final Map<String, String> tags = new LinkedHashMap<>();
+
+        private boolean ended;
+
+        private BufferedStartupStep(long id, String name, BufferedStartupStep parent) {
+            this.id = id;
+            this.name = name;
+            this.parent = parent;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getParentId() {
+            return parent != null ? parent.id : null;
+        }
+
+        @Override
+        public StartupStep tag(String key, String value) {
+            tags.put(key, value);
+            return this;
+        }
+
+        @Override
+        public StartupStep tag(String key, Supplier<String> value) {
+            return tag(key, value.get());
+        }
+
+        @Override
+        public Map<String, String> getTags() {
+            return Collections.unmodifiableMap(tags);
+        }
+
+        @Override
+        public void end() {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            long end = System.nanoTime();
+            // 步骤可能不是按嵌套顺序结束的，只在它是当前线程最内层的步骤时才恢复上级步骤
+            if (currentStep.get() == this) {
+                if (parent != null) {
+                    currentStep.set(parent);
+                } else {
+                    currentStep.remove();
+                }
+            }
+            record(new RecordedStep(id, getParentId(), name, Thread.currentThread().getName(), start - startNanos,
+                    end - start, Collections.unmodifiableMap(new LinkedHashMap<>(tags))));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.plms.springframework.core.metrics;
+
+import java.util.Map;
+
+/**
+ * 容器运行时的统计，计数器使用LongAdder，读取时汇总；耗时默认每16次采样一次，可以在生产环境中一直开启。
+ * 某个原型Bean的创建次数持续增长通常说明有代码在循环中调用getBean
+ * @Author bigboss
+ * @Date 2021/11/24 19:30
+ */
+public interface ContainerMetrics {
+
+    /**
+     * getBean直接命中已创建的单例的次数
+     * @return
+     */
+    long getSingletonHits();
+
+    /**
+     * 创建Bean实例的总次数，包括所有作用域
+     * @return
+     */
+    long getCreations();
+
+    /**
+     * 创建Bean失败的次数
+     * @return
+     */
+    long getCreationFailures();
+
+    /**
+     * 每个原型Bean的创建次数
+     * @return bean名称 -> 创建次数
+     */
+    Map<String, Long> getPrototypeCreations();
+
+    /**
+     * 某个原型Bean的创建次数
+     * @param beanName bean名称
+     * @return 没有创建过时返回0
+     */
+    long getPrototypeCreations(String beanName);
+
+    /**
+     * 采样的创建Bean的耗时，包括实例化、属性注入和初始化
+     * @return
+     */
+    LatencyHistogram getCreationLatency();
+
+    /**
+     * 采样的每个Bean在初始化前或初始化后执行整条BeanPostProcessor链的耗时
+     * @return
+     */
+    LatencyHistogram getPostProcessorLatency();
+
+    /**
+     * 清空所有统计
+     */
+    void reset();
+}
@@ -0,0 +1,57 @@
+package com.plms.springframework.core.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 不做任何记录的ApplicationStartup，所有步骤都是同一个空实现，开始和结束步骤没有任何开销
+ * @Author bigboss
+ * @Date 2021/11/23 20:10
+ */
+class DefaultApplicationStartup implements ApplicationStartup {
+
+    private static final DefaultStartupStep STEP = new DefaultStartupStep();
+
+    @Override
+    public StartupStep start(String name) {
+        return STEP;
+    }
+
+    private static final class DefaultStartupStep implements StartupStep {
+
+        @Override
+        public String getName() {
+            return "default";
+        }
+
+        @Override
+        public long getId() {
+            return 0L;
+        }
+
+        @Override
+        public Long getParentId() {
+            return null;
+        }
+
+        @Override
+        public StartupStep tag(String key, String value) {
+            return this;
+        }
+
+        @Override
+        public StartupStep tag(String key, Supplier<String> value) {
+            return this;
+        }
+
+        @Override
+        public Map<String, String> getTags() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public void end() {
+        }
+    }
+}
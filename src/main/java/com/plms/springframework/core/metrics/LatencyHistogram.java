@@ -0,0 +1,122 @@
+package com.plms.springframework.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按2的幂分桶的耗时直方图，第i个桶记录耗时在[2^i, 2^(i+1))纳秒之间的次数。
+ * 每个桶都是一个LongAdder，多线程并发记录时不会竞争同一个计数器
+ * @Author bigboss
+ * @Date 2021/11/24 19:40
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKET_COUNT = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一次耗时
+     * @param nanos 耗时，单位纳秒，小于1时记入第一个桶
+     */
+    public void record(long nanos) {
+        buckets[bucketIndex(nanos)].increment();
+        totalNanos.add(Math.max(nanos, 0L));
+    }
+
+    private static int bucketIndex(long nanos) {
+        return nanos <= 1L ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    /**
+     * 记录的总次数
+     * @return
+     */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * 记录的总耗时，单位纳秒
+     * @return
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * 平均耗时，单位纳秒
+     * @return 没有记录时返回0
+     */
+    public long getMeanNanos() {
+        long count = getCount();
+        return count == 0 ? 0L : getTotalNanos() / count;
+    }
+
+    /**
+     * 估算百分位耗时，返回该百分位所在桶的上界，误差不超过2倍
+     * @param percentile 百分位，取值(0, 100]
+     * @return 没有记录时返回0
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be in (0, 100]: " + percentile);
+        }
+        long[] counts = getBucketCounts();
+        long count = 0;
+        for (long bucketCount : counts) {
+            count += bucketCount;
+        }
+        if (count == 0) {
+            return 0L;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * 每个桶的计数，下标为i的桶对应耗时[2^i, 2^(i+1))纳秒
+     * @return
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * 清空所有计数
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        totalNanos.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{count=" + getCount() + ", meanNanos=" + getMeanNanos() + ", p99Nanos="
+                + (getCount() == 0 ? 0 : getPercentileNanos(99)) + "}";
+    }
+}
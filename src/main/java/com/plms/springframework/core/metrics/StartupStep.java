@@ -0,0 +1,57 @@
+package com.plms.springframework.core.metrics;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 容器启动过程中的一个步骤，从ApplicationStartup.start开始，到end结束
+ * @Author bigboss
+ * @Date 2021/11/23 20:05
+ */
+public interface StartupStep {
+
+    /**
+     * 步骤名称，例如"plms.beans.instantiate"
+     * @return
+     */
+    String getName();
+
+    /**
+     * 步骤id，在同一个ApplicationStartup中唯一
+     * @return
+     */
+    long getId();
+
+    /**
+     * 同一个线程中包含当前步骤的上级步骤的id
+     * @return 没有上级步骤时返回null
+     */
+    Long getParentId();
+
+    /**
+     * 为步骤添加标签，例如bean名称
+     * @param key 标签名
+     * @param value 标签值
+     * @return 当前步骤
+     */
+    StartupStep tag(String key, String value);
+
+    /**
+     * 为步骤添加标签，只在真正记录时才计算标签值
+     * @param key 标签名
+     * @param value 标签值
+     * @return 当前步骤
+     */
+    StartupStep tag(String key, Supplier<String> value);
+
+    /**
+     * 获取步骤的所有标签
+     * @return
+     */
+    Map<String, String> getTags();
+
+    /**
+     * 结束步骤
+     */
+    void end();
+}
@@ -0,0 +1,91 @@
+package com.plms.springframework;
+
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONUtil;
+import com.plms.springframework.context.support.ClassPathXmlApplicationContext;
+import com.plms.springframework.core.metrics.ApplicationStartup;
+import com.plms.springframework.core.metrics.BufferingApplicationStartup;
+import com.plms.springframework.core.metrics.BufferingApplicationStartup.RecordedStep;
+import com.plms.springframework.core.metrics.StartupStep;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/23 21:10
+ */
+public class ApplicationStartupTest {
+
+    @Test
+    public void testRecordRefreshSteps() {
+        BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(1000);
+        ClassPathXmlApplicationContext applicationContext =
+                new ClassPathXmlApplicationContext(new String[]{"classpath:spring.xml"}, false);
+        applicationContext.setApplicationStartup(applicationStartup);
+        applicationContext.refresh();
+
+        List<RecordedStep> steps = applicationStartup.getSteps();
+        assertThat(steps).extracting(RecordedStep::getName).contains("plms.context.refresh", "plms.context.beans.load",
+                "plms.xml.parse", "plms.beans.class-resolve", "plms.context.bean-factory.post-process",
+                "plms.context.bean-post-processors.register", "plms.context.beans.pre-instantiate", "plms.beans.create",
+                "plms.beans.instantiate", "plms.beans.populate", "plms.beans.init-method", "plms.beans.post-process");
+        Map<Long, RecordedStep> stepsById = steps.stream().collect(Collectors.toMap(RecordedStep::getId, Function.identity()));
+
+        // person的创建步骤下包含实例化、属性注入和初始化
+        RecordedStep createPerson = findStep(steps, "plms.beans.create", "person");
+        RecordedStep populatePerson = findStep(steps, "plms.beans.populate", "person");
+        assertThat(populatePerson.getParentId()).isEqualTo(createPerson.getId());
+        assertThat(findStep(steps, "plms.beans.instantiate", "person").getParentId()).isEqualTo(createPerson.getId());
+        assertThat(createPerson.getDurationNanos()).isGreaterThanOrEqualTo(populatePerson.getDurationNanos());
+        assertThat(stepsById.get(createPerson.getParentId()).getName()).isEqualTo("plms.context.beans.pre-instantiate");
+
+        RecordedStep postProcess = findStep(steps, "plms.beans.post-process", "person");
+        assertThat(postProcess.getTags()).containsEntry("postProcessor", "com.plms.springframework.common.CustomBeanPostProcessor")
+                .containsKey("phase");
+        assertThat(stepsById.get(postProcess.getParentId()).getName()).isEqualTo("plms.beans.initialize");
+
+        // 类在第一次创建Bean时才加载
+        RecordedStep classResolve = findStep(steps, "plms.beans.class-resolve", "person");
+        assertThat(classResolve.getParentId()).isEqualTo(createPerson.getId());
+        assertThat(classResolve.getTags()).containsEntry("className", "com.plms.springframework.bean.Person");
+        assertThat(steps.get(steps.size() - 1).getName()).isEqualTo("plms.context.refresh");
+
+        JSONArray json = JSONUtil.parseArray(applicationStartup.toJson());
+        assertThat(json).hasSize(steps.size());
+        assertThat(json.getJSONObject(0).getStr("name")).isEqualTo(steps.get(0).getName());
+        applicationContext.close();
+    }
+
+    @Test
+    public void testCapacity() {
+        BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(2);
+        for (int i = 0; i < 5; i++) {
+            applicationStartup.start("step" + i).end();
+        }
+        assertThat(applicationStartup.getSteps()).extracting(RecordedStep::getName).containsExactly("step0", "step1");
+    }
+
+    @Test
+    public void testDefaultApplicationStartup() {
+        StartupStep step = ApplicationStartup.DEFAULT.start("plms.context.refresh").tag("key", () -> {
+            throw new IllegalStateException("tag value should not be computed");
+        });
+        assertThat(step).isSameAs(ApplicationStartup.DEFAULT.start("plms.beans.create"));
+        assertThat(step.getTags()).isEmpty();
+        step.end();
+        ClassPathXmlApplicationContext applicationContext =
+                new ClassPathXmlApplicationContext(new String[]{"classpath:init-and-destroy-method.xml"}, false);
+        assertThat(applicationContext.getApplicationStartup()).isSameAs(ApplicationStartup.DEFAULT);
+    }
+
+    private static RecordedStep findStep(List<RecordedStep> steps, String name, String beanName) {
+        return steps.stream().filter(step -> name.equals(step.getName()) && beanName.equals(step.getTags().get("beanName")))
+                .findFirst().get();
+    }
+}
@@ -0,0 +1,104 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.PropertyValue;
+import com.plms.springframework.bean.SlowInitBean;
+import com.plms.springframework.bean.factory.BeanFactory;
+import com.plms.springframework.bean.factory.BeanFactoryAware;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.context.support.ClassPathXmlApplicationContext;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/21 15:20
+ */
+public class AsyncInitBeanTest {
+
+    @Test
+    public void testAsyncInit() {
+        SlowInitBean.INITIALIZED.clear();
+        long start = System.currentTimeMillis();
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:async-init.xml");
+        long elapsed = System.currentTimeMillis() - start;
+        // 三个异步初始化的Bean并发执行初始化方法，refresh在它们全部完成后才返回
+        assertThat(SlowInitBean.INITIALIZED).containsExactlyInAnyOrder("first", "second", "third");
+        assertThat(elapsed).isLessThan(550);
+        SlowInitBean fourth = applicationContext.getBean("fourth", SlowInitBean.class);
+        assertThat(fourth.getDependency()).isSameAs(applicationContext.getBean("first"));
+    }
+
+    @Test
+    public void testAsyncInitFailure() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition first = new BeanDefinition(FailingInitBean.class);
+        first.setInitMethodName("init");
+        first.setAsyncInit(true);
+        BeanDefinition second = new BeanDefinition(FailingInitBean.class);
+        second.setInitMethodName("init");
+        second.setAsyncInit(true);
+        beanFactory.registerBeanDefinition("first", first);
+        beanFactory.registerBeanDefinition("second", second);
+        // 所有失败汇总到一个异常中
+        assertThatThrownBy(beanFactory::preInstantiateSingletons).isInstanceOf(BeansException.class)
+                .satisfies(e -> assertThat(e.getSuppressed()).hasSize(1));
+        assertThatThrownBy(() -> beanFactory.getBean("first")).isInstanceOf(BeansException.class);
+    }
+
+    @Test(timeout = 10000)
+    public void testInitMethodLooksUpItself() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("self", lookupBean("self"));
+        // 初始化方法获取自身时不能等待自己的初始化结果
+        assertThatThrownBy(beanFactory::preInstantiateSingletons).isInstanceOf(BeansException.class)
+                .hasStackTraceContaining("currently in creation");
+    }
+
+    @Test(timeout = 10000)
+    public void testInitMethodsLookUpEachOther() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("first", lookupBean("second"));
+        beanFactory.registerBeanDefinition("second", lookupBean("first"));
+        assertThatThrownBy(beanFactory::preInstantiateSingletons).isInstanceOf(BeansException.class)
+                .hasStackTraceContaining("currently in creation");
+    }
+
+    private static BeanDefinition lookupBean(String lookup) {
+        BeanDefinition beanDefinition = new BeanDefinition(LookupInitBean.class);
+        beanDefinition.getPropertyValues().addPropertyValue(new PropertyValue("lookup", lookup));
+        beanDefinition.setInitMethodName("init");
+        beanDefinition.setAsyncInit(true);
+        return beanDefinition;
+    }
+
+    public static class LookupInitBean implements BeanFactoryAware {
+
+        private BeanFactory beanFactory;
+
+        private String lookup;
+
+        @Override
+        public void setBeanFactory(BeanFactory beanFactory) {
+            this.beanFactory = beanFactory;
+        }
+
+        public void setLookup(String lookup) {
+            this.lookup = lookup;
+        }
+
+        public void init() {
+            beanFactory.getBean(lookup);
+        }
+    }
+
+    public static class FailingInitBean {
+
+        public void init() {
+            throw new IllegalStateException("warm up failed");
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.factory.snapshot.BeanDefinitionSnapshotWriter;
+import com.plms.springframework.bean.factory.snapshot.SnapshotBeanDefinitionReader;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.bean.factory.xml.StaxXmlBeanDefinitionReader;
+import com.plms.springframework.bean.Person;
+import com.plms.springframework.context.support.ClassPathXmlApplicationContext;
+import com.plms.springframework.core.metrics.BufferingApplicationStartup;
+import com.plms.springframework.core.metrics.BufferingApplicationStartup.RecordedStep;
+import com.plms.springframework.common.RecordingBeanFactory;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/29 20:30
+ */
+public class BeanDefinitionSnapshotTest {
+
+    private static final String[] LOCATIONS = {"classpath:spring.xml", "classpath:lazy-init.xml", "classpath:pooled-bean.xml",
+            "classpath:async-init.xml", "classpath:init-and-destroy-method.xml", "classpath:stax-reader.xml"};
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        for (String location : LOCATIONS) {
+            String[] locations = {location};
+            BeanDefinitionSnapshotWriter writer = new BeanDefinitionSnapshotWriter();
+            long checksum = writer.checksum(locations);
+            RecordingBeanFactory xmlFactory = new RecordingBeanFactory();
+            new StaxXmlBeanDefinitionReader(xmlFactory).loadBeanDefinitions(locations);
+            Path snapshot = temporaryFolder.newFolder().toPath().resolve("beans.snapshot");
+            writer.write(xmlFactory, checksum, snapshot);
+
+            RecordingBeanFactory snapshotFactory = new RecordingBeanFactory();
+            SnapshotBeanDefinitionReader reader = new SnapshotBeanDefinitionReader(snapshotFactory);
+            assertThat(reader.isUpToDate(snapshot, locations)).isTrue();
+            reader.loadBeanDefinitions(snapshot.toString());
+            // 快照按BeanFactory中名称的顺序写入，不保留注册顺序
+            assertThat(snapshotFactory.describe()).as(location).containsExactlyInAnyOrderElementsOf(xmlFactory.describe());
+        }
+    }
+
+    @Test
+    public void testInvalidatedWhenXmlChanges() throws Exception {
+        Path xml = temporaryFolder.newFile("beans.xml").toPath();
+        Files.write(xml, ("<beans><bean id=\"car\" class=\"com.plms.springframework.bean.Car\">"
+                + "<property name=\"brand\" value=\"porsche\"/></bean></beans>").getBytes(StandardCharsets.UTF_8));
+        String[] locations = {xml.toString()};
+        Path snapshot = xml.resolveSibling("beans.snapshot");
+        BeanDefinitionSnapshotWriter writer = new BeanDefinitionSnapshotWriter();
+        long checksum = writer.checksum(locations);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new StaxXmlBeanDefinitionReader(beanFactory).loadBeanDefinitions(locations);
+        writer.write(beanFactory, checksum, snapshot);
+
+        SnapshotBeanDefinitionReader reader = new SnapshotBeanDefinitionReader(new DefaultListableBeanFactory());
+        assertThat(reader.isUpToDate(snapshot, locations)).isTrue();
+        assertThat(reader.isUpToDate(snapshot, new String[]{xml.toString(), "classpath:spring.xml"})).isFalse();
+        Files.write(xml, ("<beans><bean id=\"car\" class=\"com.plms.springframework.bean.Car\">"
+                + "<property name=\"brand\" value=\"lamborghini\"/></bean></beans>").getBytes(StandardCharsets.UTF_8));
+        assertThat(reader.isUpToDate(snapshot, locations)).isFalse();
+        assertThat(reader.isUpToDate(xml.resolveSibling("missing.snapshot"), locations)).isFalse();
+        assertThat(reader.isUpToDate(xml, locations)).isFalse();
+    }
+
+    @Test
+    public void testContextLoadsFromSnapshot() throws Exception {
+        String snapshot = temporaryFolder.getRoot().toPath().resolve("spring.snapshot").toString();
+        // 第一次启动解析XML并生成快照
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(1024);
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext(new String[]{"classpath:spring.xml"}, false);
+        applicationContext.setBeanDefinitionSnapshot(snapshot);
+        applicationContext.setApplicationStartup(startup);
+        applicationContext.refresh();
+        Person expected = applicationContext.getBean("person", Person.class);
+        applicationContext.close();
+        assertThat(stepNames(startup)).contains("plms.xml.parse").doesNotContain("plms.snapshot.load");
+        assertThat(Files.isRegularFile(Paths.get(snapshot))).isTrue();
+
+        // 第二次启动直接从快照加载
+        startup = new BufferingApplicationStartup(1024);
+        applicationContext = new ClassPathXmlApplicationContext(new String[]{"classpath:spring.xml"}, false);
+        applicationContext.setBeanDefinitionSnapshot(snapshot);
+        applicationContext.setApplicationStartup(startup);
+        applicationContext.refresh();
+        Person person = applicationContext.getBean("person", Person.class);
+        applicationContext.close();
+        assertThat(stepNames(startup)).contains("plms.snapshot.load").doesNotContain("plms.xml.parse");
+        assertThat(person.toString()).isEqualTo(expected.toString());
+    }
+
+    @Test
+    public void testCorruptedSnapshot() {
+        SnapshotBeanDefinitionReader reader = new SnapshotBeanDefinitionReader(new DefaultListableBeanFactory());
+        byte[] notSnapshot = "<beans/>".getBytes(StandardCharsets.UTF_8);
+        assertThatThrownBy(() -> reader.loadBeanDefinitions(() -> new ByteArrayInputStream(notSnapshot)))
+                .isInstanceOf(BeansException.class).hasMessageContaining("is not a bean definition snapshot");
+        byte[] truncated = {0x50, 0x4C, 0x4D, 0x53, 0, 1, 0, 0};
+        assertThatThrownBy(() -> reader.loadBeanDefinitions(() -> new ByteArrayInputStream(truncated)))
+                .isInstanceOf(BeansException.class).hasMessageContaining("Corrupted");
+        // 字符串数量、字符串长度为负数或超出文件大小时不会分配内存
+        for (int[] lengths : new int[][]{{-1}, {Integer.MAX_VALUE}, {1, -5}, {1, Integer.MAX_VALUE}, {1, 3}}) {
+            ByteBuffer buffer = ByteBuffer.allocate(14 + lengths.length * 4);
+            buffer.putInt(0x504C4D53).putShort((short) 1).putLong(0);
+            for (int length : lengths) {
+                buffer.putInt(length);
+            }
+            assertThatThrownBy(() -> reader.loadBeanDefinitions(() -> new ByteArrayInputStream(buffer.array())))
+                    .as(Arrays.toString(lengths)).isInstanceOf(BeansException.class).hasMessageContaining("Corrupted");
+        }
+    }
+
+    @Test
+    public void testTruncatedSnapshotFile() throws Exception {
+        String[] locations = {"classpath:spring.xml"};
+        BeanDefinitionSnapshotWriter writer = new BeanDefinitionSnapshotWriter();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new StaxXmlBeanDefinitionReader(beanFactory).loadBeanDefinitions(locations);
+        Path snapshot = temporaryFolder.getRoot().toPath().resolve("truncated.snapshot");
+        writer.write(beanFactory, writer.checksum(locations), snapshot);
+        byte[] content = Files.readAllBytes(snapshot);
+        for (int length = 14; length < content.length; length += 7) {
+            Files.write(snapshot, Arrays.copyOf(content, length));
+            assertThatThrownBy(() -> new SnapshotBeanDefinitionReader(new DefaultListableBeanFactory()).loadBeanDefinitions(snapshot))
+                    .isInstanceOf(BeansException.class).hasMessageContaining("Corrupted");
+        }
+    }
+
+    @Test
+    public void testSnapshotWriteFailureDoesNotFailRefresh() throws Exception {
+        // 快照所在目录无法创建
+        Path notDirectory = temporaryFolder.newFile("not-a-directory").toPath();
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext(new String[]{"classpath:spring.xml"}, false);
+        applicationContext.setBeanDefinitionSnapshot(notDirectory.resolve("spring.snapshot").toString());
+        applicationContext.refresh();
+        assertThat(applicationContext.getBean("person", Person.class).getName()).isNotNull();
+        applicationContext.close();
+    }
+
+    private static String[] stepNames(BufferingApplicationStartup startup) {
+        return startup.getSteps().stream().map(RecordedStep::getName).toArray(String[]::new);
+    }
+}
@@ -0,0 +1,121 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.Car;
+import com.plms.springframework.bean.Engine;
+import com.plms.springframework.bean.factory.BeanHandle;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/19 20:50
+ */
+public class BeanHandleTest {
+
+    @Test
+    public void testBeanHandle() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+        BeanDefinition engine = new BeanDefinition(Engine.class);
+        engine.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("engine", engine);
+
+        BeanHandle<Car> carHandle = beanFactory.getBeanHandle("car", Car.class);
+        BeanHandle<Engine> engineHandle = beanFactory.getBeanHandle("engine", Engine.class);
+        assertThat(carHandle.getBeanName()).isEqualTo("car");
+        assertThat(carHandle.get()).isSameAs(beanFactory.getBean("car")).isSameAs(carHandle.get());
+        assertThat(engineHandle.get()).isNotSameAs(engineHandle.get());
+
+        // 替换BeanDefinition后句柄重新解析
+        beanFactory.registerBeanDefinition("engine", new BeanDefinition(Engine.class));
+        assertThat(engineHandle.get()).isSameAs(engineHandle.get());
+
+        assertThatThrownBy(() -> beanFactory.getBeanHandle("missing", Object.class)).isInstanceOf(BeansException.class);
+    }
+
+    @Test
+    public void testRequiredType() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+        assertThat(beanFactory.getBeanHandle("car", Object.class).get()).isInstanceOf(Car.class);
+        // 创建句柄时根据BeanDefinition的类型检查
+        assertThatThrownBy(() -> beanFactory.getBeanHandle("car", Engine.class)).isInstanceOf(BeansException.class)
+                .hasMessageContaining(Engine.class.getName());
+        // 单例已创建时根据实例检查
+        beanFactory.getBean("car");
+        assertThatThrownBy(() -> beanFactory.getBeanHandle("car", Engine.class)).isInstanceOf(BeansException.class);
+
+        // 句柄创建后BeanDefinition被替换为其他类型，获取时检查
+        BeanDefinition engine = new BeanDefinition(Engine.class);
+        engine.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("engine", engine);
+        BeanHandle<Engine> engineHandle = beanFactory.getBeanHandle("engine", Engine.class);
+        engineHandle.get();
+        beanFactory.registerBeanDefinition("engine", new BeanDefinition(Car.class));
+        assertThatThrownBy(engineHandle::get).isInstanceOf(BeansException.class);
+    }
+
+    @Test
+    public void testSingletonHitMetrics() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+        BeanHandle<Car> carHandle = beanFactory.getBeanHandle("car", Car.class);
+        carHandle.get();
+        long hits = beanFactory.getContainerMetrics().getSingletonHits();
+        carHandle.get();
+        carHandle.get();
+        // 通过句柄命中单例与getBean一样计数
+        assertThat(beanFactory.getContainerMetrics().getSingletonHits()).isEqualTo(hits + 2);
+    }
+
+    @Test
+    public void testManyHandles() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        for (int i = 0; i < 100; i++) {
+            beanFactory.registerBeanDefinition("car" + i, new BeanDefinition(Car.class));
+        }
+        BeanHandle<?>[] handles = new BeanHandle<?>[100];
+        for (int i = 0; i < 100; i++) {
+            handles[i] = beanFactory.getBeanHandle("car" + i, Car.class);
+            handles[i].get();
+        }
+        // 槽位扩容后已解析的结果仍然有效
+        for (int i = 0; i < 100; i++) {
+            assertThat(handles[i].get()).isSameAs(beanFactory.getBean("car" + i));
+            assertThat(beanFactory.getBeanHandle("car" + i, Car.class).get()).isSameAs(handles[i].get());
+        }
+    }
+
+    @Test
+    public void testResetDuringResolution() {
+        // 句柄取得原型Bean的BeanDefinition后、写入槽位前，BeanDefinition被替换为单例
+        AtomicBoolean replaceOnLookup = new AtomicBoolean();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory() {
+
+            @Override
+            public BeanDefinition getBeanDefinition(String beanName) throws BeansException {
+                BeanDefinition beanDefinition = super.getBeanDefinition(beanName);
+                if (replaceOnLookup.compareAndSet(true, false)) {
+                    registerBeanDefinition(beanName, new BeanDefinition(Engine.class));
+                }
+                return beanDefinition;
+            }
+        };
+        BeanDefinition engine = new BeanDefinition(Engine.class);
+        engine.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("engine", engine);
+        BeanHandle<Engine> engineHandle = beanFactory.getBeanHandle("engine", Engine.class);
+
+        replaceOnLookup.set(true);
+        engineHandle.get();
+        // 替换前解析出的原型BeanDefinition不会留在槽位中
+        assertThat(engineHandle.get()).isSameAs(engineHandle.get()).isSameAs(beanFactory.getBean("engine"));
+    }
+}
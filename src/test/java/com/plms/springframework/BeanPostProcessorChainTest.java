@@ -0,0 +1,146 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.Car;
+import com.plms.springframework.bean.Engine;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.config.BeanPostProcessor;
+import com.plms.springframework.bean.factory.config.TargetedBeanPostProcessor;
+import com.plms.springframework.bean.factory.support.CglibSubClassingInstantiationStrategy;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/15 21:58
+ */
+public class BeanPostProcessorChainTest {
+
+    @Test
+    public void testTargetedProcessorOnlyRunsOnSupportedTypes() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition carDefinition = new BeanDefinition(Car.class);
+        carDefinition.setScope("prototype");
+        BeanDefinition engineDefinition = new BeanDefinition(Engine.class);
+        engineDefinition.setScope("prototype");
+        beanFactory.registerBeanDefinition("car", carDefinition);
+        beanFactory.registerBeanDefinition("engine", engineDefinition);
+        CarBrandProcessor carBrandProcessor = new CarBrandProcessor();
+        beanFactory.addBeanPostProcessor(carBrandProcessor);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(((Car) beanFactory.getBean("car")).getBrand()).isEqualTo("tesla");
+            beanFactory.getBean("engine");
+        }
+        // 每个类型只判断一次，不支持的类型不会调用处理方法
+        assertThat(carBrandProcessor.checkedTypes).extracting(CglibSubClassingInstantiationStrategy::getUserClass)
+                .containsExactlyInAnyOrder(Car.class, Engine.class);
+        assertThat(carBrandProcessor.processed).isEqualTo(10);
+
+        // 注册新的BeanPostProcessor后重新计算，且后一个处理器拿到前一个处理器的结果
+        List<Object> seen = new ArrayList<>();
+        beanFactory.addBeanPostProcessor(new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                seen.add(bean instanceof Car ? ((Car) bean).getBrand() : beanName);
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                return bean;
+            }
+        });
+        beanFactory.getBean("car");
+        beanFactory.getBean("engine");
+        assertThat(seen).containsExactly("tesla", "engine");
+        assertThat(carBrandProcessor.checkedTypes).hasSize(4);
+    }
+
+    @Test
+    public void testProcessorAddedWhileChainIsComputed() throws Exception {
+        for (boolean frozen : new boolean[]{false, true}) {
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            BeanDefinition carDefinition = new BeanDefinition(Car.class);
+            carDefinition.setScope("prototype");
+            beanFactory.registerBeanDefinition("car", carDefinition);
+            CountDownLatch computing = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            // 第一次判断类型时阻塞，模拟计算处理器链（或编译配方）期间注册新的BeanPostProcessor
+            beanFactory.addBeanPostProcessor(new TargetedBeanPostProcessor() {
+                @Override
+                public boolean supportsBeanType(Class<?> beanType) {
+                    if (computing.getCount() > 0) {
+                        computing.countDown();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return false;
+                }
+
+                @Override
+                public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                    return bean;
+                }
+
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                    return bean;
+                }
+            });
+            if (frozen) {
+                beanFactory.freezeConfiguration();
+            }
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<Object> first = executor.submit(() -> beanFactory.getBean("car"));
+                assertThat(computing.await(5, TimeUnit.SECONDS)).isTrue();
+                beanFactory.addBeanPostProcessor(new CarBrandProcessor());
+                release.countDown();
+                first.get(5, TimeUnit.SECONDS);
+            } finally {
+                executor.shutdownNow();
+            }
+            // 注册前计算出的处理器链和配方不会保留下来
+            assertThat(((Car) beanFactory.getBean("car")).getBrand()).isEqualTo("tesla");
+        }
+    }
+
+    private static class CarBrandProcessor implements TargetedBeanPostProcessor {
+
+        private final List<Class<?>> checkedTypes = new ArrayList<>();
+
+        private int processed;
+
+        @Override
+        public boolean supportsBeanType(Class<?> beanType) {
+            checkedTypes.add(beanType);
+            return Car.class.isAssignableFrom(beanType);
+        }
+
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+            processed++;
+            ((Car) bean).setBrand("tesla");
+            return bean;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+            return bean;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.Car;
+import com.plms.springframework.bean.LifecycleBean;
+import com.plms.springframework.bean.Person;
+import com.plms.springframework.bean.PropertyValue;
+import com.plms.springframework.bean.PropertyValues;
+import com.plms.springframework.bean.Tyre;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.config.BeanPostProcessor;
+import com.plms.springframework.bean.factory.config.BeanReference;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/18 21:20
+ */
+public class BeanRecipeTest {
+
+    private DefaultListableBeanFactory createBeanFactory() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        PropertyValues propertyValues = new PropertyValues();
+        propertyValues.addPropertyValue(new PropertyValue("size", "17"));
+        propertyValues.addPropertyValue(new PropertyValue("maker", "pirelli"));
+        BeanDefinition tyre = new BeanDefinition(Tyre.class, propertyValues);
+        tyre.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("tyre", tyre);
+        BeanDefinition lifecycleBean = new BeanDefinition(LifecycleBean.class);
+        lifecycleBean.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        lifecycleBean.setInitMethodName("init");
+        beanFactory.registerBeanDefinition("lifecycleBean", lifecycleBean);
+        return beanFactory;
+    }
+
+    @Test
+    public void testCreateFromRecipe() {
+        LifecycleBean.INIT_COUNT.set(0);
+        DefaultListableBeanFactory beanFactory = createBeanFactory();
+        beanFactory.freezeConfiguration();
+        for (int i = 0; i < 3; i++) {
+            Tyre tyre = (Tyre) beanFactory.getBean("tyre");
+            assertThat(tyre.getSize()).isEqualTo(17);
+            assertThat(tyre.getMaker()).isEqualTo("pirelli");
+            beanFactory.getBean("lifecycleBean");
+        }
+        assertThat(LifecycleBean.INIT_COUNT.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testRecipeInvalidation() {
+        DefaultListableBeanFactory beanFactory = createBeanFactory();
+        beanFactory.freezeConfiguration();
+        assertThat(((Tyre) beanFactory.getBean("tyre")).getBrand()).isNull();
+
+        // 冻结后注册的BeanPostProcessor同样生效，并且可以替换Bean
+        Tyre replacement = new Tyre();
+        beanFactory.addBeanPostProcessor(new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                return "tyre".equals(beanName) ? replacement : bean;
+            }
+        });
+        assertThat(beanFactory.getBean("tyre")).isSameAs(replacement);
+
+        // 冻结后替换的BeanDefinition重新编译，引用的Bean在每次创建时获取
+        beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+        PropertyValues propertyValues = new PropertyValues();
+        propertyValues.addPropertyValue(new PropertyValue("car", new BeanReference("car")));
+        propertyValues.addPropertyValue(new PropertyValue("age", "30"));
+        beanFactory.registerBeanDefinition("person", new BeanDefinition(Person.class, propertyValues));
+        Person person = beanFactory.getBean("person", Person.class);
+        assertThat(person.getCar()).isSameAs(beanFactory.getBean("car"));
+        assertThat(person.getAge()).isEqualTo(30);
+    }
+
+    @Test
+    public void testInvalidDefinitionFailsOnCreation() {
+        DefaultListableBeanFactory beanFactory = createBeanFactory();
+        PropertyValues propertyValues = new PropertyValues();
+        propertyValues.addPropertyValue(new PropertyValue("missing", "value"));
+        beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class, propertyValues));
+        // 无法编译的BeanDefinition不影响冻结，错误在创建时抛出
+        beanFactory.freezeConfiguration();
+        assertThatThrownBy(() -> beanFactory.getBean("car")).isInstanceOf(BeansException.class);
+        // 缓存了无法编译的标记后，再次创建仍按BeanDefinition创建并抛出同样的错误
+        assertThatThrownBy(() -> beanFactory.getBean("car")).isInstanceOf(BeansException.class);
+    }
+
+    @Test
+    public void testDestroyMethodFromRecipe() {
+        LifecycleBean.DESTROY_COUNT.set(0);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition lifecycleBean = new BeanDefinition(LifecycleBean.class);
+        lifecycleBean.setDestroyMethodName("close");
+        beanFactory.registerBeanDefinition("lifecycleBean", lifecycleBean);
+        beanFactory.freezeConfiguration();
+        beanFactory.getBean("lifecycleBean");
+
+        beanFactory.destroySingletons();
+        assertThat(LifecycleBean.DESTROY_COUNT.get()).isEqualTo(1);
+    }
+}
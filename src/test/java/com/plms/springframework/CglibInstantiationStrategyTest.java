@@ -0,0 +1,53 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.Engine;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.support.CglibSubClassingInstantiationStrategy;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import net.sf.cglib.proxy.Enhancer;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/16 21:05
+ */
+public class CglibInstantiationStrategyTest {
+
+    @Test
+    public void testGeneratedSubclassIsCached() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setInstantiationStrategy(new CglibSubClassingInstantiationStrategy());
+        BeanDefinition beanDefinition = new BeanDefinition(Engine.class);
+        beanDefinition.setScope("prototype");
+        beanFactory.registerBeanDefinition("engine", beanDefinition);
+
+        Engine first = (Engine) beanFactory.getBean("engine");
+        Engine second = (Engine) beanFactory.getBean("engine", "v8");
+        Engine third = (Engine) beanFactory.getBean("engine", "v8", 8);
+        assertThat(Enhancer.isEnhanced(first.getClass())).isTrue();
+        // 所有实例共用同一个生成的子类
+        assertThat(second.getClass()).isSameAs(first.getClass());
+        assertThat(third.getClass()).isSameAs(first.getClass());
+        assertThat(second.getConstructedBy()).isEqualTo("(String)");
+        assertThat(third.getConstructedBy()).isEqualTo("(String, int)");
+    }
+
+    @Test
+    public void testAutoDetectUsesReflection() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setInstantiationStrategy(new CglibSubClassingInstantiationStrategy(true));
+        beanFactory.registerBeanDefinition("engine", new BeanDefinition(Engine.class));
+        // 自动模式下不需要生成子类
+        assertThat(beanFactory.getBean("engine").getClass()).isSameAs(Engine.class);
+    }
+
+    @Test
+    public void testDefaultGeneratesSubclass() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("engine", new BeanDefinition(Engine.class));
+        // 默认与原来一样为Bean生成CGLIB子类，自动模式需要显式开启
+        assertThat(Enhancer.isEnhanced(beanFactory.getBean("engine").getClass())).isTrue();
+    }
+}
@@ -0,0 +1,65 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.Person;
+import com.plms.springframework.bean.PropertyValue;
+import com.plms.springframework.bean.PropertyValues;
+import com.plms.springframework.bean.SlowBean;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.config.BeanReference;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/10 20:35
+ */
+public class ConcurrentSingletonTest {
+
+    @Test
+    public void testConcurrentGetSingleton() throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("slowBean", new BeanDefinition(SlowBean.class));
+        SlowBean.INSTANCES.set(0);
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit((Callable<Object>) () -> {
+                start.await();
+                return beanFactory.getBean("slowBean");
+            }));
+        }
+        start.countDown();
+        List<Object> beans = new CopyOnWriteArrayList<>();
+        for (Future<Object> future : futures) {
+            beans.add(future.get());
+        }
+        executor.shutdown();
+        // 所有线程拿到的都是同一个实例，且构造函数只执行了一次
+        assertThat(SlowBean.INSTANCES.get()).isEqualTo(1);
+        assertThat(beans).allMatch(bean -> bean == beans.get(0));
+    }
+
+    @Test
+    public void testCircularReference() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        PropertyValues propertyValues = new PropertyValues();
+        propertyValues.addPropertyValue(new PropertyValue("car", new BeanReference("person")));
+        beanFactory.registerBeanDefinition("person", new BeanDefinition(Person.class, propertyValues));
+        assertThatThrownBy(() -> beanFactory.getBean("person")).isInstanceOf(BeansException.class);
+    }
+}
@@ -0,0 +1,35 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.Engine;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/13 16:10
+ */
+public class ConstructorResolutionTest {
+
+    @Test
+    public void testResolveConstructorByArgumentTypes() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition beanDefinition = new BeanDefinition(Engine.class);
+        beanDefinition.setScope("prototype");
+        beanFactory.registerBeanDefinition("engine", beanDefinition);
+
+        assertThat(((Engine) beanFactory.getBean("engine")).getConstructedBy()).isEqualTo("()");
+        assertThat(((Engine) beanFactory.getBean("engine", "v8")).getConstructedBy()).isEqualTo("(String)");
+        assertThat(((Engine) beanFactory.getBean("engine", 8)).getConstructedBy()).isEqualTo("(int)");
+        assertThat(((Engine) beanFactory.getBean("engine", new StringBuilder("v8"))).getConstructedBy()).isEqualTo("(Object)");
+        assertThat(((Engine) beanFactory.getBean("engine", "v8", 8)).getConstructedBy()).isEqualTo("(String, int)");
+        // null可以匹配(String)和(Object)，选择更具体的(String)
+        assertThat(((Engine) beanFactory.getBean("engine", (Object) null)).getConstructedBy()).isEqualTo("(String)");
+        // 解析结果按参数类型签名缓存
+        assertThat(beanDefinition.getResolvedConstructor(Collections.singletonList(String.class))).isPresent();
+    }
+}
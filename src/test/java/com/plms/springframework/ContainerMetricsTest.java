@@ -0,0 +1,100 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.Car;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.common.CustomBeanPostProcessor;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.context.support.ClassPathXmlApplicationContext;
+import com.plms.springframework.core.metrics.ContainerMetrics;
+import com.plms.springframework.core.metrics.LatencyHistogram;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/24 20:30
+ */
+public class ContainerMetricsTest {
+
+    @Test
+    public void testPrototypeCreationsAndSingletonHits() {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:spring.xml");
+        ContainerMetrics metrics = applicationContext.getContainerMetrics();
+        metrics.reset();
+        for (int i = 0; i < 10; i++) {
+            applicationContext.getBean("person");
+        }
+        assertThat(metrics.getSingletonHits()).isEqualTo(10);
+        assertThat(metrics.getCreations()).isZero();
+
+        ClassPathXmlApplicationContext prototypeContext = new ClassPathXmlApplicationContext("classpath:prototype-bean.xml");
+        ContainerMetrics prototypeMetrics = prototypeContext.getContainerMetrics();
+        for (int i = 0; i < 100; i++) {
+            prototypeContext.getBean("car", Car.class);
+        }
+        // 在循环中获取原型Bean的代码会让该Bean的创建次数持续增长
+        assertThat(prototypeMetrics.getPrototypeCreations("car")).isEqualTo(100);
+        assertThat(prototypeMetrics.getPrototypeCreations()).containsEntry("car", 100L);
+        assertThat(prototypeMetrics.getCreations()).isEqualTo(100);
+        // 耗时按采样记录
+        assertThat(prototypeMetrics.getCreationLatency().getCount()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    public void testLatencyAndFailures() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setLatencySampleInterval(1);
+        beanFactory.addBeanPostProcessor(new CustomBeanPostProcessor());
+        BeanDefinition car = new BeanDefinition(Car.class);
+        car.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("car", car);
+        for (int i = 0; i < 10; i++) {
+            beanFactory.getBean("car");
+        }
+        // 采样间隔为1时每次创建都记录耗时，初始化前后各执行一次BeanPostProcessor链
+        ContainerMetrics metrics = beanFactory.getContainerMetrics();
+        assertThat(metrics.getCreationLatency().getCount()).isEqualTo(10);
+        assertThat(metrics.getCreationLatency().getPercentileNanos(50)).isPositive();
+        assertThat(metrics.getPostProcessorLatency().getCount()).isEqualTo(20);
+        assertThatThrownBy(() -> beanFactory.setLatencySampleInterval(3)).isInstanceOf(BeansException.class);
+
+        BeanDefinition beanDefinition = new BeanDefinition(AsyncInitBeanTest.FailingInitBean.class);
+        beanDefinition.setInitMethodName("init");
+        beanDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("failing", beanDefinition);
+        assertThatThrownBy(() -> beanFactory.getBean("failing")).isInstanceOf(BeansException.class);
+        assertThat(metrics.getCreationFailures()).isEqualTo(1);
+        assertThat(metrics.getPrototypeCreations("failing")).isZero();
+        assertThat(metrics.getCreations()).isEqualTo(10);
+    }
+
+    @Test
+    public void testMetricsDisabled() {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext(new String[]{"classpath:prototype-bean.xml"}, false);
+        applicationContext.setMetricsEnabled(false);
+        applicationContext.refresh();
+        applicationContext.getBean("car");
+        assertThat(applicationContext.getContainerMetrics().getCreations()).isZero();
+        assertThat(applicationContext.getContainerMetrics().getPrototypeCreations()).isEmpty();
+    }
+
+    @Test
+    public void testLatencyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);
+        }
+        histogram.record(1_000_000);
+        assertThat(histogram.getCount()).isEqualTo(100);
+        assertThat(histogram.getTotalNanos()).isEqualTo(99 * 100 + 1_000_000);
+        // 100纳秒落在[64, 128)的桶中
+        assertThat(histogram.getPercentileNanos(50)).isEqualTo(127);
+        assertThat(histogram.getPercentileNanos(100)).isGreaterThanOrEqualTo(1_000_000);
+        histogram.reset();
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getPercentileNanos(99)).isZero();
+    }
+}
@@ -0,0 +1,104 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.Car;
+import com.plms.springframework.bean.PropertyValue;
+import com.plms.springframework.bean.PropertyValues;
+import com.plms.springframework.bean.ShutdownBean;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.config.BeanReference;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/22 19:45
+ */
+public class DestroySingletonsTest {
+
+    private DefaultListableBeanFactory beanFactory;
+
+    @Before
+    public void init() {
+        ShutdownBean.DESTROYED.clear();
+        beanFactory = new DefaultListableBeanFactory();
+    }
+
+    private void register(String name, String dependency, long destroyMillis, boolean failOnDestroy) {
+        PropertyValues propertyValues = new PropertyValues();
+        propertyValues.addPropertyValue(new PropertyValue("name", name));
+        propertyValues.addPropertyValue(new PropertyValue("destroyMillis", destroyMillis));
+        propertyValues.addPropertyValue(new PropertyValue("failOnDestroy", failOnDestroy));
+        if (dependency != null) {
+            propertyValues.addPropertyValue(new PropertyValue("dependency", new BeanReference(dependency)));
+        }
+        beanFactory.registerBeanDefinition(name, new BeanDefinition(ShutdownBean.class, propertyValues));
+    }
+
+    @Test
+    public void testDestroyInReverseDependencyOrder() {
+        // database <- car(没有销毁方法) <- service，以及互不依赖的cache
+        register("database", null, 50, false);
+        PropertyValues carValues = new PropertyValues();
+        carValues.addPropertyValue(new PropertyValue("brand", "porsche"));
+        BeanDefinition car = new BeanDefinition(Car.class, carValues);
+        car.setDependsOn("database");
+        beanFactory.registerBeanDefinition("car", car);
+        register("service", null, 50, false);
+        beanFactory.getBeanDefinition("service").setDependsOn("car");
+        register("cache", null, 50, false);
+        beanFactory.preInstantiateSingletons();
+
+        beanFactory.destroySingletons();
+        assertThat(ShutdownBean.DESTROYED).containsExactlyInAnyOrder("database", "service", "cache");
+        assertThat(ShutdownBean.DESTROYED.indexOf("service")).isLessThan(ShutdownBean.DESTROYED.indexOf("database"));
+    }
+
+    @Test
+    public void testTimeoutAndFailuresAreCollected() {
+        register("database", null, 0, false);
+        register("slowService", "database", 5000, false);
+        register("brokenService", "database", 0, true);
+        register("otherBrokenService", null, 0, true);
+        beanFactory.setDestroyTimeoutMillis(100);
+        beanFactory.preInstantiateSingletons();
+
+        long start = System.currentTimeMillis();
+        assertThatThrownBy(beanFactory::destroySingletons).isInstanceOf(BeansException.class)
+                .satisfies(e -> assertThat(e.getSuppressed()).hasSize(2));
+        assertThat(System.currentTimeMillis() - start).isLessThan(2000);
+        // 依赖它的Bean超时或失败后，被依赖的Bean仍然会被销毁
+        assertThat(ShutdownBean.DESTROYED).containsExactly("database");
+    }
+
+    @Test
+    public void testShutdownTimeout() {
+        register("first", null, 5000, false);
+        register("second", "first", 0, false);
+        beanFactory.setDestroyParallelism(1);
+        beanFactory.setShutdownTimeoutMillis(200);
+        beanFactory.preInstantiateSingletons();
+
+        long start = System.currentTimeMillis();
+        assertThatThrownBy(beanFactory::destroySingletons).isInstanceOf(BeansException.class);
+        assertThat(System.currentTimeMillis() - start).isLessThan(2000);
+    }
+
+    @Test
+    public void testQueuedBeansAreNotTimedOut() {
+        // 只有一个销毁线程，后面的Bean在队列中等待的时间超过了超时时间，但每个Bean的销毁方法本身都没有超时
+        for (int i = 0; i < 5; i++) {
+            register("bean" + i, null, 60, false);
+        }
+        beanFactory.setDestroyParallelism(1);
+        beanFactory.setDestroyTimeoutMillis(150);
+        beanFactory.preInstantiateSingletons();
+
+        beanFactory.destroySingletons();
+        assertThat(ShutdownBean.DESTROYED).containsExactlyInAnyOrder("bean0", "bean1", "bean2", "bean3", "bean4");
+    }
+}
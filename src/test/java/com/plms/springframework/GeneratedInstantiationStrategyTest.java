@@ -0,0 +1,98 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.Engine;
+import com.plms.springframework.bean.PropertyValue;
+import com.plms.springframework.bean.PropertyValues;
+import com.plms.springframework.bean.Tyre;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.support.BeanAccessorGenerator;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.bean.factory.support.GeneratedInstantiationStrategy;
+import com.plms.springframework.common.ReloadingClassLoader;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/17 21:30
+ */
+public class GeneratedInstantiationStrategyTest {
+
+    @Test
+    public void testGeneratedInstantiation() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        GeneratedInstantiationStrategy instantiationStrategy = new GeneratedInstantiationStrategy();
+        beanFactory.setInstantiationStrategy(instantiationStrategy);
+        beanFactory.setPropertyInjectorResolver(instantiationStrategy.getPropertyInjectorResolver());
+
+        BeanDefinition engine = new BeanDefinition(Engine.class);
+        engine.setScope("prototype");
+        beanFactory.registerBeanDefinition("engine", engine);
+        assertThat(((Engine) beanFactory.getBean("engine")).getConstructedBy()).isEqualTo("()");
+        assertThat(((Engine) beanFactory.getBean("engine", 8)).getConstructedBy()).isEqualTo("(int)");
+        assertThat(((Engine) beanFactory.getBean("engine", "v8", 8)).getConstructedBy()).isEqualTo("(String, int)");
+
+        PropertyValues propertyValues = new PropertyValues();
+        propertyValues.addPropertyValue(new PropertyValue("brand", "michelin"));
+        propertyValues.addPropertyValue(new PropertyValue("size", "17"));
+        propertyValues.addPropertyValue(new PropertyValue("maker", "pirelli"));
+        beanFactory.registerBeanDefinition("tyre", new BeanDefinition(Tyre.class, propertyValues));
+        Tyre tyre = (Tyre) beanFactory.getBean("tyre");
+        // 有字段的属性优先写字段，私有字段回退到MethodHandle；没有字段的model通过生成的代码调用setter
+        assertThat(tyre.getClass()).isSameAs(Tyre.class);
+        assertThat(tyre.getBrand()).isEqualTo("michelin");
+        assertThat(tyre.getMaker()).isEqualTo("pirelli");
+        assertThat(tyre.getSize()).isEqualTo(17);
+        assertThat(BeanAccessorGenerator.getAccessor(Tyre.class).getPropertyIndex("maker")).isEqualTo(-1);
+        assertThat(BeanAccessorGenerator.getAccessor(Tyre.class).getPropertyIndex("size")).isEqualTo(-1);
+        assertThat(BeanAccessorGenerator.getAccessor(Tyre.class).getPropertyIndex("model")).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    public void testConcurrentFirstUse() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 20; round++) {
+                // 每轮使用新加载的Engine类，访问器都是第一次生成
+                Class<?> engineClass = new ReloadingClassLoader(Engine.class.getName()).loadClass(Engine.class.getName());
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<BeanAccessorGenerator.Accessor>> futures = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        return BeanAccessorGenerator.getAccessor(engineClass);
+                    }));
+                }
+                start.countDown();
+                for (Future<BeanAccessorGenerator.Accessor> future : futures) {
+                    assertThat(future.get().getAccessor().newInstance(future.get().getConstructorIndex(new Class<?>[0]), new Object[0]))
+                            .isInstanceOf(engineClass);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBeanClassLoaderCanBeCollected() throws Exception {
+        ReloadingClassLoader classLoader = new ReloadingClassLoader(Engine.class.getName());
+        assertThat(BeanAccessorGenerator.getAccessor(classLoader.loadClass(Engine.class.getName()))).isNotNull();
+        WeakReference<ClassLoader> reference = new WeakReference<>(classLoader);
+        classLoader = null;
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertThat(reference.get()).isNull();
+    }
+}
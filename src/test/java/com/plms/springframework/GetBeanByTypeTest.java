@@ -0,0 +1,79 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.Car;
+import com.plms.springframework.bean.Engine;
+import com.plms.springframework.bean.Person;
+import com.plms.springframework.bean.Tyre;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.common.ReloadingClassLoader;
+import org.junit.Test;
+
+import java.io.Serializable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/15 20:12
+ */
+public class GetBeanByTypeTest {
+
+    private DefaultListableBeanFactory createBeanFactory() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+        beanFactory.registerBeanDefinition("tyre", new BeanDefinition(Tyre.class));
+        beanFactory.registerBeanDefinition("person", new BeanDefinition(Person.class));
+        return beanFactory;
+    }
+
+    @Test
+    public void testGetBeanNamesForType() {
+        DefaultListableBeanFactory beanFactory = createBeanFactory();
+        // 子类也会被父类类型匹配到，结果按注册顺序排列
+        assertThat(beanFactory.getBeanNamesForType(Car.class)).containsExactly("car", "tyre");
+        assertThat(beanFactory.getBeanNamesForType(Tyre.class)).containsExactly("tyre");
+        assertThat(beanFactory.getBeanNamesForType(Object.class)).containsExactly("car", "tyre", "person");
+        assertThat(beanFactory.getBeanNamesForType(Serializable.class)).isEmpty();
+        assertThat(beanFactory.getBeansOfType(Car.class)).containsOnlyKeys("car", "tyre");
+    }
+
+    @Test
+    public void testGetBeanByType() {
+        DefaultListableBeanFactory beanFactory = createBeanFactory();
+        assertThat(beanFactory.getBean(Tyre.class)).isSameAs(beanFactory.getBean("tyre"));
+        assertThat(beanFactory.getBean(Person.class)).isSameAs(beanFactory.getBean("person"));
+        assertThatThrownBy(() -> beanFactory.getBean(Car.class)).isInstanceOf(BeansException.class).hasMessageContaining("car, tyre");
+        assertThatThrownBy(() -> beanFactory.getBean(Engine.class)).isInstanceOf(BeansException.class);
+    }
+
+    @Test
+    public void testSameNamedClassFromAnotherClassLoader() throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        Class<?> reloadedEngine = new ReloadingClassLoader(Engine.class.getName()).loadClass(Engine.class.getName());
+        beanFactory.registerBeanDefinition("engine", new BeanDefinition(Engine.class));
+        beanFactory.registerBeanDefinition("reloadedEngine", new BeanDefinition(reloadedEngine));
+        // 索引以类型名称为键，类已加载时再按Class区分同名的类型
+        assertThat(beanFactory.getBeanNamesForType(Engine.class)).containsExactly("engine");
+        assertThat(beanFactory.getBeanNamesForType(reloadedEngine)).containsExactly("reloadedEngine");
+        assertThat(beanFactory.getBean(Engine.class)).isSameAs(beanFactory.getBean("engine"));
+        beanFactory.freezeConfiguration();
+        assertThat(beanFactory.getBeanNamesForType(reloadedEngine)).containsExactly("reloadedEngine");
+    }
+
+    @Test
+    public void testRegisterAfterFreeze() {
+        DefaultListableBeanFactory beanFactory = createBeanFactory();
+        beanFactory.freezeConfiguration();
+        assertThat(beanFactory.isConfigurationFrozen()).isTrue();
+        assertThat(beanFactory.getBeanNamesForType(Engine.class)).isEmpty();
+        beanFactory.registerBeanDefinition("engine", new BeanDefinition(Engine.class));
+        assertThat(beanFactory.getBeanNamesForType(Engine.class)).containsExactly("engine");
+        // 覆盖同名的BeanDefinition时，旧类型的索引被移除
+        beanFactory.registerBeanDefinition("car", new BeanDefinition(Engine.class));
+        assertThat(beanFactory.getBeanNamesForType(Car.class)).containsExactly("tyre");
+        assertThat(beanFactory.getBeanNamesForType(Engine.class)).containsExactly("engine", "car");
+    }
+}
@@ -0,0 +1,96 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.Car;
+import com.plms.springframework.bean.StaticInitBean;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.bean.factory.xml.StaxXmlBeanDefinitionReader;
+import com.plms.springframework.context.support.ClassPathXmlApplicationContext;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/30 21:05
+ */
+public class LazyClassResolutionTest {
+
+    @Test
+    public void testClassLoadedOnFirstCreation() {
+        int initializations = StaticInitBean.ClassInitializations.COUNT.get();
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:lazy-class-resolution.xml");
+        // 按类型查找时从class文件中读取父类，不会初始化延迟加载的Bean的类
+        assertThat(applicationContext.getBeanNamesForType(Car.class)).containsExactlyInAnyOrder("car", "staticInitBean");
+        assertThat(StaticInitBean.ClassInitializations.COUNT.get()).isEqualTo(initializations);
+
+        StaticInitBean bean = applicationContext.getBean("staticInitBean", StaticInitBean.class);
+        assertThat(bean.getBrand()).isEqualTo("porsche");
+        assertThat(StaticInitBean.ClassInitializations.COUNT.get()).isEqualTo(1);
+        assertThat(applicationContext.getBeansOfType(Car.class)).containsKeys("car", "staticInitBean");
+        applicationContext.close();
+    }
+
+    @Test
+    public void testDefinitionKeepsClassName() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new StaxXmlBeanDefinitionReader(beanFactory).loadBeanDefinitions("classpath:lazy-class-resolution.xml");
+        BeanDefinition beanDefinition = beanFactory.getBeanDefinition("staticInitBean");
+        assertThat(beanDefinition.hasBeanClass()).isFalse();
+        assertThat(beanDefinition.getBeanClassName()).isEqualTo("com.plms.springframework.bean.StaticInitBean");
+
+        beanFactory.getBean("staticInitBean");
+        assertThat(beanDefinition.hasBeanClass()).isTrue();
+        assertThat(beanDefinition.getBeanClass()).isEqualTo(StaticInitBean.class);
+
+        // 修改类名后由Bean工厂重新加载，BeanDefinition本身不会加载类
+        beanDefinition.setBeanClassName(Car.class.getName());
+        assertThat(beanDefinition.hasBeanClass()).isFalse();
+        assertThatThrownBy(beanDefinition::getBeanClass).isInstanceOf(BeansException.class);
+        assertThat(beanDefinition.resolveBeanClass(beanFactory.getBeanClassLoader())).isEqualTo(Car.class);
+        assertThat(beanDefinition.getBeanClass()).isEqualTo(Car.class);
+    }
+
+    @Test
+    public void testBeanClassLoader() {
+        RecordingClassLoader classLoader = new RecordingClassLoader(getClass().getClassLoader());
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setBeanClassLoader(classLoader);
+        beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class.getName()));
+        assertThat(classLoader.loadedClasses).doesNotContain(Car.class.getName());
+        assertThat(beanFactory.getBeanNamesForType(Object.class)).containsExactly("car");
+
+        assertThat(beanFactory.getBean("car")).isInstanceOf(Car.class);
+        assertThat(classLoader.loadedClasses).contains(Car.class.getName());
+        assertThatThrownBy(() -> beanFactory.setBeanClassLoader(null)).isInstanceOf(BeansException.class);
+    }
+
+    @Test
+    public void testMissingClass() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        // class文件不存在时注册阶段就会报错
+        assertThatThrownBy(() -> beanFactory.registerBeanDefinition("missing", new BeanDefinition("com.plms.springframework.bean.Missing")))
+                .isInstanceOf(BeansException.class).hasMessageContaining("can not find class named [com.plms.springframework.bean.Missing]");
+        assertThat(beanFactory.containsBeanDefinition("missing")).isFalse();
+    }
+
+    private static class RecordingClassLoader extends ClassLoader {
+
+        private final Set<String> loadedClasses = ConcurrentHashMap.newKeySet();
+
+        RecordingClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            loadedClasses.add(name);
+            return super.loadClass(name, resolve);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.SlowBean;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.bean.factory.xml.XmlBeanDefinitionReader;
+import com.plms.springframework.context.support.ClassPathXmlApplicationContext;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/12 20:05
+ */
+public class LazyInitBeanTest {
+
+    @Test
+    public void testLazyInit() {
+        SlowBean.INSTANCES.set(0);
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:lazy-init.xml");
+        // beans标签上声明了default-lazy-init，刷新容器时不会创建slowBean
+        assertThat(SlowBean.INSTANCES.get()).isEqualTo(0);
+        Object slowBean = applicationContext.getBean("slowBean");
+        assertThat(SlowBean.INSTANCES.get()).isEqualTo(1);
+        assertThat(applicationContext.getBean("slowBean")).isSameAs(slowBean);
+    }
+
+    @Test
+    public void testLazyInitAttribute() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(beanFactory).loadBeanDefinitions("classpath:lazy-init.xml");
+        assertThat(beanFactory.getBeanDefinition("slowBean").isLazyInit()).isTrue();
+        assertThat(beanFactory.getBeanDefinition("car").isLazyInit()).isFalse();
+    }
+}
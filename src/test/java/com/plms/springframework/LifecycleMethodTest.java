@@ -0,0 +1,72 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.LifecycleBean;
+import com.plms.springframework.bean.Parser;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.bean.factory.xml.XmlBeanDefinitionReader;
+import com.plms.springframework.context.support.ClassPathXmlApplicationContext;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/15 20:46
+ */
+public class LifecycleMethodTest {
+
+    @Test
+    public void testMissingInitMethodFailsAtRegistration() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition beanDefinition = new BeanDefinition(LifecycleBean.class);
+        beanDefinition.setInitMethodName("missing");
+        assertThatThrownBy(() -> beanFactory.registerBeanDefinition("lifecycleBean", beanDefinition))
+                .isInstanceOf(BeansException.class)
+                .hasMessageContaining("missing");
+    }
+
+    @Test
+    public void testMissingInitMethodOfXmlBeanFailsBeforeInstantiation() {
+        // XML中的Bean只记录了类名，初始化方法在冻结配置时校验，不会先实例化和注入属性
+        Parser.INSTANCES.set(0);
+        assertThatThrownBy(() -> new ClassPathXmlApplicationContext("classpath:missing-init-method.xml"))
+                .isInstanceOf(BeansException.class)
+                .hasMessageContaining("misspelledInit");
+        assertThat(Parser.INSTANCES.get()).isEqualTo(0);
+
+        // 未冻结配置时在实例化之前校验
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(beanFactory).loadBeanDefinitions("classpath:missing-init-method.xml");
+        assertThatThrownBy(() -> beanFactory.getBean("parser")).isInstanceOf(BeansException.class)
+                .hasMessageContaining("misspelledInit");
+        assertThat(Parser.INSTANCES.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void testCachedLifecycleMethods() {
+        LifecycleBean.INIT_COUNT.set(0);
+        LifecycleBean.DESTROY_COUNT.set(0);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition prototype = new BeanDefinition(LifecycleBean.class);
+        prototype.setScope("prototype");
+        prototype.setInitMethodName("init");
+        beanFactory.registerBeanDefinition("prototypeBean", prototype);
+        BeanDefinition singleton = new BeanDefinition(LifecycleBean.class);
+        singleton.setInitMethodName("init");
+        singleton.setDestroyMethodName("close");
+        beanFactory.registerBeanDefinition("singletonBean", singleton);
+
+        // 注册时已经解析好初始化方法
+        assertThat(prototype.getResolvedInitMethod()).isNotNull();
+        for (int i = 0; i < 3; i++) {
+            beanFactory.getBean("prototypeBean");
+        }
+        beanFactory.getBean("singletonBean");
+        assertThat(LifecycleBean.INIT_COUNT.get()).isEqualTo(4);
+        beanFactory.destroySingletons();
+        assertThat(LifecycleBean.DESTROY_COUNT.get()).isEqualTo(1);
+    }
+}
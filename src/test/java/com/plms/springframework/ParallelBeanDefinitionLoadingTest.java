@@ -0,0 +1,131 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.PropertyValue;
+import com.plms.springframework.bean.factory.support.AbstractBeanDefinitionReader;
+import com.plms.springframework.bean.factory.support.BeanDefinitionRegistry;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.bean.factory.xml.StaxXmlBeanDefinitionReader;
+import com.plms.springframework.bean.factory.xml.XmlBeanDefinitionReader;
+import com.plms.springframework.common.RecordingBeanFactory;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/28 20:00
+ */
+public class ParallelBeanDefinitionLoadingTest {
+
+    private static final String[] LOCATIONS = {"classpath:spring.xml", "classpath:async-init.xml", "classpath:conversion.xml",
+            "classpath:pooled-bean.xml", "classpath:thread-scope.xml"};
+
+    @Test
+    public void testSameResultAsSequentialLoading() {
+        RecordingBeanFactory sequential = new RecordingBeanFactory();
+        XmlBeanDefinitionReader sequentialReader = new StaxXmlBeanDefinitionReader(sequential);
+        sequentialReader.setParallelism(1);
+        sequentialReader.loadBeanDefinitions(LOCATIONS);
+
+        for (XmlBeanDefinitionReader reader : Arrays.asList(new XmlBeanDefinitionReader(new RecordingBeanFactory()),
+                new StaxXmlBeanDefinitionReader(new RecordingBeanFactory()))) {
+            reader.setParallelism(4);
+            reader.loadBeanDefinitions(LOCATIONS);
+            // 按配置文件和文件中bean标签的顺序注册
+            assertThat(((RecordingBeanFactory) reader.getRegistry()).describe()).isEqualTo(sequential.describe());
+        }
+    }
+
+    @Test
+    public void testSameDuplicateErrorAsSequentialLoading() {
+        // prototype-bean.xml中的car与spring.xml重名，stax-reader.xml中的car与前面的配置文件重名
+        String[] locations = {"classpath:spring.xml", "classpath:async-init.xml", "classpath:prototype-bean.xml", "classpath:stax-reader.xml"};
+        RecordingBeanFactory sequential = new RecordingBeanFactory();
+        StaxXmlBeanDefinitionReader sequentialReader = new StaxXmlBeanDefinitionReader(sequential);
+        sequentialReader.setParallelism(1);
+        Throwable expected = catchThrowable(() -> sequentialReader.loadBeanDefinitions(locations));
+        assertThat(expected).hasMessage("BeanName [car] is duplicate");
+
+        for (int i = 0; i < 20; i++) {
+            RecordingBeanFactory parallel = new RecordingBeanFactory();
+            StaxXmlBeanDefinitionReader parallelReader = new StaxXmlBeanDefinitionReader(parallel);
+            parallelReader.setParallelism(4);
+            Throwable actual = catchThrowable(() -> parallelReader.loadBeanDefinitions(locations));
+            assertThat(actual).isExactlyInstanceOf(expected.getClass()).hasMessage(expected.getMessage());
+            // 出错前注册的BeanDefinition也相同
+            assertThat(parallel.describe()).isEqualTo(sequential.describe());
+        }
+    }
+
+    @Test
+    public void testParseErrorReportedInOrder() {
+        String[] locations = {"classpath:spring.xml", "classpath:missing.xml", "classpath:async-init.xml"};
+        StaxXmlBeanDefinitionReader reader = new StaxXmlBeanDefinitionReader(new DefaultListableBeanFactory());
+        reader.setParallelism(3);
+        Throwable failure = catchThrowable(() -> reader.loadBeanDefinitions(locations));
+        assertThat(failure).isNotNull();
+        // missing.xml之前的配置文件已经注册，之后的被丢弃
+        assertThat(reader.getRegistry().containsBeanDefinition("person")).isTrue();
+        assertThat(reader.getRegistry().containsBeanDefinition("first")).isFalse();
+    }
+
+    @Test
+    public void testSubclassParsing() {
+        RecordingBeanFactory sequential = new RecordingBeanFactory();
+        new StaxXmlBeanDefinitionReader(sequential).loadBeanDefinitions(LOCATIONS);
+        int propertyCount = sequential.getRegisteredNames().stream()
+                .mapToInt(beanName -> sequential.getBeanDefinition(beanName).getPropertyValues().getPropertyValues().length).sum();
+
+        // 没有重写createDelegateReader的子类按顺序加载，重写的解析方法对所有配置文件生效
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        AtomicInteger parsed = new AtomicInteger();
+        StaxXmlBeanDefinitionReader reader = new StaxXmlBeanDefinitionReader(new RecordingBeanFactory()) {
+            @Override
+            protected PropertyValue createPropertyValue(String name, String value, String ref) {
+                threads.add(Thread.currentThread().getName());
+                parsed.incrementAndGet();
+                return super.createPropertyValue(name, value, ref);
+            }
+        };
+        reader.setParallelism(4);
+        reader.loadBeanDefinitions(LOCATIONS);
+        assertThat(parsed.get()).isEqualTo(propertyCount);
+        assertThat(threads).containsExactly(Thread.currentThread().getName());
+        assertThat(((RecordingBeanFactory) reader.getRegistry()).describe()).isEqualTo(sequential.describe());
+
+        // 重写了createDelegateReader的子类并行加载
+        CountingReader countingReader = new CountingReader(new RecordingBeanFactory(), new AtomicInteger());
+        countingReader.setParallelism(4);
+        countingReader.loadBeanDefinitions(LOCATIONS);
+        assertThat(countingReader.parsed.get()).isEqualTo(propertyCount);
+        assertThat(((RecordingBeanFactory) countingReader.getRegistry()).describe()).isEqualTo(sequential.describe());
+    }
+
+    private static class CountingReader extends StaxXmlBeanDefinitionReader {
+
+        private final AtomicInteger parsed;
+
+        CountingReader(BeanDefinitionRegistry registry, AtomicInteger parsed) {
+            super(registry);
+            this.parsed = parsed;
+        }
+
+        @Override
+        protected AbstractBeanDefinitionReader createDelegateReader(BeanDefinitionRegistry registry) {
+            return new CountingReader(registry, parsed);
+        }
+
+        @Override
+        protected PropertyValue createPropertyValue(String name, String value, String ref) {
+            assertThat(Thread.currentThread().getName()).startsWith("bean-definition-loader-");
+            parsed.incrementAndGet();
+            return super.createPropertyValue(name, value, ref);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.PropertyValue;
+import com.plms.springframework.bean.PropertyValues;
+import com.plms.springframework.bean.SlowInitBean;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.config.BeanReference;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.context.support.ClassPathXmlApplicationContext;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/11 19:50
+ */
+public class ParallelPreInstantiationTest {
+
+    @Test
+    public void testParallelPreInstantiation() {
+        SlowInitBean.INITIALIZED.clear();
+        SlowInitBean.OVERLAPPED.clear();
+        SlowInitBean.overlap = new CountDownLatch(3);
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext(new String[]{"classpath:parallel-pre-instantiation.xml"}, false);
+        applicationContext.setPreInstantiationParallelism(4);
+        applicationContext.refresh();
+        // first、second、third同时处于初始化中，fourth在first和third之后初始化
+        assertThat(SlowInitBean.OVERLAPPED).containsExactlyInAnyOrder("first", "second", "third");
+        assertThat(SlowInitBean.INITIALIZED).hasSize(4);
+        assertThat(SlowInitBean.INITIALIZED.indexOf("fourth")).isGreaterThan(SlowInitBean.INITIALIZED.indexOf("first"));
+        assertThat(SlowInitBean.INITIALIZED.indexOf("fourth")).isGreaterThan(SlowInitBean.INITIALIZED.indexOf("third"));
+        SlowInitBean fourth = applicationContext.getBean("fourth", SlowInitBean.class);
+        assertThat(fourth.getDependency()).isSameAs(applicationContext.getBean("first"));
+    }
+
+    @Test
+    public void testDeepDependencyChain() {
+        int depth = 50000;
+        for (int parallelism : new int[]{1, 4}) {
+            GraphExposingBeanFactory beanFactory = new GraphExposingBeanFactory();
+            beanFactory.setPreInstantiationParallelism(parallelism);
+            // bean0 -> bean1 -> ... 每个单例依赖下一个单例
+            for (int i = 0; i < depth; i++) {
+                PropertyValues propertyValues = new PropertyValues();
+                if (i + 1 < depth) {
+                    propertyValues.addPropertyValue(new PropertyValue("dependency", new BeanReference("bean" + (i + 1))));
+                }
+                beanFactory.registerBeanDefinition("bean" + i, new BeanDefinition(SlowInitBean.class, propertyValues));
+            }
+            beanFactory.preInstantiateSingletons();
+            assertThat(((SlowInitBean) beanFactory.getBean("bean0")).getDependency()).isSameAs(beanFactory.getBean("bean1"));
+        }
+
+        // root经过一条很长的延迟加载Bean的链依赖leaf
+        GraphExposingBeanFactory beanFactory = new GraphExposingBeanFactory();
+        for (int i = 0; i < depth; i++) {
+            PropertyValues propertyValues = new PropertyValues();
+            propertyValues.addPropertyValue(new PropertyValue("dependency", new BeanReference(i + 1 < depth ? "lazy" + (i + 1) : "leaf")));
+            BeanDefinition lazy = new BeanDefinition(SlowInitBean.class, propertyValues);
+            lazy.setLazyInit(true);
+            beanFactory.registerBeanDefinition("lazy" + i, lazy);
+        }
+        PropertyValues propertyValues = new PropertyValues();
+        propertyValues.addPropertyValue(new PropertyValue("dependency", new BeanReference("lazy0")));
+        beanFactory.registerBeanDefinition("root", new BeanDefinition(SlowInitBean.class, propertyValues));
+        beanFactory.registerBeanDefinition("leaf", new BeanDefinition(SlowInitBean.class));
+        Map<String, Set<String>> graph = beanFactory.getSingletonDependencyGraph();
+        assertThat(graph.get("root")).containsExactly("leaf");
+        assertThat(graph.keySet()).containsExactly("leaf", "root");
+    }
+
+    @Test
+    public void testCircularDependency() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        String[] names = {"a", "b", "c"};
+        for (int i = 0; i < names.length; i++) {
+            PropertyValues propertyValues = new PropertyValues();
+            propertyValues.addPropertyValue(new PropertyValue("dependency", new BeanReference(names[(i + 1) % names.length])));
+            beanFactory.registerBeanDefinition(names[i], new BeanDefinition(SlowInitBean.class, propertyValues));
+        }
+        assertThatThrownBy(beanFactory::preInstantiateSingletons).isInstanceOf(BeansException.class)
+                .hasMessageContaining("Circular dependency between singleton beans");
+    }
+
+    private static class GraphExposingBeanFactory extends DefaultListableBeanFactory {
+
+        Map<String, Set<String>> getSingletonDependencyGraph() {
+            return buildSingletonDependencyGraph();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.Car;
+import com.plms.springframework.bean.Parser;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.config.BeanPoolMetrics;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.context.support.ClassPathXmlApplicationContext;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/16 21:10
+ */
+public class PooledBeanTest {
+
+    @Test
+    public void testBorrowAndReturn() {
+        Parser.INSTANCES.set(0);
+        Parser.DESTROY_COUNT.set(0);
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:pooled-bean.xml");
+        // 刷新容器时预热到pool-min-idle个实例
+        assertThat(Parser.INSTANCES.get()).isEqualTo(2);
+
+        Parser first = applicationContext.getBean("parser", Parser.class);
+        Parser second = applicationContext.getBean("parser", Parser.class);
+        Parser third = applicationContext.getBean("parser", Parser.class);
+        assertThat(first).isNotSameAs(second);
+        assertThat(Parser.INSTANCES.get()).isEqualTo(3);
+
+        first.append("dirty");
+        applicationContext.returnBean("parser", first);
+        applicationContext.returnBean("parser", second);
+        // 池已满，第三个实例被销毁
+        applicationContext.returnBean("parser", third);
+        assertThat(Parser.DESTROY_COUNT.get()).isEqualTo(1);
+
+        Parser reused = applicationContext.getBean("parser", Parser.class);
+        assertThat(reused).isIn(first, second);
+        assertThat(reused.getBuffer()).isEmpty();
+
+        BeanPoolMetrics metrics = applicationContext.getBeanPoolMetrics("parser");
+        assertThat(metrics.getIdle()).isEqualTo(1);
+        assertThat(metrics.getCreated()).isEqualTo(3);
+        assertThat(metrics.getBorrowHits()).isEqualTo(3);
+        assertThat(metrics.getBorrowMisses()).isEqualTo(1);
+        assertThat(metrics.getReturned()).isEqualTo(2);
+        assertThat(metrics.getDiscarded()).isEqualTo(1);
+
+        // 关闭容器时销毁池中的空闲实例
+        applicationContext.close();
+        assertThat(Parser.DESTROY_COUNT.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testResetFailureDiscardsBean() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition beanDefinition = new BeanDefinition(Parser.class);
+        beanDefinition.setScope("pooled");
+        beanFactory.registerBeanDefinition("parser", beanDefinition);
+        Parser parser = (Parser) beanFactory.getBean("parser");
+        parser.setBroken(true);
+        beanFactory.returnBean("parser", parser);
+        assertThat(beanFactory.getBeanPoolMetrics("parser").getIdle()).isEqualTo(0);
+        assertThat(beanFactory.getBeanPoolMetrics("parser").getDiscarded()).isEqualTo(1);
+        assertThat(beanFactory.getBean("parser")).isNotSameAs(parser);
+    }
+
+    @Test
+    public void testInvalidPool() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+        assertThatThrownBy(() -> beanFactory.returnBean("car", new Car())).isInstanceOf(BeansException.class);
+        BeanDefinition beanDefinition = new BeanDefinition(Parser.class);
+        beanDefinition.setScope("pooled");
+        beanDefinition.setPoolMinIdle(4);
+        beanDefinition.setPoolMaxIdle(2);
+        assertThatThrownBy(() -> beanFactory.registerBeanDefinition("parser", beanDefinition)).isInstanceOf(BeansException.class);
+    }
+
+    private static DefaultListableBeanFactory createPooledBeanFactory() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition beanDefinition = new BeanDefinition(Parser.class);
+        beanDefinition.setScope("pooled");
+        beanDefinition.setPoolMinIdle(1);
+        beanFactory.registerBeanDefinition("parser", beanDefinition);
+        return beanFactory;
+    }
+
+    @Test
+    public void testDoubleAndForeignReturn() {
+        DefaultListableBeanFactory beanFactory = createPooledBeanFactory();
+        Parser parser = (Parser) beanFactory.getBean("parser");
+        beanFactory.returnBean("parser", parser);
+        // 重复归还和归还不是从池中借出的实例都会被拒绝，池中不会出现同一个实例两次
+        assertThatThrownBy(() -> beanFactory.returnBean("parser", parser)).isInstanceOf(BeansException.class);
+        assertThatThrownBy(() -> beanFactory.returnBean("parser", new Parser())).isInstanceOf(BeansException.class);
+        assertThat(beanFactory.getBeanPoolMetrics("parser").getIdle()).isEqualTo(1);
+        assertThat(beanFactory.getBean("parser")).isSameAs(parser);
+        assertThat(beanFactory.getBean("parser")).isNotSameAs(parser);
+    }
+
+    @Test
+    public void testReturnAfterClose() {
+        Parser.INSTANCES.set(0);
+        Parser.DESTROY_COUNT.set(0);
+        DefaultListableBeanFactory beanFactory = createPooledBeanFactory();
+        Parser parser = (Parser) beanFactory.getBean("parser");
+        beanFactory.destroySingletons();
+
+        // 容器关闭后归还的实例被销毁，不会重新创建对象池并预热
+        beanFactory.returnBean("parser", parser);
+        assertThat(Parser.DESTROY_COUNT.get()).isEqualTo(1);
+        assertThat(Parser.INSTANCES.get()).isEqualTo(1);
+        assertThat(beanFactory.getBeanPoolMetrics("parser").getIdle()).isEqualTo(0);
+        assertThatThrownBy(() -> beanFactory.returnBean("parser", parser)).isInstanceOf(BeansException.class);
+    }
+}
@@ -0,0 +1,59 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.Car;
+import com.plms.springframework.bean.ServerConfig;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.common.CarBeanPostProcessor;
+import com.plms.springframework.context.support.ClassPathXmlApplicationContext;
+import com.plms.springframework.core.convert.DataSize;
+import com.plms.springframework.core.convert.support.DefaultConversionService;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/20 16:45
+ */
+public class PropertyConversionTest {
+
+    @Test
+    public void testConvertPropertyValues() {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:conversion.xml");
+        ServerConfig first = applicationContext.getBean("serverConfig", ServerConfig.class);
+        assertThat(first.getPort()).isEqualTo(8080);
+        assertThat(first.isCompression()).isTrue();
+        assertThat(first.getTimeout()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(first.getMaxUploadSize()).isEqualTo(DataSize.ofMegabytes(10));
+        assertThat(first.getTimeUnit()).isEqualTo(TimeUnit.MILLISECONDS);
+        assertThat(first.getWeights()).containsExactly(3, 2, 1);
+        // 没有注册转换器的类型通过hutool转换
+        assertThat(first.getLocale()).isEqualTo(Locale.SIMPLIFIED_CHINESE);
+        assertThat(first.getHosts()).containsExactly("a.example.com", "b.example.com");
+        // 数组每次创建时重新转换，原型Bean之间不共享
+        ServerConfig second = applicationContext.getBean("serverConfig", ServerConfig.class);
+        assertThat(second.getWeights()).isEqualTo(first.getWeights()).isNotSameAs(first.getWeights());
+        assertThat(second.getTimeout()).isSameAs(first.getTimeout());
+    }
+
+    @Test
+    public void testConversionServiceBean() {
+        // 容器中定义的ConversionService在创建BeanPostProcessor之前生效
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:conversion-service.xml");
+        CarBeanPostProcessor beanPostProcessor = applicationContext.getBean("carBeanPostProcessor", CarBeanPostProcessor.class);
+        assertThat(beanPostProcessor.getCar().getBrand()).isEqualTo("hongqi");
+    }
+
+    @Test
+    public void testConversionServicePerBeanFactory() {
+        DefaultListableBeanFactory first = new DefaultListableBeanFactory();
+        DefaultListableBeanFactory second = new DefaultListableBeanFactory();
+        assertThat(first.getConversionService()).isNotSameAs(second.getConversionService());
+        ((DefaultConversionService) first.getConversionService()).addConverter(String.class, Car.class, source -> new Car());
+        assertThat(second.getConversionService().canConvert(String.class, Car.class)).isFalse();
+    }
+}
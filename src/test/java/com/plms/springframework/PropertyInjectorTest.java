@@ -0,0 +1,55 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.PropertyValue;
+import com.plms.springframework.bean.PropertyValues;
+import com.plms.springframework.bean.Tyre;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.bean.factory.support.PropertyInjectorResolver;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/14 15:28
+ */
+public class PropertyInjectorTest {
+
+    @Test
+    public void testInjectProperties() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        PropertyValues propertyValues = new PropertyValues();
+        propertyValues.addPropertyValue(new PropertyValue("brand", "michelin"));
+        propertyValues.addPropertyValue(new PropertyValue("size", "17"));
+        propertyValues.addPropertyValue(new PropertyValue("maker", "pirelli"));
+        beanFactory.registerBeanDefinition("tyre", new BeanDefinition(Tyre.class, propertyValues));
+        Tyre tyre = (Tyre) beanFactory.getBean("tyre");
+        // 父类的属性直接写父类的字段
+        assertThat(tyre.getBrand()).isEqualTo("michelin");
+        // 直接写字段，并转换为int
+        assertThat(tyre.getSize()).isEqualTo(17);
+        // 与BeanUtil.setFieldValue一致，有字段时即使有setter也直接写字段
+        assertThat(tyre.getMaker()).isEqualTo("pirelli");
+    }
+
+    @Test
+    public void testSetterOnlyProperty() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        PropertyValues propertyValues = new PropertyValues();
+        propertyValues.addPropertyValue(new PropertyValue("model", "pirelli"));
+        beanFactory.registerBeanDefinition("tyre", new BeanDefinition(Tyre.class, propertyValues));
+        // 没有对应字段的属性通过setter注入
+        assertThat(((Tyre) beanFactory.getBean("tyre")).getMaker()).isEqualTo("PIRELLI");
+    }
+
+    @Test
+    public void testInjectorIsCached() {
+        PropertyInjectorResolver resolver = new PropertyInjectorResolver();
+        assertThat(resolver.getPropertyInjector(Tyre.class, "size")).isSameAs(resolver.getPropertyInjector(Tyre.class, "size"));
+        assertThat(resolver.getPropertyInjector(Tyre.class, "size").getPropertyType()).isEqualTo(int.class);
+        assertThatThrownBy(() -> resolver.getPropertyInjector(Tyre.class, "missing")).isInstanceOf(BeansException.class);
+    }
+}
@@ -0,0 +1,70 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.PropertyValue;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.bean.factory.xml.StaxXmlBeanDefinitionReader;
+import com.plms.springframework.bean.factory.xml.XmlBeanDefinitionReader;
+import com.plms.springframework.common.RecordingBeanFactory;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/27 20:10
+ */
+public class StaxXmlBeanDefinitionReaderTest {
+
+    private static final String[] LOCATIONS = {"classpath:spring.xml", "classpath:lazy-init.xml", "classpath:pooled-bean.xml",
+            "classpath:thread-scope.xml", "classpath:conversion.xml", "classpath:async-init.xml", "classpath:prototype-bean.xml",
+            "classpath:init-and-destroy-method.xml", "classpath:parallel-pre-instantiation.xml", "classpath:stax-reader.xml"};
+
+    @Test
+    public void testSameDefinitionsAsDomReader() {
+        for (String location : LOCATIONS) {
+            RecordingBeanFactory domFactory = new RecordingBeanFactory();
+            new XmlBeanDefinitionReader(domFactory).loadBeanDefinitions(location);
+            RecordingBeanFactory staxFactory = new RecordingBeanFactory();
+            new StaxXmlBeanDefinitionReader(staxFactory).loadBeanDefinitions(location);
+            // 注册顺序也与DOM解析相同
+            assertThat(staxFactory.describe()).as(location).isEqualTo(domFactory.describe());
+        }
+    }
+
+    @Test
+    public void testStreamingParse() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new StaxXmlBeanDefinitionReader(beanFactory).loadBeanDefinitions("classpath:stax-reader.xml");
+        // description中的bean和property不会被注册
+        assertThat(beanFactory.getBeanDefinitionNames()).containsExactlyInAnyOrder("car", "person", "parser");
+        BeanDefinition person = beanFactory.getBeanDefinition("person");
+        assertThat(person.isLazyInit()).isTrue();
+        assertThat(person.getDependsOn()).containsExactly("car", "car");
+        assertThat(person.getPropertyValues().getPropertyValues()).extracting(PropertyValue::getName).containsExactly("name", "car");
+        assertThat(person.getPropertyValues().getPropertyValue("name").getValue()).isEqualTo("derek & co");
+        assertThat(beanFactory.getBeanDefinition("car").isLazyInit()).isFalse();
+        assertThat(beanFactory.getBeanDefinition("parser").getPoolMaxIdle()).isEqualTo(2);
+    }
+
+    @Test
+    public void testInvalidDocument() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        StaxXmlBeanDefinitionReader reader = new StaxXmlBeanDefinitionReader(beanFactory);
+        String duplicate = "<beans><bean id=\"car\" class=\"com.plms.springframework.bean.Car\"/>"
+                + "<bean id=\"car\" class=\"com.plms.springframework.bean.Car\"/></beans>";
+        assertThatThrownBy(() -> reader.loadBeanDefinitions(() -> new ByteArrayInputStream(duplicate.getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(BeansException.class).hasMessageContaining("is duplicate");
+        String malformed = "<beans><bean id=\"truck\" class=\"com.plms.springframework.bean.Car\"></beans>";
+        assertThatThrownBy(() -> reader.loadBeanDefinitions(() -> new ByteArrayInputStream(malformed.getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(BeansException.class);
+        String emptyPropertyName = "<beans><bean id=\"bus\" class=\"com.plms.springframework.bean.Car\"><property value=\"a\"/></bean></beans>";
+        assertThatThrownBy(() -> reader.loadBeanDefinitions(() -> new ByteArrayInputStream(emptyPropertyName.getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(BeansException.class).hasMessageContaining("can not be empty");
+    }
+}
@@ -0,0 +1,59 @@
+package com.plms.springframework;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.Car;
+import com.plms.springframework.bean.LifecycleBean;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+import com.plms.springframework.context.support.ClassPathXmlApplicationContext;
+import com.plms.springframework.context.support.SimpleThreadScope;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/17 21:05
+ */
+public class ThreadScopeTest {
+
+    @Test
+    public void testThreadScope() throws Exception {
+        LifecycleBean.DESTROY_COUNT.set(0);
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:thread-scope.xml");
+        SimpleThreadScope threadScope = (SimpleThreadScope) applicationContext.getRegisteredScope("thread");
+
+        Object bean = applicationContext.getBean("lifecycleBean");
+        // 同一个线程中获取的是同一个实例，不同线程中获取的是不同实例
+        assertThat(applicationContext.getBean("lifecycleBean")).isSameAs(bean);
+        Object otherThreadBean = CompletableFuture.supplyAsync(() -> {
+            Object result = applicationContext.getBean("lifecycleBean");
+            threadScope.destroyCurrentThread();
+            return result;
+        }).get();
+        assertThat(otherThreadBean).isNotSameAs(bean);
+        assertThat(LifecycleBean.DESTROY_COUNT.get()).isEqualTo(1);
+
+        // 销毁当前线程的作用域后重新创建
+        threadScope.destroyCurrentThread();
+        assertThat(LifecycleBean.DESTROY_COUNT.get()).isEqualTo(2);
+        assertThat(applicationContext.getBean("lifecycleBean")).isNotSameAs(bean);
+        threadScope.destroyCurrentThread();
+    }
+
+    @Test
+    public void testUnregisteredScope() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition beanDefinition = new BeanDefinition(Car.class);
+        beanDefinition.setScope("session");
+        beanFactory.registerBeanDefinition("car", beanDefinition);
+        assertThatThrownBy(() -> beanFactory.getBean("car")).isInstanceOf(BeansException.class).hasMessageContaining("session");
+        assertThatThrownBy(() -> beanFactory.registerScope("singleton", new SimpleThreadScope())).isInstanceOf(BeansException.class);
+
+        beanFactory.registerScope("session", new SimpleThreadScope());
+        assertThat(beanFactory.getBean("car")).isSameAs(beanFactory.getBean("car"));
+    }
+}
@@ -0,0 +1,35 @@
+package com.plms.springframework.bean;
+
+/**
+ * 有多个重载构造函数的Bean，用于测试构造函数解析
+ * @Author bigboss
+ * @Date 2021/11/13 16:02
+ */
+public class Engine {
+
+    private final String constructedBy;
+
+    public Engine() {
+        this.constructedBy = "()";
+    }
+
+    public Engine(String model) {
+        this.constructedBy = "(String)";
+    }
+
+    public Engine(Object model) {
+        this.constructedBy = "(Object)";
+    }
+
+    public Engine(int cylinders) {
+        this.constructedBy = "(int)";
+    }
+
+    public Engine(String model, int cylinders) {
+        this.constructedBy = "(String, int)";
+    }
+
+    public String getConstructedBy() {
+        return constructedBy;
+    }
+}
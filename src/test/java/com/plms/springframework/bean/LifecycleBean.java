@@ -0,0 +1,23 @@
+package com.plms.springframework.bean;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 统计初始化方法和销毁方法调用次数的Bean
+ * @Author bigboss
+ * @Date 2021/11/15 20:40
+ */
+public class LifecycleBean {
+
+    public static final AtomicInteger INIT_COUNT = new AtomicInteger();
+
+    public static final AtomicInteger DESTROY_COUNT = new AtomicInteger();
+
+    public void init() {
+        INIT_COUNT.incrementAndGet();
+    }
+
+    public void close() {
+        DESTROY_COUNT.incrementAndGet();
+    }
+}
@@ -0,0 +1,51 @@
+package com.plms.springframework.bean;
+
+import com.plms.springframework.bean.factory.DisposableBean;
+import com.plms.springframework.bean.factory.PoolableBean;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 创建成本较高、可以复用的Bean，用于测试pooled作用域
+ * @Author bigboss
+ * @Date 2021/11/16 21:02
+ */
+public class Parser implements PoolableBean, DisposableBean {
+
+    public static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    public static final AtomicInteger DESTROY_COUNT = new AtomicInteger();
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    private boolean broken;
+
+    public Parser() {
+        INSTANCES.incrementAndGet();
+    }
+
+    public void append(String text) {
+        buffer.append(text);
+    }
+
+    public String getBuffer() {
+        return buffer.toString();
+    }
+
+    public void setBroken(boolean broken) {
+        this.broken = broken;
+    }
+
+    @Override
+    public void reset() throws Exception {
+        if (broken) {
+            throw new IllegalStateException("parser is broken");
+        }
+        buffer.setLength(0);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        DESTROY_COUNT.incrementAndGet();
+    }
+}
@@ -0,0 +1,34 @@
+package com.plms.springframework.bean;
+
+import com.plms.springframework.core.convert.DataSize;
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 包含多种需要转换的属性类型的Bean
+ * @Author bigboss
+ * @Date 2021/11/20 16:30
+ */
+@Data
+public class ServerConfig {
+
+    private int port;
+
+    private boolean compression;
+
+    private Duration timeout;
+
+    private DataSize maxUploadSize;
+
+    private TimeUnit timeUnit;
+
+    private int[] weights;
+
+    private Locale locale;
+
+    private List<String> hosts;
+}
@@ -0,0 +1,55 @@
+package com.plms.springframework.bean;
+
+import com.plms.springframework.bean.factory.DisposableBean;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 记录销毁顺序的Bean，销毁方法可以模拟耗时或失败
+ * @Author bigboss
+ * @Date 2021/11/22 19:30
+ */
+public class ShutdownBean implements DisposableBean {
+
+    public static final List<String> DESTROYED = new CopyOnWriteArrayList<>();
+
+    private String name;
+
+    private ShutdownBean dependency;
+
+    private long destroyMillis;
+
+    private boolean failOnDestroy;
+
+    @Override
+    public void destroy() throws Exception {
+        if (destroyMillis > 0) {
+            Thread.sleep(destroyMillis);
+        }
+        if (failOnDestroy) {
+            throw new IllegalStateException(name + " failed to close");
+        }
+        DESTROYED.add(name);
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public ShutdownBean getDependency() {
+        return dependency;
+    }
+
+    public void setDependency(ShutdownBean dependency) {
+        this.dependency = dependency;
+    }
+
+    public void setDestroyMillis(long destroyMillis) {
+        this.destroyMillis = destroyMillis;
+    }
+
+    public void setFailOnDestroy(boolean failOnDestroy) {
+        this.failOnDestroy = failOnDestroy;
+    }
+}
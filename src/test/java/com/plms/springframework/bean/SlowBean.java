@@ -0,0 +1,18 @@
+package com.plms.springframework.bean;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 构造较慢的Bean，用于测试并发创建
+ * @Author bigboss
+ * @Date 2021/11/10 20:31
+ */
+public class SlowBean {
+
+    public static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    public SlowBean() throws InterruptedException {
+        INSTANCES.incrementAndGet();
+        Thread.sleep(50);
+    }
+}
@@ -0,0 +1,65 @@
+package com.plms.springframework.bean;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 初始化方法较慢的Bean，记录初始化完成的顺序
+ * @Author bigboss
+ * @Date 2021/11/11 19:42
+ */
+public class SlowInitBean {
+
+    public static final List<String> INITIALIZED = new CopyOnWriteArrayList<>();
+
+    /**
+     * awaitOverlap为true的Bean初始化时在这里等待，全部同时进入初始化后才继续
+     */
+    public static volatile CountDownLatch overlap = new CountDownLatch(0);
+
+    /**
+     * 在等待超时之前与其他Bean同时进入初始化的Bean
+     */
+    public static final List<String> OVERLAPPED = new CopyOnWriteArrayList<>();
+
+    private String name;
+
+    private boolean awaitOverlap;
+
+    private SlowInitBean dependency;
+
+    public void init() throws InterruptedException {
+        if (awaitOverlap) {
+            CountDownLatch latch = overlap;
+            latch.countDown();
+            if (latch.await(5, TimeUnit.SECONDS)) {
+                OVERLAPPED.add(name);
+            }
+        } else {
+            Thread.sleep(200);
+        }
+        INITIALIZED.add(name);
+    }
+
+    public void setAwaitOverlap(boolean awaitOverlap) {
+        this.awaitOverlap = awaitOverlap;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public SlowInitBean getDependency() {
+        return dependency;
+    }
+
+    public void setDependency(SlowInitBean dependency) {
+        this.dependency = dependency;
+    }
+}
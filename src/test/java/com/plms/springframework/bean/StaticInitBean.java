@@ -0,0 +1,23 @@
+package com.plms.springframework.bean;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 静态初始化时计数的Bean，用于检查类是否在创建Bean之前就被初始化
+ * @Author bigboss
+ * @Date 2021/11/30 20:50
+ */
+public class StaticInitBean extends Car {
+
+    static {
+        ClassInitializations.COUNT.incrementAndGet();
+    }
+
+    /**
+     * 计数器放在单独的类中，读取计数时不会触发StaticInitBean的静态初始化
+     */
+    public static final class ClassInitializations {
+
+        public static final AtomicInteger COUNT = new AtomicInteger();
+    }
+}
@@ -0,0 +1,32 @@
+package com.plms.springframework.bean;
+
+/**
+ * 既有setter注入又有字段注入的Bean，并从父类继承属性
+ * @Author bigboss
+ * @Date 2021/11/14 15:20
+ */
+public class Tyre extends Car {
+
+    private int size;
+
+    private String maker;
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getMaker() {
+        return maker;
+    }
+
+    public void setMaker(String maker) {
+        this.maker = maker.toUpperCase();
+    }
+
+    /**
+     * 没有对应字段的属性，只能通过setter注入
+     */
+    public void setModel(String model) {
+        this.maker = model.toUpperCase();
+    }
+}
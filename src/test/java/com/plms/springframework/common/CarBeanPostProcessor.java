@@ -0,0 +1,33 @@
+package com.plms.springframework.common;
+
+import com.plms.springframework.bean.BeansException;
+import com.plms.springframework.bean.Car;
+import com.plms.springframework.bean.factory.config.BeanPostProcessor;
+
+/**
+ * 属性需要通过容器中的ConversionService转换的BeanPostProcessor
+ * @Author bigboss
+ * @Date 2021/11/30 20:45
+ */
+public class CarBeanPostProcessor implements BeanPostProcessor {
+
+    private Car car;
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+
+    public Car getCar() {
+        return car;
+    }
+
+    public void setCar(Car car) {
+        this.car = car;
+    }
+}
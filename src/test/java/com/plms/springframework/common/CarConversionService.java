@@ -0,0 +1,20 @@
+package com.plms.springframework.common;
+
+import com.plms.springframework.bean.Car;
+import com.plms.springframework.core.convert.support.DefaultConversionService;
+
+/**
+ * 支持将品牌名称转换为Car的ConversionService
+ * @Author bigboss
+ * @Date 2021/11/30 20:40
+ */
+public class CarConversionService extends DefaultConversionService {
+
+    public CarConversionService() {
+        addConverter(String.class, Car.class, source -> {
+            Car car = new Car();
+            car.setBrand(source);
+            return car;
+        });
+    }
+}
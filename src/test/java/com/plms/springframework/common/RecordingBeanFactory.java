@@ -0,0 +1,58 @@
+package com.plms.springframework.common;
+
+import com.plms.springframework.bean.PropertyValue;
+import com.plms.springframework.bean.factory.config.BeanDefinition;
+import com.plms.springframework.bean.factory.config.BeanReference;
+import com.plms.springframework.bean.factory.support.DefaultListableBeanFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 记录BeanDefinition注册顺序的BeanFactory，getBeanDefinitionNames不保证顺序，
+ * 比较不同方式加载的结果时按注册顺序描述每个BeanDefinition
+ * @Author bigboss
+ * @Date 2021/11/30 20:10
+ */
+public class RecordingBeanFactory extends DefaultListableBeanFactory {
+
+    private final List<String> registeredNames = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) {
+        super.registerBeanDefinition(beanName, beanDefinition);
+        registeredNames.add(beanName);
+    }
+
+    public List<String> getRegisteredNames() {
+        return registeredNames;
+    }
+
+    /**
+     * 按注册顺序描述所有BeanDefinition，包括名称、类名、各项属性和属性值
+     * @return
+     */
+    public List<String> describe() {
+        List<String> result = new ArrayList<>(registeredNames.size());
+        for (String beanName : registeredNames) {
+            BeanDefinition beanDefinition = getBeanDefinition(beanName);
+            StringBuilder builder = new StringBuilder(beanName).append(' ').append(beanDefinition.getBeanClassName())
+                    .append(" scope=").append(beanDefinition.getScope())
+                    .append(" lazy=").append(beanDefinition.isLazyInit())
+                    .append(" async=").append(beanDefinition.isAsyncInit())
+                    .append(" init=").append(beanDefinition.getInitMethodName())
+                    .append(" destroy=").append(beanDefinition.getDestroyMethodName())
+                    .append(" dependsOn=").append(Arrays.toString(beanDefinition.getDependsOn()))
+                    .append(" pool=").append(beanDefinition.getPoolMinIdle()).append('/').append(beanDefinition.getPoolMaxIdle());
+            for (PropertyValue propertyValue : beanDefinition.getPropertyValues().getPropertyValues()) {
+                Object value = propertyValue.getValue();
+                builder.append(' ').append(propertyValue.getName()).append('=')
+                        .append(value instanceof BeanReference ? "ref:" + ((BeanReference) value).getBeanName() : value);
+            }
+            result.add(builder.toString());
+        }
+        return result;
+    }
+}
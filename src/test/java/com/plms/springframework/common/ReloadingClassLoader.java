@@ -0,0 +1,40 @@
+package com.plms.springframework.common;
+
+import cn.hutool.core.io.IoUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 自己加载指定的类，得到一个与原来的类同名的新类
+ * @Author bigboss
+ * @Date 2021/11/17 21:40
+ */
+public class ReloadingClassLoader extends ClassLoader {
+
+    private final String reloadedClassName;
+
+    public ReloadingClassLoader(String reloadedClassName) {
+        super(ReloadingClassLoader.class.getClassLoader());
+        this.reloadedClassName = reloadedClassName;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!name.equals(reloadedClassName)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loadedClass = findLoadedClass(name);
+            if (loadedClass != null) {
+                return loadedClass;
+            }
+            try (InputStream inputStream = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                byte[] bytecode = IoUtil.readBytes(inputStream, false);
+                return defineClass(name, bytecode, 0, bytecode.length);
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.plms.springframework.core.convert;
+
+import com.plms.springframework.bean.Car;
+import com.plms.springframework.core.convert.support.DefaultConversionService;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @Author bigboss
+ * @Date 2021/11/20 16:10
+ */
+public class ConversionServiceTest {
+
+    private final DefaultConversionService conversionService = new DefaultConversionService();
+
+    @Test
+    public void testDefaultConverters() {
+        assertThat(conversionService.convert(" 42 ", int.class)).isEqualTo(42);
+        assertThat(conversionService.convert(42, long.class)).isEqualTo(42L);
+        assertThat(conversionService.convert("on", boolean.class)).isTrue();
+        assertThat(conversionService.convert("SECONDS", TimeUnit.class)).isEqualTo(TimeUnit.SECONDS);
+        assertThat(conversionService.convert("500ms", Duration.class)).isEqualTo(Duration.ofMillis(500));
+        assertThat(conversionService.convert("PT2M", Duration.class)).isEqualTo(Duration.ofMinutes(2));
+        assertThat(conversionService.convert("10MB", DataSize.class)).isEqualTo(DataSize.ofMegabytes(10));
+        assertThat(conversionService.convert("1, 2, 3", int[].class)).containsExactly(1, 2, 3);
+        assertThat(conversionService.convert("a,b", String[].class)).containsExactly("a", "b");
+        assertThat(conversionService.convert(7, String.class)).isEqualTo("7");
+    }
+
+    @Test
+    public void testConversionFailure() {
+        assertThatThrownBy(() -> conversionService.convert("abc", int.class)).isInstanceOf(ConversionFailedException.class);
+        assertThatThrownBy(() -> conversionService.convert("1", Car.class)).isInstanceOf(ConversionFailedException.class);
+        assertThatThrownBy(() -> conversionService.convert(null, int.class)).isInstanceOf(ConversionFailedException.class);
+        assertThat(conversionService.canConvert(String.class, Car.class)).isFalse();
+        assertThat(conversionService.canConvert(String.class, Duration.class)).isTrue();
+    }
+
+    @Test
+    public void testHutoolFallback() {
+        assertThat(conversionService.convert("java.lang.String", Class.class)).isEqualTo(String.class);
+        assertThat(conversionService.convert("en_US", Locale.class)).isEqualTo(Locale.US);
+        assertThat(conversionService.convert("2021-11-30", Date.class)).isNotNull();
+        assertThat(conversionService.convert("a,b", List.class)).containsExactly("a", "b");
+        assertThat(conversionService.canConvert(String.class, Locale.class)).isTrue();
+        assertThatThrownBy(() -> conversionService.convert("java.lang.Missing", Class.class)).isInstanceOf(ConversionFailedException.class);
+    }
+
+    @Test
+    public void testCustomConverter() {
+        conversionService.addConverter(String.class, Car.class, source -> {
+            Car car = new Car();
+            car.setBrand(source);
+            return car;
+        });
+        assertThat(conversionService.convert("porsche", Car.class).getBrand()).isEqualTo("porsche");
+        assertThat(conversionService.convert("porsche,bmw", Car[].class)).hasSize(2);
+    }
+
+    @Test
+    public void testNarrowingOverflow() {
+        assertThat(conversionService.convert(127L, byte.class)).isEqualTo((byte) 127);
+        assertThat(conversionService.convert(-2.9d, int.class)).isEqualTo(-2);
+        assertThat(conversionService.convert(new BigDecimal("9223372036854775807.5"), long.class)).isEqualTo(Long.MAX_VALUE);
+        assertThat(conversionService.convert(Double.POSITIVE_INFINITY, float.class)).isEqualTo(Float.POSITIVE_INFINITY);
+        // 超出目标类型范围时抛出异常，不会静默溢出
+        assertThatThrownBy(() -> conversionService.convert(128L, byte.class)).isInstanceOf(ConversionFailedException.class);
+        assertThatThrownBy(() -> conversionService.convert(40000, short.class)).isInstanceOf(ConversionFailedException.class);
+        assertThatThrownBy(() -> conversionService.convert(Long.MAX_VALUE, int.class)).isInstanceOf(ConversionFailedException.class);
+        assertThatThrownBy(() -> conversionService.convert(1e19d, long.class)).isInstanceOf(ConversionFailedException.class);
+        assertThatThrownBy(() -> conversionService.convert(Double.NaN, int.class)).isInstanceOf(ConversionFailedException.class);
+        assertThatThrownBy(() -> conversionService.convert(new BigInteger("9223372036854775808"), long.class))
+                .isInstanceOf(ConversionFailedException.class).hasMessageContaining("out of range");
+        assertThatThrownBy(() -> conversionService.convert(1e300, float.class)).isInstanceOf(ConversionFailedException.class);
+        assertThatThrownBy(() -> conversionService.convert(BigDecimal.TEN.pow(400), double.class)).isInstanceOf(ConversionFailedException.class);
+    }
+}